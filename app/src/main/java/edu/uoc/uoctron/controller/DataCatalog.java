@@ -0,0 +1,226 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.DemandSeries;
+import edu.uoc.uoctron.model.DispatchEngine;
+import edu.uoc.uoctron.model.PipelineStage;
+import edu.uoc.uoctron.model.PipelineStats;
+import edu.uoc.uoctron.model.PowerPlant;
+import edu.uoc.uoctron.model.RestartSchedule;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Process-wide cache of the plant, demand and restart schedule data files.
+ * Each file is parsed once and the result, which is never modified afterwards, is shared by
+ * every controller that names the same file: the plants with their compiled
+ * {@link DispatchEngine}, the {@link DemandSeries} and the {@link RestartSchedule}. Before a
+ * cached value is handed out, the last-modified time and the size of the file are checked, and the file is parsed again
+ * if either changed. Resources packed in a jar cannot change and are never checked.
+ * Files are resolved like before: first as a {@code /data/} resource, then in the file system.
+ * As before too, a plants or demand file with an invalid line keeps the rows read before it: the
+ * error is reported when the file is parsed, and the partial data is cached like a complete file.
+ * Parsing a plants or demand file is measured as {@link PipelineStage#LOAD_PLANTS} or
+ * {@link PipelineStage#LOAD_DEMAND}, and serving any file from the cache as {@link PipelineStage#CATALOG_HIT}.
+ */
+public class DataCatalog {
+
+    private static final DataCatalog SHARED = new DataCatalog();
+
+    private final Map<String, Entry<Fleet>> fleets = new ConcurrentHashMap<>();
+    private final Map<String, Entry<DemandSeries>> demands = new ConcurrentHashMap<>();
+    private final Map<String, Entry<RestartSchedule>> schedules = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+
+    /**
+     * Get the catalog shared by all the controllers of the process.
+     * @return The shared catalog.
+     */
+    public static DataCatalog shared() {
+        return SHARED;
+    }
+
+    /**
+     * Plants loaded from one file, with the fleet compiled for dispatch. Both are read-only.
+     */
+    public static final class Fleet {
+        private final List<PowerPlant> plants;
+        private final DispatchEngine dispatchEngine;
+
+        Fleet(List<PowerPlant> plants) {
+            this.plants = Collections.unmodifiableList(plants);
+            this.dispatchEngine = new DispatchEngine(this.plants);
+        }
+
+        public List<PowerPlant> getPlants() {
+            return plants;
+        }
+
+        public DispatchEngine getDispatchEngine() {
+            return dispatchEngine;
+        }
+    }
+
+    /**
+     * Get the plants of a file, loading it if it is not cached or changed on disk.
+     * @param filename The name of the resource, or the path of the file.
+     * @return The shared fleet.
+     * @throws IOException If the file does not exist or cannot be read.
+     */
+    public Fleet getPlants(String filename) throws IOException {
+        return fleets.computeIfAbsent(filename, name -> new Entry<>(PipelineStage.LOAD_PLANTS, fleet -> fleet.getPlants().size()))
+                .get(filename, this::loadPlants);
+    }
+
+    /**
+     * Get the demand series of a file, loading it if it is not cached or changed on disk.
+     * @param filename The name of the resource, or the path of the file.
+     * @return The shared demand series.
+     * @throws IOException If the file does not exist or cannot be read.
+     */
+    public DemandSeries getDemand(String filename) throws IOException {
+        return demands.computeIfAbsent(filename, name -> new Entry<>(PipelineStage.LOAD_DEMAND, DemandSeries::size))
+                .get(filename, this::loadDemand);
+    }
+
+    /**
+     * Get the restart schedule of a file, loading it if it is not cached or changed on disk.
+     * @param filename The name of the resource, or the path of the file.
+     * @return The shared schedule.
+     * @throws IOException If the file does not exist or cannot be read.
+     * @throws IllegalArgumentException If a line of the file is invalid.
+     */
+    public RestartSchedule getSchedule(String filename) throws IOException {
+        return schedules.computeIfAbsent(filename, name -> new Entry<>(null, schedule -> 0)).get(filename, DataFileParser::parseSchedule);
+    }
+
+    /**
+     * Drop every cached file, so the next request parses it again. Controllers keep the data they already have.
+     */
+    public void clear() {
+        fleets.clear();
+        demands.clear();
+        schedules.clear();
+    }
+
+    /**
+     * Get the number of times a file was parsed, counting reloads.
+     * @return The number of loads.
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    private Fleet loadPlants(ByteBuffer buffer) {
+        List<PowerPlant> plants = new ArrayList<>();
+        try {
+            DataFileParser.parsePlants(buffer, (type, name, latitude, longitude, city, maxCapacityMW) -> {
+                PowerPlant plant = UOCtronController.createPlant(type, name, latitude, longitude, city, maxCapacityMW, 1.0);
+                if (plant != null) {
+                    plants.add(plant);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+        return new Fleet(plants);
+    }
+
+    private DemandSeries loadDemand(ByteBuffer buffer) {
+        DemandSeries.Builder demand = new DemandSeries.Builder();
+        try {
+            DataFileParser.parseDemand(buffer, (epochDay, hour, minute, second, value) -> {
+                if (epochDay == DataFileParser.NO_DATE) {
+                    demand.add(hour, minute, second, value);
+                } else {
+                    demand.add(epochDay * 1440 + hour * 60 + minute, value);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error reading demand forecast file: " + e.getMessage());
+        }
+        return demand.build();
+    }
+
+    private interface Loader<T> {
+        T load(ByteBuffer buffer);
+    }
+
+    /**
+     * Cached value of one file, with the version of the file it was loaded from.
+     */
+    private final class Entry<T> {
+        /** The stage a load is measured as, or null if loads are not measured. */
+        private final PipelineStage stage;
+        private final ToLongFunction<T> rows;
+        private T value;
+        private long lastModified;
+        private long size;
+
+        Entry(PipelineStage stage, ToLongFunction<T> rows) {
+            this.stage = stage;
+            this.rows = rows;
+        }
+
+        synchronized T get(String filename, Loader<T> loader) throws IOException {
+            // Only ended if the cached value is served
+            PipelineStats.Probe hit = PipelineStats.start(PipelineStage.CATALOG_HIT);
+            URL url = DataCatalog.class.getResource("/data/" + filename);
+            Path path = url != null ? toPath(url) : Path.of(filename);
+            if (url == null && !Files.isRegularFile(path)) {
+                throw new FileNotFoundException(filename);
+            }
+
+            long modified = 0;
+            long length = 0;
+            if (path != null) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                modified = attributes.lastModifiedTime().toMillis();
+                length = attributes.size();
+            }
+            if (value != null && modified == lastModified && length == size) {
+                hit.end(1);
+                return value;
+            }
+
+            PipelineStats.Probe probe = stage != null ? PipelineStats.start(stage) : null;
+            ByteBuffer buffer = path != null ? DataFileParser.map(path) : DataFileParser.read(url);
+            value = loader.load(buffer);
+            lastModified = modified;
+            size = length;
+            loads.increment();
+            if (probe != null) {
+                probe.end(rows.applyAsLong(value));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Get the file behind a resource.
+     * @return The path, or null if the resource is not a plain file (e.g., inside a jar).
+     */
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.RestartSchedule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Byte-level parser for the plant, demand and restart schedule text files.
+ * Files are memory-mapped when possible and parsed in place: numbers and times are read
+ * straight from the buffer, and only the text columns of the plants file become strings.
+ * Lines follow the same rules as before: lines starting with '#' and blank lines are
+ * skipped, lines with too few columns are skipped, and fields are trimmed.
+ */
+public class DataFileParser {
+
+    /** Epoch day passed to a {@link DemandSink} for rows that only have a time. */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final int PLANT_COLUMNS = 6;
+
+    /** Powers of ten that are exact doubles, for the fast decimal path. */
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    /**
+     * Receives the rows of a plants file.
+     */
+    public interface PlantSink {
+        void accept(String type, String name, double latitude, double longitude, String city, double maxCapacityMW);
+    }
+
+    /**
+     * Receives the rows of a demand file. Rows without a date get {@link #NO_DATE} as epoch day.
+     */
+    public interface DemandSink {
+        void accept(long epochDay, int hour, int minute, int second, double demand);
+    }
+
+    private DataFileParser() {
+    }
+
+    /**
+     * Read a whole file, memory-mapping it when it lives in the file system.
+     * @param url The location of the file, typically a class path resource.
+     * @return A buffer with the content of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ByteBuffer read(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return map(Path.of(url.toURI()));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // Not a plain file path, fall back to reading the stream
+            }
+        }
+        try (InputStream is = url.openStream()) {
+            return ByteBuffer.wrap(is.readAllBytes());
+        }
+    }
+
+    /**
+     * Memory-map a file read-only.
+     * @param path The file to map.
+     * @return The mapped buffer.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Parse a plants file: {@code type,name,latitude,longitude,city,maxCapacityMW}.
+     * @param buffer The content of the file.
+     * @param sink Receives every valid row.
+     * @throws NumberFormatException If a numeric column cannot be parsed.
+     */
+    public static void parsePlants(ByteBuffer buffer, PlantSink sink) {
+        int[] commas = new int[PLANT_COLUMNS - 1];
+        byte[] scratch = new byte[256];
+        int limit = buffer.limit();
+        int start = buffer.position();
+
+        while (start < limit) {
+            int end = lineEnd(buffer, start, limit);
+            if (!isSkipped(buffer, start, end)) {
+                // Only the first five commas split columns, like split(",", 6)
+                int found = 0;
+                for (int i = start; i < end && found < commas.length; i++) {
+                    if (buffer.get(i) == ',') {
+                        commas[found++] = i;
+                    }
+                }
+                if (found == commas.length) {
+                    String type = text(buffer, start, commas[0], scratch);
+                    String name = text(buffer, commas[0] + 1, commas[1], scratch);
+                    double latitude = number(buffer, commas[1] + 1, commas[2]);
+                    double longitude = number(buffer, commas[2] + 1, commas[3]);
+                    String city = text(buffer, commas[3] + 1, commas[4], scratch);
+                    double maxCapacityMW = number(buffer, commas[4] + 1, end);
+
+                    sink.accept(type, name, latitude, longitude, city, maxCapacityMW);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Parse a demand file: {@code [yyyy-MM-dd(T| )]HH:mm[:ss],demand}.
+     * @param buffer The content of the file.
+     * @param sink Receives every valid row.
+     * @throws NumberFormatException If a demand cannot be parsed.
+     * @throws IllegalArgumentException If a time cannot be parsed.
+     */
+    public static void parseDemand(ByteBuffer buffer, DemandSink sink) {
+        // Consecutive rows usually share their date, so it is only resolved when it changes
+        int lastDate = -1;
+        long lastEpochDay = NO_DATE;
+        int limit = buffer.limit();
+        int start = buffer.position();
+
+        while (start < limit) {
+            int end = lineEnd(buffer, start, limit);
+            if (!isSkipped(buffer, start, end)) {
+                int comma = -1;
+                for (int i = start; i < end; i++) {
+                    if (buffer.get(i) == ',') {
+                        comma = i;
+                        break;
+                    }
+                }
+                if (comma >= 0) {
+                    int from = trimStart(buffer, start, comma);
+                    int to = trimEnd(buffer, from, comma);
+
+                    long epochDay = NO_DATE;
+                    if (to - from > 10 && buffer.get(from + 4) == '-') {
+                        int date = dateKey(buffer, from, to);
+                        if (date != lastDate) {
+                            lastDate = date;
+                            lastEpochDay = LocalDate.of(date / 10000, date / 100 % 100, date % 100).toEpochDay();
+                        }
+                        epochDay = lastEpochDay;
+                        from += 11;
+                    }
+
+                    int hour = twoDigits(buffer, from, to, 0, 23);
+                    expect(buffer, from, to, 2, ':');
+                    int minute = twoDigits(buffer, from, to, 3, 59);
+                    int second = 0;
+                    if (to - from > 5) {
+                        expect(buffer, from, to, 5, ':');
+                        second = twoDigits(buffer, from, to, 6, 59);
+                        if (to - from > 8) {
+                            expectFraction(buffer, from + 8, to);
+                        }
+                    }
+                    double demand = number(buffer, comma + 1, end);
+
+                    sink.accept(epochDay, hour, minute, second, demand);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Parse a restart schedule file, one step of the restoration plan per line:
+     * <pre>
+     * allow,&lt;from minute&gt;,&lt;types&gt;                   types allowed from that minute until the next allow
+     * cap,&lt;type&gt;,&lt;from minute&gt;,&lt;to minute&gt;,&lt;MW&gt;   restarting plants of the type generate at most MW
+     * nuclear_top_up,&lt;from minute&gt;                  nuclear covers the demand left after shedding
+     * </pre>
+     * Types are the keys of the plants file (e.g., {@code HYDRO}) separated by spaces, or
+     * {@code ALL} or {@code NONE}. No type is allowed before the first {@code allow} line,
+     * and without a {@code nuclear_top_up} line there is no top-up. Minutes range from 0 to
+     * {@link RestartSchedule#MAX_MINUTES}. Cap windows of a type may overlap, and the lowest
+     * cap applies where they do.
+     * @param buffer The content of the file.
+     * @return The compiled schedule.
+     * @throws IllegalArgumentException If a line cannot be understood or a minute is out of range.
+     */
+    public static RestartSchedule parseSchedule(ByteBuffer buffer) {
+        RestartSchedule.Builder schedule = new RestartSchedule.Builder();
+        byte[] scratch = new byte[256];
+        int limit = buffer.limit();
+        int start = buffer.position();
+        int lineNumber = 0;
+
+        while (start < limit) {
+            int end = lineEnd(buffer, start, limit);
+            lineNumber++;
+            if (end > start && !isSkipped(buffer, start, end)) {
+                String line = text(buffer, start, end, scratch);
+                String[] fields = line.split(",");
+                for (int f = 0; f < fields.length; f++) {
+                    fields[f] = fields[f].trim();
+                }
+                try {
+                    switch (fields[0].toLowerCase()) {
+                        case "allow" -> {
+                            expectFields(fields, 3);
+                            schedule.allow(Integer.parseInt(fields[1]), typeMask(fields[2]));
+                        }
+                        case "cap" -> {
+                            expectFields(fields, 5);
+                            schedule.cap(plantType(fields[1]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                                    Double.parseDouble(fields[4]));
+                        }
+                        case "nuclear_top_up" -> {
+                            expectFields(fields, 2);
+                            schedule.nuclearTopUpFrom(Integer.parseInt(fields[1]));
+                        }
+                        default -> throw new IllegalArgumentException("unknown step '" + fields[0] + "'");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid schedule line " + lineNumber + " (" + line + "): " + e.getMessage(), e);
+                }
+            }
+            // A CRLF pair ends a single line
+            start = end + (end + 1 < limit && buffer.get(end) == '\r' && buffer.get(end + 1) == '\n' ? 2 : 1);
+        }
+        return schedule.build();
+    }
+
+    private static void expectFields(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("expected " + count + " fields, found " + fields.length);
+        }
+    }
+
+    private static int typeMask(String types) {
+        if (types.equalsIgnoreCase("ALL")) {
+            return PlantType.ALL_MASK;
+        }
+        int mask = 0;
+        for (String key : types.split("\\s+")) {
+            if (!key.isEmpty() && !key.equalsIgnoreCase("NONE")) {
+                mask |= plantType(key).mask();
+            }
+        }
+        return mask;
+    }
+
+    private static PlantType plantType(String key) {
+        PlantType type = PlantType.fromKey(key);
+        if (type == null) {
+            throw new IllegalArgumentException("unknown plant type '" + key + "'");
+        }
+        return type;
+    }
+
+    /**
+     * Find the end of the line starting at a position ('\n' and '\r' both end a line).
+     */
+    private static int lineEnd(ByteBuffer buffer, int start, int limit) {
+        int i = start;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Check whether a line is a comment or blank.
+     */
+    private static boolean isSkipped(ByteBuffer buffer, int start, int end) {
+        return buffer.get(start) == '#' || trimStart(buffer, start, end) == end;
+    }
+
+    private static int trimStart(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Decode a trimmed UTF-8 column.
+     */
+    private static String text(ByteBuffer buffer, int start, int end, byte[] scratch) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        int length = end - start;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse a trimmed decimal column. Plain decimals with up to 15 significant digits are
+     * computed exactly from the bytes; anything else goes through {@link Double#parseDouble}.
+     */
+    private static double number(ByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (point) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i == end && digits > 0 && digits <= 15 && mantissa < MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+    }
+
+    private static int twoDigits(ByteBuffer buffer, int from, int to, int offset, int max) {
+        if (from + offset + 2 > to) {
+            throw invalidTime(buffer, from, to);
+        }
+        int high = buffer.get(from + offset) - '0';
+        int low = buffer.get(from + offset + 1) - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9 || high * 10 + low > max) {
+            throw invalidTime(buffer, from, to);
+        }
+        return high * 10 + low;
+    }
+
+    /**
+     * Read a {@code yyyy-MM-dd} date followed by 'T' or a space as the number yyyyMMdd.
+     */
+    private static int dateKey(ByteBuffer buffer, int from, int to) {
+        int year = twoDigits(buffer, from, to, 0, 99) * 100 + twoDigits(buffer, from, to, 2, 99);
+        expect(buffer, from, to, 4, '-');
+        int month = twoDigits(buffer, from, to, 5, 12);
+        expect(buffer, from, to, 7, '-');
+        int day = twoDigits(buffer, from, to, 8, 31);
+        byte separator = buffer.get(from + 10);
+        if (separator != 'T' && separator != ' ') {
+            throw invalidTime(buffer, from, to);
+        }
+        return (year * 100 + month) * 100 + day;
+    }
+
+    private static void expect(ByteBuffer buffer, int from, int to, int offset, char expected) {
+        if (from + offset >= to || buffer.get(from + offset) != expected) {
+            throw invalidTime(buffer, from, to);
+        }
+    }
+
+    private static void expectFraction(ByteBuffer buffer, int from, int to) {
+        if (buffer.get(from) != '.' || to - from < 2 || to - from > 10) {
+            throw invalidTime(buffer, from - 8, to);
+        }
+        for (int i = from + 1; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                throw invalidTime(buffer, from - 8, to);
+            }
+        }
+    }
+
+    private static IllegalArgumentException invalidTime(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new IllegalArgumentException("Text '" + new String(bytes, StandardCharsets.UTF_8) + "' could not be parsed as a time");
+    }
+}
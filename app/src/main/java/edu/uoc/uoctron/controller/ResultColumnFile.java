@@ -0,0 +1,295 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.Simulation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar binary export of a simulation run, for tools that ingest many runs.
+ * The file describes its own columns, and every column is a contiguous array of 8-byte
+ * values aligned to 8 bytes, so a reader maps the file and reads the columns in place
+ * (e.g., as {@link DoubleBuffer} views here, or as arrays in other languages).
+ * All values are little-endian, and the layout is:
+ * <pre>
+ * header     byte[4] magic "UOCR", int version, int flags (reserved, 0), int rows,
+ *            long start epoch second (UTC), int step seconds, int column count
+ * directory  per column: short name length, name in UTF-8, byte type ('L' int64 or 'D' float64),
+ *            long offset of the data from the start of the file
+ * data       zero padding to a multiple of 8, then each column as rows values, in directory order
+ * </pre>
+ * Columns are {@code time} (epoch second of each row, UTC), {@code generatedMW},
+ * {@code expectedDemandMW}, {@code averageStability} and one {@code generatedByTypeMW.<KEY>}
+ * per type that generates at some row, e.g. {@code generatedByTypeMW.HYDRO}; the types left
+ * out are zero throughout. Readers reject other versions.
+ */
+public class ResultColumnFile {
+
+    public static final int VERSION = 1;
+
+    public static final String TIME = "time";
+    public static final String GENERATED = "generatedMW";
+    public static final String EXPECTED_DEMAND = "expectedDemandMW";
+    public static final String AVERAGE_STABILITY = "averageStability";
+    public static final String GENERATED_BY_TYPE = "generatedByTypeMW.";
+
+    private static final byte[] MAGIC = {'U', 'O', 'C', 'R'};
+    private static final int HEADER_BYTES = 32;
+    private static final byte INT64 = 'L';
+    private static final byte FLOAT64 = 'D';
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private ResultColumnFile() {
+    }
+
+    /**
+     * Write the results of a simulation to a columnar file.
+     * @param simulation The simulation to write.
+     * @param path The file to write, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Simulation simulation, Path path) throws IOException {
+        ResultTable table = simulation.getTable();
+        int rows = table.size();
+
+        List<String> names = new ArrayList<>(List.of(TIME, GENERATED, EXPECTED_DEMAND, AVERAGE_STABILITY));
+        List<double[]> columns = new ArrayList<>(List.of(table.getGeneratedColumn(), table.getExpectedDemandColumn(),
+                table.getStabilityColumn()));
+        for (PlantType type : PlantType.values()) {
+            double[] column = table.getGeneratedByTypeColumn(type);
+            for (double value : column) {
+                if (value != 0.0) {
+                    names.add(GENERATED_BY_TYPE + type.getKey());
+                    columns.add(column);
+                    break;
+                }
+            }
+        }
+
+        byte[][] encodedNames = new byte[names.size()][];
+        int directoryBytes = 0;
+        for (int c = 0; c < names.size(); c++) {
+            encodedNames[c] = names.get(c).getBytes(StandardCharsets.UTF_8);
+            directoryBytes += Short.BYTES + encodedNames[c].length + 1 + Long.BYTES;
+        }
+        long dataStart = (HEADER_BYTES + directoryBytes + 7) & ~7L;
+
+        ByteBuffer header = ByteBuffer.allocate((int) dataStart).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(0);
+        header.putInt(rows);
+        header.putLong(table.getStartTime().toEpochSecond(ZoneOffset.UTC));
+        header.putInt(table.getStepSeconds());
+        header.putInt(names.size());
+        for (int c = 0; c < names.size(); c++) {
+            header.putShort((short) encodedNames[c].length);
+            header.put(encodedNames[c]);
+            header.put(c == 0 ? INT64 : FLOAT64);
+            header.putLong(dataStart + (long) c * rows * Long.BYTES);
+        }
+        header.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long startSecond = table.getStartTime().toEpochSecond(ZoneOffset.UTC);
+            int perChunk = CHUNK_BYTES / Long.BYTES;
+            for (int from = 0; from < rows; from += perChunk) {
+                int count = Math.min(perChunk, rows - from);
+                chunk.clear();
+                for (int row = from; row < from + count; row++) {
+                    chunk.putLong(startSecond + (long) row * table.getStepSeconds());
+                }
+                chunk.flip();
+                writeFully(channel, chunk);
+            }
+            for (double[] column : columns) {
+                for (int from = 0; from < rows; from += perChunk) {
+                    int count = Math.min(perChunk, rows - from);
+                    chunk.clear();
+                    chunk.asDoubleBuffer().put(column, from, count);
+                    chunk.limit(count * Double.BYTES);
+                    writeFully(channel, chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Map a columnar file. Nothing is copied: the columns are views of the mapping.
+     * @param path The file to read.
+     * @return The mapped columns.
+     * @throws IOException If the file cannot be read or is not a supported result file.
+     */
+    public static Columns read(Path path) throws IOException {
+        ByteBuffer buffer = DataFileParser.map(path).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            if (buffer.remaining() >= HEADER_BYTES) {
+                buffer.get(magic);
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a UOCtron result file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported result file version " + version + ": " + path);
+            }
+            buffer.getInt();
+            int rows = buffer.getInt();
+            LocalDateTime startTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            int stepSeconds = buffer.getInt();
+            int columnCount = buffer.getInt();
+            if (rows < 0 || columnCount < 0) {
+                throw new IllegalArgumentException("Negative size");
+            }
+
+            Map<String, ByteBuffer> columns = new LinkedHashMap<>();
+            Map<String, Byte> types = new LinkedHashMap<>();
+            for (int c = 0; c < columnCount; c++) {
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                byte type = buffer.get();
+                long offset = buffer.getLong();
+                if ((type != INT64 && type != FLOAT64) || offset < 0 || offset + (long) rows * Long.BYTES > buffer.capacity()) {
+                    throw new IllegalArgumentException("Invalid column");
+                }
+                String key = new String(name, StandardCharsets.UTF_8);
+                columns.put(key, buffer.slice((int) offset, rows * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN));
+                types.put(key, type);
+            }
+            for (String name : List.of(TIME, GENERATED, EXPECTED_DEMAND, AVERAGE_STABILITY)) {
+                if (!types.containsKey(name) || (types.get(name) == INT64) != name.equals(TIME)) {
+                    throw new IllegalArgumentException("Missing column: " + name);
+                }
+            }
+            return new Columns(rows, startTime, stepSeconds, columns, types);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt result file: " + path, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * The columns of a mapped result file. The buffers returned are read-only views of the
+     * mapping and stay valid while they are referenced, even after the file is deleted.
+     */
+    public static final class Columns {
+        private final int rows;
+        private final LocalDateTime startTime;
+        private final int stepSeconds;
+        private final Map<String, ByteBuffer> columns;
+        private final Map<String, Byte> types;
+
+        private Columns(int rows, LocalDateTime startTime, int stepSeconds, Map<String, ByteBuffer> columns,
+                        Map<String, Byte> types) {
+            this.rows = rows;
+            this.startTime = startTime;
+            this.stepSeconds = stepSeconds;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        public int size() {
+            return rows;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public int getStepSeconds() {
+            return stepSeconds;
+        }
+
+        /**
+         * Get the names of the columns, in file order.
+         * @return The column names.
+         */
+        public List<String> getColumnNames() {
+            return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+        }
+
+        /**
+         * Get the time column.
+         * @return The epoch second (UTC) of each row.
+         */
+        public LongBuffer getTimeColumn() {
+            return columns.get(TIME).duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+
+        /**
+         * Get a floating-point column.
+         * @param name The name of the column, e.g. {@link #GENERATED}.
+         * @return The values by row, or null if the file has no such column.
+         * @throws IllegalArgumentException If the column is not floating point.
+         */
+        public DoubleBuffer getColumn(String name) {
+            ByteBuffer column = columns.get(name);
+            if (column == null) {
+                return null;
+            }
+            if (types.get(name) != FLOAT64) {
+                throw new IllegalArgumentException("Not a float64 column: " + name);
+            }
+            return column.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+
+        /**
+         * Get the generation of a plant type.
+         * @param type The plant type.
+         * @return Generated MW by row, or null if the type generates at no row.
+         */
+        public DoubleBuffer getGeneratedByType(PlantType type) {
+            return getColumn(GENERATED_BY_TYPE + type.getKey());
+        }
+
+        /**
+         * Copy the columns into a results table, e.g., to serve them like a stored run.
+         * @return A new table with the same rows.
+         */
+        public ResultTable toTable() {
+            double[][] generatedByType = new double[PlantType.COUNT][];
+            for (PlantType type : PlantType.values()) {
+                generatedByType[type.ordinal()] = copy(getGeneratedByType(type));
+            }
+            return new ResultTable(startTime, stepSeconds, copy(getColumn(GENERATED)), copy(getColumn(EXPECTED_DEMAND)),
+                    copy(getColumn(AVERAGE_STABILITY)), generatedByType);
+        }
+
+        private double[] copy(DoubleBuffer column) {
+            if (column == null) {
+                return null;
+            }
+            double[] values = new double[rows];
+            column.get(values);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package edu.uoc.uoctron.controller;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters of one endpoint of the {@link UOCtronServer}.
+ * All counters are lock-free adders, so recording a request never makes concurrent
+ * handlers wait for each other.
+ */
+public class ServerMetrics {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record the start of a request.
+     * @return The start time, to pass to {@link #end(long, boolean)}.
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the end of a request.
+     * @param start The value returned by {@link #start()}.
+     * @param failed Whether the request ended with an error status.
+     */
+    public void end(long start, boolean failed) {
+        long elapsed = System.nanoTime() - start;
+        inFlight.decrement();
+        requests.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(elapsed);
+        maxNanos.accumulate(elapsed);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Get the mean latency of the completed requests.
+     * @return The mean latency in milliseconds, or 0 if there were no requests.
+     */
+    public double getMeanLatencyMillis() {
+        long count = requests.sum();
+        return count == 0 ? 0.0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    public JSONObject toJSON() {
+        JSONObject obj = new JSONObject();
+        obj.put("requests", getRequests());
+        obj.put("errors", getErrors());
+        obj.put("inFlight", getInFlight());
+        obj.put("meanLatencyMs", getMeanLatencyMillis());
+        obj.put("maxLatencyMs", getMaxLatencyMillis());
+        return obj;
+    }
+}
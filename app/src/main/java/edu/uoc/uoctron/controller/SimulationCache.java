@@ -0,0 +1,165 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.DemandSeries;
+import edu.uoc.uoctron.model.DispatchEngine;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.SheddingMode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of blackout simulation results.
+ * A run is fully determined by the compiled fleet, the demand curve it reads and the
+ * shedding mode, so entries are keyed by the engine and the demand series plus the position
+ * of the start inside the series. Keys compare the 64-bit content hashes first, and then the
+ * contents themselves (see {@link DispatchEngine#sameFleet} and {@link DemandSeries#equals}),
+ * so a hash collision between two fleets or two demand curves can never return a stale entry.
+ * <p>
+ * The cache holds the runs of one demand curve at a time: a lookup with another demand drops
+ * every entry first, and runs of another demand are not stored. Entries of other fleets (e.g.,
+ * regional blackouts over the same plants) are kept and age out as usual. Keys hold the engine
+ * and demand they were built from, so those stay reachable while their entry is cached.
+ */
+public class SimulationCache {
+
+    /**
+     * Identifies the inputs of a run.
+     */
+    public static final class Key {
+        private final DispatchEngine engine;
+        private final DemandSeries demand;
+        private final long fleetHash;
+        private final long demandHash;
+        private final long demandPosition;
+        private final int startSecond;
+        private final int steps;
+        private final int stepSeconds;
+        private final SheddingMode sheddingMode;
+
+        /**
+         * Create a key.
+         * @param engine The engine of the run, which also gives its shedding mode.
+         * @param demand The demand series of the run.
+         * @param demandPosition The position of the start in the demand series, see {@link DemandSeries#positionOf(long)}.
+         * @param startSecond The second of the start, which only matters for steps that are not whole minutes.
+         * @param steps The number of steps of the run.
+         * @param stepSeconds The step of the run in seconds.
+         */
+        public Key(DispatchEngine engine, DemandSeries demand, long demandPosition, int startSecond, int steps,
+                   int stepSeconds) {
+            this.engine = engine;
+            this.demand = demand;
+            this.fleetHash = engine.getFleetHash();
+            this.demandHash = demand.getContentHash();
+            this.demandPosition = demandPosition;
+            this.startSecond = stepSeconds % 60 == 0 ? 0 : startSecond;
+            this.steps = steps;
+            this.stepSeconds = stepSeconds;
+            this.sheddingMode = engine.getSheddingMode();
+        }
+
+        public long getFleetHash() {
+            return fleetHash;
+        }
+
+        public long getDemandHash() {
+            return demandHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            // The hashes rule out almost every other key before the contents are compared
+            return fleetHash == key.fleetHash && demandHash == key.demandHash && demandPosition == key.demandPosition
+                    && startSecond == key.startSecond && steps == key.steps && stepSeconds == key.stepSeconds
+                    && sheddingMode == key.sheddingMode && engine.sameFleet(key.engine) && demand.equals(key.demand);
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = fleetHash * 31 + demandHash;
+            hash = hash * 31 + demandPosition;
+            hash = hash * 31 + startSecond;
+            hash = hash * 31 + steps;
+            hash = hash * 31 + stepSeconds;
+            hash = hash * 31 + sheddingMode.ordinal();
+            return Long.hashCode(hash);
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Key, ResultTable> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    /** The demand of the cached runs, or null before the first lookup. */
+    private DemandSeries demand;
+
+    /**
+     * Create a cache.
+     * @param maxEntries The maximum number of runs kept; the least recently used is evicted first.
+     */
+    public SimulationCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ResultTable> eldest) {
+                return size() > SimulationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Look a run up, counting the hit or miss. When the demand in the key differs from the
+     * previous lookup (e.g., after a revision of the forecast), every entry is dropped first,
+     * since none of them can be hit again until that demand comes back.
+     * @param key The inputs of the run.
+     * @return The cached results, or null if the run is not cached.
+     */
+    public synchronized ResultTable get(Key key) {
+        if (demand == null || key.demandHash != demand.getContentHash() || !key.demand.equals(demand)) {
+            entries.clear();
+            demand = key.demand;
+        }
+        ResultTable table = entries.get(key);
+        if (table == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return table;
+    }
+
+    /**
+     * Store the results of a run. Runs of another demand than the last lookup are not stored.
+     * @param key The inputs of the run.
+     * @param table The results of the run. They must not be modified afterwards.
+     */
+    public synchronized void put(Key key, ResultTable table) {
+        if (key.demand == demand || key.demand.equals(demand)) {
+            entries.put(key, table);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,65 @@
+package edu.uoc.uoctron.controller;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for running simulations concurrently.
+ * On Java 21 and later every task gets its own virtual thread. On older runtimes the
+ * executor falls back to a cached pool of daemon platform threads, so the same code runs
+ * everywhere; the factory method is looked up reflectively to keep compiling on Java 17.
+ */
+public final class SimulationExecutors {
+
+    private static final class Shared {
+        private static final ExecutorService EXECUTOR = newExecutor("uoctron-simulation");
+    }
+
+    private SimulationExecutors() {
+    }
+
+    /**
+     * Get the executor shared by all controllers. It is created on first use and never shut down.
+     * @return The shared executor.
+     */
+    public static ExecutorService shared() {
+        return Shared.EXECUTOR;
+    }
+
+    /**
+     * Create an executor running each task on a virtual thread when available.
+     * @param name The prefix of the thread names, used by the platform-thread fallback.
+     * @return A new executor. The caller is responsible for shutting it down.
+     */
+    public static ExecutorService newExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreads(name));
+        }
+    }
+
+    /**
+     * Check whether {@link #newExecutor(String)} runs tasks on virtual threads.
+     * @return True on Java 21 and later.
+     */
+    public static boolean isVirtual() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,314 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.DemandSeries;
+import edu.uoc.uoctron.model.Model;
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.PowerPlant;
+import edu.uoc.uoctron.model.RenewablePlant;
+import edu.uoc.uoctron.model.RestartSchedule;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.Simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Binary snapshot of a {@link Model}, so a controller starts without parsing the text files.
+ * The file is memory-mapped on load: the demand and the simulation columns are bulk-copied
+ * out of the mapping, and only the plant names and cities are decoded. All values are
+ * big-endian, and the layout is:
+ * <pre>
+ * header       int magic "UOCS", int version, int flags (bit 0: simulations included)
+ * plants       int count, then per plant: byte type ordinal, double latitude, double longitude,
+ *              double maxCapacityMW, double efficiency, string name, string city
+ * demand       long start epoch minute, int minutes, double[minutes] values
+ * schedule     int boundaries, then per boundary: int minute, int allowed mask, int capped mask,
+ *              and one double cap per type in the capped mask, in ordinal order; then int
+ *              nuclear top-up minute ({@link Integer#MAX_VALUE} for none)
+ * simulations  int count, then per run: long start epoch second, int step seconds, int rows,
+ *              int type mask, double[rows] generated, expected demand and stability,
+ *              and one double[rows] per type in the mask, in ordinal order
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes. Readers reject other versions.
+ * <p>
+ * Only the result tables of the simulations are stored, not the engine they were dispatched
+ * with nor their blackout region. A simulation read back has no plant generation
+ * ({@link Simulation#getPlantGeneration()} returns null, and the plant endpoints are empty),
+ * and resimulating it dispatches every step again as a blackout of the whole fleet, with the
+ * shedding mode of the controller. The simulation cache is not stored either.
+ */
+public class SnapshotFile {
+
+    public static final int MAGIC = 0x554F4353;
+    public static final int VERSION = 2;
+
+    private static final int FLAG_SIMULATIONS = 1;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Write a model to a snapshot file.
+     * @param model The model to write.
+     * @param path The file to write, replaced if it exists.
+     * @param includeSimulations Whether the stored simulations are written too.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Model model, Path path, boolean includeSimulations) throws IOException {
+        List<PowerPlant> plants = model.getPlants();
+        DemandSeries demand = model.getDemand();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(includeSimulations ? FLAG_SIMULATIONS : 0);
+
+            out.writeInt(plants.size());
+            for (PowerPlant plant : plants) {
+                out.writeByte(plant.getPlantType().ordinal());
+                out.writeDouble(plant.getLatitude());
+                out.writeDouble(plant.getLongitude());
+                out.writeDouble(plant.getMaxCapacityMW());
+                out.writeDouble(plant instanceof RenewablePlant renewable ? renewable.getEfficiency() : 1.0);
+                writeString(out, plant.getName());
+                writeString(out, plant.getCity());
+            }
+
+            out.writeLong(demand.getStartEpochMinute());
+            out.writeInt(demand.size());
+            for (int i = 0; i < demand.size(); i++) {
+                out.writeDouble(demand.getDemand(demand.getStartEpochMinute() + i));
+            }
+
+            writeSchedule(out, model.getRestartSchedule());
+
+            if (includeSimulations) {
+                List<Simulation> simulations = model.getSimulations();
+                out.writeInt(simulations.size());
+                for (Simulation simulation : simulations) {
+                    writeTable(out, simulation.getTable());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a snapshot file into a new model.
+     * @param path The snapshot file.
+     * @return The model, with its simulations if the file has them.
+     * @throws IOException If the file cannot be read or is not a supported snapshot.
+     */
+    public static Model read(Path path) throws IOException {
+        ByteBuffer buffer = DataFileParser.map(path);
+        try {
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a UOCtron snapshot: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            int flags = buffer.getInt();
+
+            Model model = new Model();
+            int plantCount = buffer.getInt();
+            for (int i = 0; i < plantCount; i++) {
+                PlantType type = PlantType.of(buffer.get());
+                double latitude = buffer.getDouble();
+                double longitude = buffer.getDouble();
+                double maxCapacityMW = buffer.getDouble();
+                double efficiency = buffer.getDouble();
+                String name = readString(buffer);
+                String city = readString(buffer);
+                PowerPlant plant = UOCtronController.createPlant(type.getKey(), name, latitude, longitude, city, maxCapacityMW, efficiency);
+                if (plant != null) {
+                    model.addPlant(plant);
+                }
+            }
+
+            long startEpochMinute = buffer.getLong();
+            int minutes = buffer.getInt();
+            if (minutes > 0) {
+                // A snapshot of a model without demand stores an empty series, which is the default
+                model.setDemand(DemandSeries.of(startEpochMinute, readDoubles(buffer, minutes)));
+            }
+            model.setRestartSchedule(readSchedule(buffer));
+
+            if ((flags & FLAG_SIMULATIONS) != 0) {
+                int simulationCount = buffer.getInt();
+                for (int i = 0; i < simulationCount; i++) {
+                    ResultTable table = readTable(buffer);
+                    model.addSimulation(new Simulation(table.getStartTime(), table));
+                }
+            }
+            return model;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Convert the text data files to a snapshot.
+     * Usage: {@code SnapshotFile <plants file> <demand file> <snapshot file>}.
+     * @param args The command line arguments.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SnapshotFile <plants file> <demand file> <snapshot file>");
+            System.exit(2);
+        }
+        UOCtronController controller = new UOCtronController(args[0], args[1]);
+        controller.writeSnapshot(Path.of(args[2]), false);
+        System.out.println("Wrote " + Files.size(Path.of(args[2])) + " bytes to " + args[2]);
+    }
+
+    /**
+     * Write the compiled timeline of a schedule: the mask and the finite caps at each boundary.
+     */
+    private static void writeSchedule(DataOutputStream out, RestartSchedule schedule) throws IOException {
+        int[] boundaries = schedule.getBoundaries();
+        out.writeInt(boundaries.length);
+        for (int minute : boundaries) {
+            int cappedMask = 0;
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                if (schedule.capAt(t, minute) != Double.POSITIVE_INFINITY) {
+                    cappedMask |= 1 << t;
+                }
+            }
+            out.writeInt(minute);
+            out.writeInt(schedule.allowedMask(minute));
+            out.writeInt(cappedMask);
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                if ((cappedMask & (1 << t)) != 0) {
+                    out.writeDouble(schedule.capAt(t, minute));
+                }
+            }
+        }
+        out.writeInt(schedule.getNuclearTopUpMinute());
+    }
+
+    /**
+     * Rebuild a schedule from its timeline: each cap holds until the next boundary.
+     */
+    private static RestartSchedule readSchedule(ByteBuffer buffer) {
+        RestartSchedule.Builder schedule = new RestartSchedule.Builder();
+        int count = buffer.getInt();
+        double[] caps = new double[PlantType.COUNT];
+        int cappedMask = 0;
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            int minute = buffer.getInt();
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                if ((cappedMask & (1 << t)) != 0) {
+                    schedule.cap(PlantType.of(t), previous, minute, caps[t]);
+                }
+            }
+            schedule.allow(minute, buffer.getInt());
+            cappedMask = buffer.getInt();
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                if ((cappedMask & (1 << t)) != 0) {
+                    caps[t] = buffer.getDouble();
+                }
+            }
+            previous = minute;
+        }
+        if (cappedMask != 0) {
+            throw new IllegalArgumentException("Cap without end at minute " + previous);
+        }
+        int nuclearTopUpMinute = buffer.getInt();
+        if (nuclearTopUpMinute != Integer.MAX_VALUE) {
+            schedule.nuclearTopUpFrom(nuclearTopUpMinute);
+        }
+        return schedule.build();
+    }
+
+    private static void writeTable(DataOutputStream out, ResultTable table) throws IOException {
+        int mask = 0;
+        double[][] columns = new double[PlantType.COUNT][];
+        for (PlantType type : PlantType.values()) {
+            double[] column = table.getGeneratedByTypeColumn(type);
+            for (double value : column) {
+                if (value != 0.0) {
+                    columns[type.ordinal()] = column;
+                    mask |= type.mask();
+                    break;
+                }
+            }
+        }
+
+        out.writeLong(table.getStartTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(table.getStepSeconds());
+        out.writeInt(table.size());
+        out.writeInt(mask);
+        writeDoubles(out, table.getGeneratedColumn());
+        writeDoubles(out, table.getExpectedDemandColumn());
+        writeDoubles(out, table.getStabilityColumn());
+        for (double[] column : columns) {
+            if (column != null) {
+                writeDoubles(out, column);
+            }
+        }
+    }
+
+    private static ResultTable readTable(ByteBuffer buffer) {
+        LocalDateTime startTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        int stepSeconds = buffer.getInt();
+        int rows = buffer.getInt();
+        int mask = buffer.getInt();
+        double[] generated = readDoubles(buffer, rows);
+        double[] expectedDemand = readDoubles(buffer, rows);
+        double[] stability = readDoubles(buffer, rows);
+        double[][] generatedByType = new double[PlantType.COUNT][];
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            if ((mask & (1 << t)) != 0) {
+                generatedByType[t] = readDoubles(buffer, rows);
+            }
+        }
+        return new ResultTable(startTime, stepSeconds, generated, expectedDemand, stability, generatedByType);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Bulk-copy doubles out of the buffer and move past them.
+     */
+    private static double[] readDoubles(ByteBuffer buffer, int count) {
+        if (count < 0 || (long) count * Double.BYTES > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,687 @@
+package edu.uoc.uoctron.controller;
+
+import org.json.JSONArray;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import edu.uoc.uoctron.model.*;
+import org.json.JSONObject;
+
+public class UOCtronController {
+
+    // Declare the needed variables here
+    private static final double UNMET_TOLERANCE_MW = 1e-3;
+    private static final int CACHED_SIMULATIONS = 64;
+
+    private Model model;
+    private volatile SheddingMode sheddingMode = SheddingMode.CLOSED_FORM;
+    private final SimulationCache simulationCache = new SimulationCache(CACHED_SIMULATIONS);
+
+    public UOCtronController(String plansFile, String demandFile) {
+        model = new Model();
+
+        // Load the data from the files
+        loadPlants(plansFile);
+        loadMinuteDemand(demandFile);
+    }
+
+    /**
+     * Create a controller that follows a restoration plan read from a file instead of the default one.
+     * @param plansFile The plants file
+     * @param demandFile The minute demand file
+     * @param scheduleFile The restart schedule file (see {@link DataFileParser#parseSchedule})
+     */
+    public UOCtronController(String plansFile, String demandFile, String scheduleFile) {
+        this(plansFile, demandFile);
+        loadRestartSchedule(scheduleFile);
+    }
+
+    private UOCtronController(Model model) {
+        this.model = model;
+    }
+
+    /**
+     * Create a controller from a binary snapshot written by {@link #writeSnapshot(Path, boolean)}
+     * or by the {@link SnapshotFile} converter. The file is memory-mapped and nothing is parsed as text.
+     * @param path The snapshot file.
+     * @return A controller over the plants, demand and simulations of the snapshot.
+     * @throws IOException If the file cannot be read or is not a supported snapshot.
+     */
+    public static UOCtronController fromSnapshot(Path path) throws IOException {
+        return new UOCtronController(SnapshotFile.read(path));
+    }
+
+    /**
+     * Write the plants, the demand and the restart schedule to a binary snapshot.
+     * @param path The file to write.
+     * @param includeSimulations Whether the stored simulations are written too.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeSnapshot(Path path, boolean includeSimulations) throws IOException {
+        SnapshotFile.write(model, path, includeSimulations);
+    }
+
+    /**
+     * Load the plants from a file. The plants come from the shared {@link DataCatalog},
+     * so controllers reading the same file share one fleet; the catalog measures the load.
+     * @param filename The name of the file to load the plants from.
+     */
+    private void loadPlants(String filename) {
+        try {
+            DataCatalog.Fleet fleet = DataCatalog.shared().getPlants(filename);
+            model.setFleet(fleet.getPlants(), fleet.getDispatchEngine());
+        } catch (Exception e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the minute demand from a file, through the shared {@link DataCatalog}.
+     * @param filename The name of the file to load the minute demand from.
+     */
+    private void loadMinuteDemand(String filename) {
+        try {
+            model.setDemand(DataCatalog.shared().getDemand(filename));
+        } catch (Exception e) {
+            System.err.println("Error reading demand forecast file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load the restart schedule from a file, through the shared {@link DataCatalog}.
+     * The default schedule is kept if the file cannot be read or is invalid.
+     * @param filename The name of the file to load the schedule from.
+     */
+    private void loadRestartSchedule(String filename) {
+        try {
+            model.setRestartSchedule(DataCatalog.shared().getSchedule(filename));
+        } catch (Exception e) {
+            System.err.println("Error reading restart schedule file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the restoration plan followed by the simulations, e.g., to try a new plan.
+     * Stored simulations are not changed; see {@link #resimulate(long)}.
+     * @param schedule The restart schedule
+     */
+    public void setRestartSchedule(RestartSchedule schedule) {
+        model.setRestartSchedule(schedule);
+    }
+
+    /**
+     * Add a power plant to the fleet. Stored simulations are not changed; see {@link #resimulate(long)}.
+     * @param type Type of the plant (e.g., "NUCLEAR", "HYDRO", etc.)
+     * @param name Name of the plant
+     * @param latitude Latitude of the plant
+     * @param longitude Longitude of the plant
+     * @param city City where the plant is located
+     * @param maxCapacityMW Maximum generation capacity of the plant in MW
+     * @param efficiency Efficiency of the plant (0.0 to 1.0)
+     */
+    public void addPowerPlant(String type, String name, double latitude, double longitude, String city, double maxCapacityMW, double efficiency) {
+        addPlant(type, name, latitude, longitude, city, maxCapacityMW, efficiency);
+    }
+
+    /**
+     * Revise the demand forecast of consecutive minutes. Stored simulations are not changed; see {@link #resimulate(long)}.
+     * @param from The first revised minute (seconds are ignored)
+     * @param demand The new demand in MW of each minute from {@code from}
+     */
+    public void reviseDemand(LocalDateTime from, double[] demand) {
+        synchronized (model) {
+            model.setDemand(model.getDemand().withRevision(DemandSeries.toEpochMinute(from), demand));
+        }
+    }
+
+    /**
+     * Add a new power plant to the system.
+     * @param type Type of the plant (e.g., "NUCLEAR", "HYDRO", etc.)
+     * @param name Name of the plant
+     * @param latitude Latitude of the plant
+     * @param longitude Longitude of the plant
+     * @param city City where the plant is located
+     * @param maxCapacityMW Maximum generation capacity of the plant in MW
+     * @param efficiency Efficiency of the plant (0.0 to 1.0)
+     */
+    private void addPlant(String type, String name, double latitude, double longitude, String city, double maxCapacityMW, double efficiency) {
+        if (model == null) model = new Model();
+
+        PowerPlant plant = createPlant(type, name, latitude, longitude, city, maxCapacityMW, efficiency);
+        if (plant != null) {
+            model.addPlant(plant);
+        }
+    }
+
+    /**
+     * Create a power plant from the columns of a plants file.
+     * @param type Type of the plant (e.g., "NUCLEAR", "HYDRO", etc.)
+     * @param name Name of the plant
+     * @param latitude Latitude of the plant
+     * @param longitude Longitude of the plant
+     * @param city City where the plant is located
+     * @param maxCapacityMW Maximum generation capacity of the plant in MW
+     * @param efficiency Efficiency of the plant (0.0 to 1.0), used by renewable plants only
+     * @return The plant, or null if the type is unknown.
+     */
+    static PowerPlant createPlant(String type, String name, double latitude, double longitude, String city, double maxCapacityMW, double efficiency) {
+        PowerPlant plant;
+        type = type.toUpperCase();
+
+        switch (type) {
+            case "NUCLEAR" -> {
+                plant = new NuclearPlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "nuclear.png", latitude, longitude);
+            }
+            case "HYDRO" -> {
+                RenewablePlant rp = new RenewablePlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "hydroelectric.png", latitude, longitude, "Hydroelectric");
+                rp.setEfficiency(efficiency);
+                plant = rp;
+            }
+            case "SOLAR" -> {
+                RenewablePlant rp = new RenewablePlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "solar.png", latitude, longitude, "Solar");
+                rp.setEfficiency(efficiency);
+                plant = rp;
+            }
+            case "WIND" -> {
+                RenewablePlant rp = new RenewablePlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "wind.png", latitude, longitude, "Wind");
+                rp.setEfficiency(efficiency);
+                plant = rp;
+            }
+            case "GEOTHERMAL" -> {
+                RenewablePlant rp = new RenewablePlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "geothermal.png", latitude, longitude, "Geothermal");
+                rp.setEfficiency(efficiency);
+                plant = rp;
+            }
+            case "BIOMASS" -> {
+                RenewablePlant rp = new RenewablePlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "biomass.png", latitude, longitude, "Biomass");
+                rp.setEfficiency(efficiency);
+                plant = rp;
+            }
+            case "COAL" -> {
+                plant = new ThermalPlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "coal.png", latitude, longitude, FuelType.COAL);
+            }
+            case "COMBINED_CYCLE" -> {
+                plant = new ThermalPlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "combined.png", latitude, longitude, FuelType.COMBINED_CYCLE);
+            }
+            case "FUEL_GAS" -> {
+                plant = new ThermalPlant("id", name, city, maxCapacityMW, "availability", 0, 1.0, "gas.png", latitude, longitude, FuelType.FUEL_GAS);
+            }
+            default -> {
+                System.err.println("Unknown type: " + type);
+                return null;
+            }
+        }
+        return plant;
+    }
+
+
+
+    /**
+     * Choose how generation is shed when stability drops below the minimum.
+     * @param sheddingMode {@link SheddingMode#CLOSED_FORM} (default) or the legacy {@link SheddingMode#STEPPED}.
+     */
+    public void setSheddingMode(SheddingMode sheddingMode) {
+        this.sheddingMode = sheddingMode;
+    }
+
+    /**
+     * Get the cache of blackout simulation results, e.g., to read its hit and miss counters.
+     * @return The simulation cache.
+     */
+    public SimulationCache getSimulationCache() {
+        return simulationCache;
+    }
+
+    /**
+     * Get the power plants in the system.
+     * @return A new array of the power plants, in load order. Changing it does not change the fleet
+     */
+    public Object[] getPowerPlants() {
+        return model.getSnapshot().getPlants().toArray();
+    }
+
+    /**
+     * Get the power plants as a JSON array encoded in UTF-8, the concatenation of their
+     * {@code toString()}. The encoding is built once per fleet and shared until a plant is
+     * added or the fleet is reloaded, so serving it is a buffer copy.
+     * @return A read-only buffer over the encoded array, positioned at its start
+     */
+    public ByteBuffer getPowerPlantsJSON() {
+        return model.getSnapshot().getPlantsJSON();
+    }
+
+
+    /**
+     * Simulate a blackout according to the given start time.
+     * The run is added to the simulation history of the model.
+     * @param blackoutStart The start time of the blackout
+     * @return The id of the run in the simulation history
+     */
+    public long runBlackoutSimulation(LocalDateTime blackoutStart) {
+        return simulate(blackoutStart).getId();
+    }
+
+    /**
+     * Simulate a blackout against the current snapshot of the fleet and the demand.
+     * Any number of threads can call this at the same time: each run reads an immutable
+     * snapshot and writes its own results, and only the cache and the history are shared.
+     * @param blackoutStart The start time of the blackout
+     * @return The run, as stored in the simulation history
+     */
+    public Simulation simulate(LocalDateTime blackoutStart) {
+        return simulate(blackoutStart, SimulationOptions.DEFAULT);
+    }
+
+    /**
+     * Simulate a blackout with a given horizon and step, keeping every step in the history.
+     * Use {@link #streamSimulation(LocalDateTime, SimulationOptions, Consumer)} for runs too long to keep.
+     * @param blackoutStart The start time of the blackout
+     * @param options The horizon, step and, optionally, shedding mode of the run
+     * @return The run, as stored in the simulation history
+     */
+    public Simulation simulate(LocalDateTime blackoutStart, SimulationOptions options) {
+        ModelSnapshot snapshot = model.getSnapshot();
+        return simulate(snapshot, null, blackoutStart, options, null);
+    }
+
+    /**
+     * Simulate a blackout that only hits the plants inside a region. The affected plants follow
+     * the restart sequence while the rest of the fleet keeps generating, and all of them cover
+     * the demand together in merit order.
+     * @param blackoutStart The start time of the blackout
+     * @param region The area hit by the blackout, e.g., {@link BlackoutRegion#circle(double, double, double)}
+     * @param options The horizon, step and, optionally, shedding mode of the run
+     * @return The run, as stored in the simulation history
+     */
+    public Simulation simulateRegionalBlackout(LocalDateTime blackoutStart, BlackoutRegion region, SimulationOptions options) {
+        return simulate(model.getSnapshot(), region, blackoutStart, options, null);
+    }
+
+    /**
+     * Run a stored simulation again against the current plants and demand. Only the minutes
+     * whose inputs changed since the stored run are dispatched: those whose demand was revised
+     * and those in restart phases where the fleet changed (e.g., the phases where an added
+     * plant can generate). Every other row is copied from the stored run. The blackout start,
+     * horizon, step, shedding mode and region are the ones of the stored run.
+     * @param id The id of the stored run
+     * @return The updated run, as stored in the simulation history, or null if the id is unknown
+     */
+    public Simulation resimulate(long id) {
+        Simulation previous = model.getSimulation(id);
+        if (previous == null) {
+            return null;
+        }
+        ResultTable table = previous.getTable();
+        SheddingMode mode = previous.getEngine() != null ? previous.getEngine().getSheddingMode() : sheddingMode;
+        SimulationOptions options = SimulationOptions.DEFAULT
+                .withStep(Duration.ofSeconds(table.getStepSeconds()))
+                .withHorizon(Duration.ofSeconds((long) table.size() * table.getStepSeconds()))
+                .withSheddingMode(mode);
+        return simulate(model.getSnapshot(), previous.getRegion(), previous.getStartTime(), options, previous);
+    }
+
+    /**
+     * Get the power plants inside a region.
+     * @param region The region to look up
+     * @return The plants in the region, in load order
+     */
+    public List<PowerPlant> getPlantsInRegion(BlackoutRegion region) {
+        ModelSnapshot snapshot = model.getSnapshot();
+        List<PowerPlant> plants = new ArrayList<>();
+        for (int index : region.select(snapshot.getSpatialIndex())) {
+            plants.add(snapshot.getPlants().get(index));
+        }
+        return plants;
+    }
+
+    /**
+     * Simulate a blackout, nationwide or regional, reusing the cache and, when given, the rows of an earlier run.
+     */
+    private Simulation simulate(ModelSnapshot snapshot, BlackoutRegion region, LocalDateTime blackoutStart,
+                                SimulationOptions options, Simulation previous) {
+        DispatchEngine fleet = snapshot.getDispatchEngine();
+        if (region != null) {
+            fleet = fleet.withBlackoutRegion(region.select(snapshot.getSpatialIndex()));
+        }
+        SheddingMode mode = options.getSheddingMode() != null ? options.getSheddingMode() : sheddingMode;
+        DispatchEngine engine = fleet.withSheddingMode(mode);
+        DemandSeries demandSeries = snapshot.getDemand();
+
+        SimulationCache.Key key = new SimulationCache.Key(engine, demandSeries,
+                demandSeries.positionOf(DemandSeries.toEpochMinute(blackoutStart)), blackoutStart.getSecond(),
+                options.getSteps(), options.getStepSeconds());
+        ResultTable cached = simulationCache.get(key);
+        if (cached != null) {
+            return model.addSimulation(new Simulation(0, blackoutStart, cached.withStartTime(blackoutStart), engine, region));
+        }
+
+        SimulationRun run = new SimulationRun(engine, demandSeries, blackoutStart, options);
+        ResultTable table = previous != null ? run.update(previous.getTable(), previous.getEngine()) : run.toTable();
+
+        simulationCache.put(key, table);
+        return model.addSimulation(new Simulation(0, blackoutStart, table, engine, region));
+    }
+
+    /**
+     * Prepare a blackout simulation to be read step by step. Steps are computed as the
+     * returned cursor advances, and nothing is cached or stored in the history.
+     * @param blackoutStart The start time of the blackout
+     * @param options The horizon, step and, optionally, shedding mode of the run
+     * @return A cursor positioned before the first step
+     */
+    public SimulationRun openSimulation(LocalDateTime blackoutStart, SimulationOptions options) {
+        ModelSnapshot snapshot = model.getSnapshot();
+        SheddingMode mode = options.getSheddingMode() != null ? options.getSheddingMode() : sheddingMode;
+        return new SimulationRun(snapshot.getDispatchEngine().withSheddingMode(mode), snapshot.getDemand(), blackoutStart, options);
+    }
+
+    /**
+     * Simulate a blackout, passing each step to a consumer as soon as it is computed.
+     * Memory use does not depend on the horizon, and nothing is cached or stored in the history.
+     * @param blackoutStart The start time of the blackout
+     * @param options The horizon, step and, optionally, shedding mode of the run
+     * @param consumer Receives the run positioned on each step; it must not keep the state across calls
+     */
+    public void streamSimulation(LocalDateTime blackoutStart, SimulationOptions options, Consumer<? super SimulationRun> consumer) {
+        openSimulation(blackoutStart, options).forEachRemaining(consumer);
+    }
+
+    /**
+     * Simulate a blackout on the shared simulation executor (virtual threads when available).
+     * @param blackoutStart The start time of the blackout
+     * @return A future completed with the stored run
+     */
+    public CompletableFuture<Simulation> simulateAsync(LocalDateTime blackoutStart) {
+        return CompletableFuture.supplyAsync(() -> simulate(blackoutStart), SimulationExecutors.shared());
+    }
+
+    /**
+     * Simulate several blackouts concurrently and wait for all of them.
+     * @param blackoutStarts The start times of the blackouts
+     * @return The stored runs, in the order of the start times
+     */
+    public List<Simulation> simulateAll(List<LocalDateTime> blackoutStarts) {
+        List<CompletableFuture<Simulation>> futures = new ArrayList<>(blackoutStarts.size());
+        for (LocalDateTime blackoutStart : blackoutStarts) {
+            futures.add(simulateAsync(blackoutStart));
+        }
+        List<Simulation> simulations = new ArrayList<>(futures.size());
+        for (CompletableFuture<Simulation> future : futures) {
+            simulations.add(future.join());
+        }
+        return simulations;
+    }
+
+    /**
+     * Run a Monte Carlo analysis of a blackout against the current snapshot. Plant availability,
+     * restart delays and renewable efficiency are sampled per trial, and only the distributions
+     * of the results are kept; the history and the cache are not modified.
+     * @param blackoutStart The start time of the blackout
+     * @param options The trials and uncertainty model
+     * @return The distributions of stability and unmet demand
+     */
+    public MonteCarloResult runMonteCarlo(LocalDateTime blackoutStart, MonteCarloOptions options) {
+        ModelSnapshot snapshot = model.getSnapshot();
+        SheddingMode mode = options.getSheddingMode() != null ? options.getSheddingMode() : sheddingMode;
+        return new MonteCarloSimulator(snapshot.getDispatchEngine().withSheddingMode(mode), snapshot.getDemand(),
+                blackoutStart, options).run();
+    }
+
+    /**
+     * Simulate a blackout starting at every minute of a day, in parallel, over the default
+     * horizon and step (see {@link SimulationOptions#DEFAULT}).
+     * @param day The day whose 1440 start minutes are simulated.
+     * @return One aggregate per start minute, in start order.
+     */
+    public SweepResult[] sweepBlackoutStarts(LocalDate day) {
+        return sweepBlackoutStarts(day, SimulationOptions.DEFAULT);
+    }
+
+    /**
+     * Simulate a blackout starting at every minute of a day, in parallel.
+     * All the runs share the same compiled fleet and demand profile, and only their aggregates
+     * are kept. The last simulation stored in the model is not modified.
+     * @param day The day whose 1440 start minutes are simulated.
+     * @param options The horizon, step and, optionally, shedding mode of every run
+     * @return One aggregate per start minute, in start order.
+     */
+    public SweepResult[] sweepBlackoutStarts(LocalDate day, SimulationOptions options) {
+        ModelSnapshot snapshot = model.getSnapshot();
+        SheddingMode mode = options.getSheddingMode() != null ? options.getSheddingMode() : sheddingMode;
+        DispatchEngine engine = snapshot.getDispatchEngine().withSheddingMode(mode);
+        DemandSeries demand = snapshot.getDemand();
+
+        LocalDateTime midnight = day.atStartOfDay();
+        return IntStream.range(0, 1440)
+                .parallel()
+                .mapToObj(start -> sweepStart(new SimulationRun(engine, demand, midnight.plusMinutes(start), options),
+                        options.getStepSeconds(), midnight.plusMinutes(start)))
+                .toArray(SweepResult[]::new);
+    }
+
+    /**
+     * Run one blackout of a sweep and reduce it to its aggregates. Times are in minutes of
+     * simulated time, rounded down, so with a step of 20 seconds three unmet steps make a minute.
+     * @param run The run, not advanced yet.
+     * @param stepSeconds The time between two steps of the run.
+     * @param blackoutStart The start time of the blackout.
+     * @return The aggregates of the run.
+     */
+    private SweepResult sweepStart(SimulationRun run, int stepSeconds, LocalDateTime blackoutStart) {
+        double minStability = 1.0;
+        int unmetSteps = 0;
+        double unservedMWh = 0.0;
+        int lastUnmetStep = -1;
+        double stepsPerHour = 3600.0 / stepSeconds;
+
+        while (run.next()) {
+            DispatchState state = run.getState();
+            if (state.getGenerated() > 0.0) {
+                minStability = Math.min(minStability, state.getStability());
+            }
+            double unserved = run.getExpectedDemand() - state.getGenerated();
+            if (unserved > UNMET_TOLERANCE_MW) {
+                unmetSteps++;
+                unservedMWh += unserved / stepsPerHour;
+                lastUnmetStep = run.getStep();
+            }
+        }
+
+        int unmetMinutes = (int) ((long) unmetSteps * stepSeconds / 60);
+        int recoveryMinutes = lastUnmetStep >= 0 && lastUnmetStep == run.getSteps() - 1
+                ? -1 : (int) ((long) (lastUnmetStep + 1) * stepSeconds / 60);
+        return new SweepResult(blackoutStart, minStability, unmetMinutes, unservedMWh, recoveryMinutes);
+    }
+
+    /**
+     * Get a stored simulation.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @return The run, or null if it does not exist or was evicted
+     */
+    public Simulation getSimulation(long id) {
+        return model.getSimulation(id);
+    }
+
+    /**
+     * Get the output of every plant at every minute of a stored simulation.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @return The per-plant generation, or null if the run does not exist, was evicted or was read from a snapshot
+     */
+    public PlantGenerationMatrix getPlantGeneration(long id) {
+        Simulation simulation = model.getSimulation(id);
+        return simulation != null ? simulation.getPlantGeneration() : null;
+    }
+
+    /**
+     * Return the output of one plant during a stored simulation in JSON format, one object
+     * per run of minutes with the same output: {@code {"from", "to", "outputMW"}}, where
+     * {@code to} is the time after the last minute of the run.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @param plant The position of the plant in {@link #getPowerPlants()}
+     * @return The runs, or an empty array if the run or the plant does not exist
+     */
+    public JSONArray getPlantGenerationResults(long id, int plant) {
+        return getPlantGenerationResults(model.getSimulation(id), plant);
+    }
+
+    /**
+     * Return the output of one plant during a simulation already looked up (e.g., with
+     * {@link #getSimulation(long)}), in the format of {@link #getPlantGenerationResults(long, int)}.
+     * @param simulation The simulation, or null
+     * @param plant The position of the plant in {@link #getPowerPlants()}
+     * @return The runs, or an empty array if the simulation is null or the plant does not exist
+     */
+    public JSONArray getPlantGenerationResults(Simulation simulation, int plant) {
+        JSONArray array = new JSONArray();
+        PlantGenerationMatrix matrix = simulation != null ? simulation.getPlantGeneration() : null;
+        if (matrix == null || plant < 0 || plant >= matrix.getPlantCount()) {
+            return array;
+        }
+        ResultTable table = simulation.getTable();
+        matrix.forEachRun(plant, 0, matrix.size(), (p, from, to, outputMW) -> {
+            JSONObject run = new JSONObject();
+            run.put("from", table.getTime(from).toString());
+            run.put("to", table.getTime(to).toString());
+            run.put("outputMW", outputMW);
+            array.put(run);
+        });
+        return array;
+    }
+
+    /**
+     * Return the results of the latest simulation in JSON format.
+     */
+    public JSONArray getSimulationResults() {
+        return toJSONArray(model.getLatestSimulation(), ResultQuery.ALL);
+    }
+
+    /**
+     * Return the results of a stored simulation in JSON format.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @return The results, or an empty array if the run does not exist or was evicted
+     */
+    public JSONArray getSimulationResults(long id) {
+        return toJSONArray(model.getSimulation(id), ResultQuery.ALL);
+    }
+
+    /**
+     * Return part of the results of the latest simulation in JSON format, e.g., one hour
+     * downsampled for a chart. Only the selected rows are read and serialized.
+     * @param query The time range, page and downsampling, see {@link ResultQuery}
+     * @return The selected results, or an empty array if there is no simulation
+     */
+    public JSONArray getSimulationResults(ResultQuery query) {
+        return toJSONArray(model.getLatestSimulation(), query);
+    }
+
+    /**
+     * Return part of the results of a stored simulation in JSON format.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @param query The time range, page and downsampling, see {@link ResultQuery}
+     * @return The selected results, or an empty array if the run does not exist or was evicted
+     */
+    public JSONArray getSimulationResults(long id, ResultQuery query) {
+        return toJSONArray(model.getSimulation(id), query);
+    }
+
+    private JSONArray toJSONArray(Simulation simulation, ResultQuery query) {
+        PipelineStats.Probe probe = PipelineStats.start(PipelineStage.SERIALIZATION);
+        JSONArray array = new JSONArray();
+
+        if (simulation != null) {
+            ResultQuery.Selection selection = query.select(simulation.getTable());
+            for (int row = selection.getFromRow(); row < selection.getToRow(); row++) {
+                array.put(new SimulationResult(selection.getTable(), row).toJSONObject());
+            }
+        }
+
+        probe.end(array.length());
+        return array;
+    }
+
+    /**
+     * Write the results of the latest simulation in JSON format, without building an intermediate JSON tree.
+     * @param out The writer to write to. It is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public void writeSimulationResults(Writer out) throws IOException {
+        writeSimulationResults(model.getLatestSimulation(), ResultQuery.ALL, out);
+    }
+
+    /**
+     * Write the results of a stored simulation in JSON format.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @param out The writer to write to. It is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public void writeSimulationResults(long id, Writer out) throws IOException {
+        writeSimulationResults(model.getSimulation(id), ResultQuery.ALL, out);
+    }
+
+    /**
+     * Write part of the results of a stored simulation in JSON format.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @param query The time range, page and downsampling, see {@link ResultQuery}
+     * @param out The writer to write to. It is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public void writeSimulationResults(long id, ResultQuery query, Writer out) throws IOException {
+        writeSimulationResults(model.getSimulation(id), query, out);
+    }
+
+    private void writeSimulationResults(Simulation simulation, ResultQuery query, Writer out) throws IOException {
+        PipelineStats.Probe probe = PipelineStats.start(PipelineStage.SERIALIZATION);
+        int rows = 0;
+        if (simulation == null) {
+            out.write("[]");
+        } else {
+            ResultQuery.Selection selection = query.select(simulation.getTable());
+            new JsonStreamWriter(out).writeResults(selection.getTable(), selection.getFromRow(), selection.getToRow());
+            rows = selection.size();
+        }
+        out.flush();
+        probe.end(rows);
+    }
+
+    /**
+     * Write the simulation results in JSON format, encoded as UTF-8.
+     * @param out The stream to write to. It is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public void writeSimulationResults(OutputStream out) throws IOException {
+        writeSimulationResults(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Export a stored simulation to a columnar binary file (see {@link ResultColumnFile}),
+     * which analytics tools can map instead of parsing JSON.
+     * @param id The id returned by {@link #runBlackoutSimulation(LocalDateTime)}
+     * @param path The file to write, replaced if it exists
+     * @return False if the run does not exist or was evicted, and nothing was written
+     * @throws IOException If the file cannot be written
+     */
+    public boolean exportSimulation(long id, Path path) throws IOException {
+        Simulation simulation = model.getSimulation(id);
+        if (simulation == null) {
+            return false;
+        }
+        PipelineStats.Probe probe = PipelineStats.start(PipelineStage.SERIALIZATION);
+        ResultColumnFile.write(simulation, path);
+        probe.end(simulation.getTable().size());
+        return true;
+    }
+}
@@ -0,0 +1,315 @@
+package edu.uoc.uoctron.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import edu.uoc.uoctron.model.JsonStreamWriter;
+import edu.uoc.uoctron.model.PipelineStats;
+import edu.uoc.uoctron.model.PlantGenerationMatrix;
+import edu.uoc.uoctron.model.ResultQuery;
+import edu.uoc.uoctron.model.Simulation;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Embedded HTTP service over a {@link UOCtronController}, built on the JDK HTTP server.
+ * Every request runs on its own thread from {@link SimulationExecutors} (a virtual thread
+ * when available), and result bodies are streamed as chunked JSON instead of being built
+ * in memory. Endpoints:
+ * <ul>
+ *     <li>{@code GET /plants}: the power plants.</li>
+ *     <li>{@code POST /simulations?start=2025-05-21T00:00}: run a blackout simulation and return its id.</li>
+ *     <li>{@code GET /simulations/{id}/results}: the results of a stored simulation. The optional
+ *     {@code from} and {@code to} times, {@code offset} and {@code limit}, and {@code points}
+ *     select a time range, a page and a downsampling (see {@link ResultQuery}).</li>
+ *     <li>{@code GET /simulations/{id}/plants/{index}}: the output of one plant during a stored simulation,
+ *     as runs of minutes with the same output.</li>
+ *     <li>{@code GET /metrics}: request counts, errors, in-flight requests and latency per endpoint,
+ *     and the {@link PipelineStats} counters under {@code pipeline}.</li>
+ * </ul>
+ */
+public class UOCtronServer {
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final UOCtronController controller;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, ServerMetrics> metrics = new LinkedHashMap<>();
+
+    /**
+     * Create a server. It does not accept requests until {@link #start()} is called.
+     * @param controller The controller to serve.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public UOCtronServer(UOCtronController controller, int port) throws IOException {
+        this.controller = controller;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = SimulationExecutors.newExecutor("uoctron-http");
+        server.setExecutor(executor);
+
+        register("/plants", this::plants);
+        register("/simulations", this::simulations);
+        register("/metrics", this::metrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests and release the threads.
+     * @param delaySeconds The maximum time to wait for the requests in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Get the port the server listens on.
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the counters of an endpoint.
+     * @param path The context path, e.g. "/simulations".
+     * @return The counters, or null if there is no such endpoint.
+     */
+    public ServerMetrics getMetrics(String path) {
+        return metrics.get(path);
+    }
+
+    private void register(String path, HttpHandler handler) {
+        ServerMetrics endpoint = new ServerMetrics();
+        metrics.put(path, endpoint);
+        server.createContext(path, exchange -> {
+            long start = endpoint.start();
+            boolean failed = true;
+            try {
+                handler.handle(exchange);
+                failed = exchange.getResponseCode() >= 400;
+            } catch (Exception e) {
+                if (exchange.getResponseCode() == -1) {
+                    sendError(exchange, 500, e.getMessage());
+                }
+            } finally {
+                exchange.close();
+                endpoint.end(start, failed);
+            }
+        });
+    }
+
+    private void plants(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        // Pre-encoded once per fleet, so the response is a plain copy of the buffer
+        ByteBuffer plants = controller.getPowerPlantsJSON();
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, plants.remaining());
+        try (WritableByteChannel out = Channels.newChannel(exchange.getResponseBody())) {
+            while (plants.hasRemaining()) {
+                out.write(plants);
+            }
+        }
+    }
+
+    private void simulations(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String[] parts = uri.getPath().split("/");
+
+        // /simulations
+        if (parts.length == 2) {
+            if (!requireMethod(exchange, "POST")) {
+                return;
+            }
+            String start = queryParameter(uri, "start");
+            if (start == null) {
+                sendError(exchange, 400, "Missing parameter: start");
+                return;
+            }
+            LocalDateTime blackoutStart;
+            try {
+                blackoutStart = LocalDateTime.parse(start);
+            } catch (DateTimeParseException e) {
+                sendError(exchange, 400, "Invalid start: " + start);
+                return;
+            }
+            Simulation simulation = controller.simulate(blackoutStart);
+
+            JSONObject body = new JSONObject();
+            body.put("id", simulation.getId());
+            body.put("startTime", simulation.getStartTime().toString());
+            body.put("minutes", simulation.getTable().size());
+            send(exchange, 201, body.toString());
+            return;
+        }
+
+        // /simulations/{id}/results
+        if (parts.length == 4 && parts[3].equals("results")) {
+            if (!requireMethod(exchange, "GET")) {
+                return;
+            }
+            Simulation simulation = null;
+            try {
+                simulation = controller.getSimulation(Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                // Reported as not found below
+            }
+            if (simulation == null) {
+                sendError(exchange, 404, "Unknown simulation: " + parts[2]);
+                return;
+            }
+            ResultQuery.Selection selection;
+            try {
+                selection = resultQuery(uri).select(simulation.getTable());
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                sendError(exchange, 400, "Invalid query: " + e.getMessage());
+                return;
+            }
+            try (Writer out = stream(exchange, 200)) {
+                new JsonStreamWriter(out).writeResults(selection.getTable(), selection.getFromRow(), selection.getToRow());
+            }
+            return;
+        }
+
+        // /simulations/{id}/plants/{index}
+        if (parts.length == 5 && parts[3].equals("plants")) {
+            if (!requireMethod(exchange, "GET")) {
+                return;
+            }
+            Simulation simulation = null;
+            int plant = -1;
+            try {
+                simulation = controller.getSimulation(Long.parseLong(parts[2]));
+                plant = Integer.parseInt(parts[4]);
+            } catch (NumberFormatException e) {
+                // Reported as not found below
+            }
+            PlantGenerationMatrix matrix = simulation != null ? simulation.getPlantGeneration() : null;
+            if (matrix == null || plant < 0 || plant >= matrix.getPlantCount()) {
+                sendError(exchange, 404, "Unknown simulation or plant: " + parts[2] + "/" + parts[4]);
+                return;
+            }
+            send(exchange, 200, controller.getPlantGenerationResults(simulation, plant).toString());
+            return;
+        }
+
+        sendError(exchange, 404, "Not found: " + uri.getPath());
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        JSONObject body = new JSONObject();
+        for (Map.Entry<String, ServerMetrics> entry : metrics.entrySet()) {
+            body.put(entry.getKey(), entry.getValue().toJSON());
+        }
+        body.put("pipeline", PipelineStats.toJSON());
+        send(exchange, 200, body.toString());
+    }
+
+    private static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (exchange.getRequestMethod().equals(method)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+        return false;
+    }
+
+    /**
+     * Read the optional {@code from}, {@code to}, {@code offset}, {@code limit} and {@code points} parameters.
+     */
+    private static ResultQuery resultQuery(URI uri) {
+        String from = queryParameter(uri, "from");
+        String to = queryParameter(uri, "to");
+        String offset = queryParameter(uri, "offset");
+        String limit = queryParameter(uri, "limit");
+        String points = queryParameter(uri, "points");
+        return ResultQuery.ALL
+                .withTimeRange(from != null ? LocalDateTime.parse(from) : null, to != null ? LocalDateTime.parse(to) : null)
+                .withPage(offset != null ? Integer.parseInt(offset) : 0, limit != null ? Integer.parseInt(limit) : Integer.MAX_VALUE)
+                .withPoints(points != null ? Integer.parseInt(points) : 0);
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return pair.substring(equals + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start a chunked JSON response.
+     */
+    private static Writer stream(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        JSONObject body = new JSONObject();
+        body.put("error", message != null ? message : "");
+        send(exchange, status, body.toString());
+    }
+
+    /**
+     * Serve a controller over HTTP.
+     * Files are looked up as {@code /data/} resources first, so with no arguments the
+     * {@code plants.txt} and {@code demand_forecast.txt} packaged in the jar are served.
+     * @param args The plants file and the demand file, or none, and optionally the port (8080 by default).
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            System.err.println("Usage: UOCtronServer [<plantsFile> <demandFile> [port]]");
+            return;
+        }
+        String plantsFile = args.length > 0 ? args[0] : "plants.txt";
+        String demandFile = args.length > 0 ? args[1] : "demand_forecast.txt";
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 8080;
+        UOCtronServer server = new UOCtronServer(new UOCtronController(plantsFile, demandFile), port);
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,46 @@
+package edu.uoc.uoctron.model;
+
+import java.util.Arrays;
+
+/**
+ * Area hit by a regional blackout. Plants inside it go down and follow the restart sequence;
+ * plants outside keep generating.
+ */
+public interface BlackoutRegion {
+
+    /**
+     * Find the plants inside the region.
+     * @param index The spatial index of the fleet.
+     * @return The positions of the affected plants, in increasing order.
+     */
+    int[] select(SpatialIndex index);
+
+    /**
+     * Create a circular region.
+     * @param latitude The latitude of the center, in degrees.
+     * @param longitude The longitude of the center, in degrees.
+     * @param radiusKm The radius in kilometers.
+     * @return The region.
+     */
+    static BlackoutRegion circle(double latitude, double longitude, double radiusKm) {
+        if (!(radiusKm >= 0)) {
+            throw new IllegalArgumentException("Invalid radius: " + radiusKm);
+        }
+        return index -> index.withinRadius(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Create a polygonal region.
+     * @param latitudes The latitudes of the vertices, in order.
+     * @param longitudes The longitudes of the vertices, in the same order.
+     * @return The region.
+     * @throws IllegalArgumentException If the polygon is invalid, e.g., it crosses the antimeridian
+     *                                  (see {@link SpatialIndex#checkPolygon}).
+     */
+    static BlackoutRegion polygon(double[] latitudes, double[] longitudes) {
+        SpatialIndex.checkPolygon(latitudes, longitudes);
+        double[] lats = Arrays.copyOf(latitudes, latitudes.length);
+        double[] lons = Arrays.copyOf(longitudes, longitudes.length);
+        return index -> index.withinPolygon(lats, lons);
+    }
+}
@@ -0,0 +1,288 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Minute demand time series keyed by epoch minute.
+ * Values are kept in a single primitive array covering whole days from midnight of the
+ * first day, and lookups are O(1). A multi-day forecast is followed minute by minute across
+ * day boundaries; before its first day the first day repeats itself, and after its last day
+ * the last day does, at the same time of day. So a one-day forecast serves any date, and a run
+ * that outlasts a forecast keeps the profile of its last day instead of wrapping back to the
+ * first one. Lookups in an empty series (no demand loaded) throw {@link IllegalStateException}.
+ */
+public class DemandSeries {
+
+    /** Day assigned to undated demand rows, kept from the original single-day forecast. */
+    public static final LocalDate DEFAULT_DAY = LocalDate.of(2025, 5, 21);
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private final long startEpochMinute;
+    private final double[] values;
+    private final long contentHash;
+
+    private DemandSeries(long startEpochMinute, double[] values) {
+        this.startEpochMinute = startEpochMinute;
+        this.values = values;
+
+        long hash = startEpochMinute;
+        for (double value : values) {
+            hash = (hash ^ Double.doubleToLongBits(value)) * 0x9E3779B97F4A7C15L;
+        }
+        this.contentHash = hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Create a series from values already laid out by minute, e.g., read back from a file.
+     * @param startEpochMinute The epoch minute of the first value, at midnight.
+     * @param values The demand in MW of each minute, at least one day. The array is not copied.
+     * @return The demand series.
+     * @throws IllegalArgumentException If the values are empty or not whole days from midnight.
+     */
+    public static DemandSeries of(long startEpochMinute, double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("A demand series must cover at least one day");
+        }
+        if (Math.floorMod(startEpochMinute, MINUTES_PER_DAY) != 0 || values.length % MINUTES_PER_DAY != 0) {
+            throw new IllegalArgumentException("A demand series must cover whole days from midnight");
+        }
+        return new DemandSeries(startEpochMinute, values);
+    }
+
+    /**
+     * Convert a time to minutes since the epoch, taking the time as UTC.
+     * @param time The time to convert.
+     * @return The epoch minute of the time.
+     */
+    public static long toEpochMinute(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60L + time.getMinute();
+    }
+
+    /**
+     * Get the demand at a minute.
+     * @param epochMinute Minutes since the epoch.
+     * @return The demand in MW.
+     * @throws IllegalStateException If the series is empty.
+     */
+    public double getDemand(long epochMinute) {
+        return values[indexOf(epochMinute)];
+    }
+
+    /**
+     * Get the index in the stored values used for a minute: its own one inside the series, or
+     * the same time of day on the first or the last day outside it.
+     * @param epochMinute Minutes since the epoch.
+     * @return The index of the minute, between 0 and {@link #size()} (exclusive).
+     * @throws IllegalStateException If the series is empty.
+     */
+    public int indexOf(long epochMinute) {
+        if (values.length == 0) {
+            throw new IllegalStateException("No demand loaded");
+        }
+        long offset = epochMinute - startEpochMinute;
+        if (offset < 0) {
+            return (int) Math.floorMod(offset, MINUTES_PER_DAY);
+        }
+        if (offset >= values.length) {
+            return values.length - MINUTES_PER_DAY + (int) Math.floorMod(offset, MINUTES_PER_DAY);
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Get the position of a run start in the series. Two runs starting at minutes with the same
+     * position see exactly the same demand curve, however long they run: in a one-day series
+     * every minute maps to its time of day, and a start after the last day maps to the same time
+     * on the last day. Starts before the first day of a longer series keep their own position,
+     * since their runs reach the second day at different minutes.
+     * @param epochMinute Minutes since the epoch.
+     * @return The position of the start.
+     * @throws IllegalStateException If the series is empty.
+     */
+    public long positionOf(long epochMinute) {
+        long offset = epochMinute - startEpochMinute;
+        return offset < 0 && values.length > MINUTES_PER_DAY ? offset : indexOf(epochMinute);
+    }
+
+    /**
+     * Get the demand at a time (seconds are ignored).
+     * @param time The time.
+     * @return The demand in MW.
+     */
+    public double getDemand(LocalDateTime time) {
+        return getDemand(toEpochMinute(time));
+    }
+
+    /**
+     * Get a copy of the series with the demand of some minutes replaced, e.g., a revised hour.
+     * Minutes outside the stored range revise the stored minute they map to (see {@link #indexOf(long)}).
+     * @param epochMinute The epoch minute of the first revised value.
+     * @param revised The new demand in MW of consecutive minutes.
+     * @return The revised series; this one is not modified.
+     */
+    public DemandSeries withRevision(long epochMinute, double[] revised) {
+        if (revised.length > values.length) {
+            throw new IllegalArgumentException("Revision longer than the series: " + revised.length + " minutes");
+        }
+        double[] copy = Arrays.copyOf(values, values.length);
+        for (int i = 0; i < revised.length; i++) {
+            copy[indexOf(epochMinute + i)] = revised[i];
+        }
+        return new DemandSeries(startEpochMinute, copy);
+    }
+
+    /**
+     * Get the demand row stored at an index, as a value object.
+     * @param index The index of the minute, from midnight of the first day.
+     * @return The demand row.
+     */
+    public DemandData getDemandData(int index) {
+        return new DemandData(getTime(index), values[index]);
+    }
+
+    public LocalDateTime getTime(int index) {
+        return LocalDate.ofEpochDay(Math.floorDiv(startEpochMinute, MINUTES_PER_DAY)).atStartOfDay().plusMinutes(index);
+    }
+
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    /**
+     * Get the number of stored minutes, always a whole number of days.
+     * @return The number of minutes.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Get a 64-bit hash of the start and of every stored value.
+     * @return The content hash of the series.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DemandSeries other)) return false;
+        return startEpochMinute == other.startEpochMinute && contentHash == other.contentHash
+                && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(contentHash);
+    }
+
+    /**
+     * Accumulates demand samples into a series. Samples falling in the same minute
+     * (e.g., per-second data) are averaged, and minutes without samples take the
+     * value of the previous minute.
+     */
+    public static class Builder {
+        private long baseEpochMinute;
+        private double[] sums = new double[MINUTES_PER_DAY];
+        private int[] counts = new int[MINUTES_PER_DAY];
+        private int used;
+        private long undatedDay = DEFAULT_DAY.toEpochDay();
+        private int lastUndatedSecond = -1;
+        private boolean empty = true;
+
+        /**
+         * Add a sample whose row has no date. Undated rows start on {@link #DEFAULT_DAY}
+         * and move to the next day whenever the time goes back (e.g., 23:59 then 00:00).
+         * @param hour The hour of the sample.
+         * @param minute The minute of the sample.
+         * @param second The second of the sample.
+         * @param demand The demand in MW.
+         */
+        public void add(int hour, int minute, int second, double demand) {
+            int secondOfDay = (hour * 60 + minute) * 60 + second;
+            if (secondOfDay < lastUndatedSecond) {
+                undatedDay++;
+            }
+            lastUndatedSecond = secondOfDay;
+            add(undatedDay * MINUTES_PER_DAY + hour * 60L + minute, demand);
+        }
+
+        /**
+         * Add a sample at an epoch minute.
+         * @param epochMinute Minutes since the epoch.
+         * @param demand The demand in MW.
+         */
+        public void add(long epochMinute, double demand) {
+            if (empty) {
+                baseEpochMinute = Math.floorDiv(epochMinute, MINUTES_PER_DAY) * MINUTES_PER_DAY;
+                empty = false;
+            } else if (epochMinute < baseEpochMinute) {
+                rebase(Math.floorDiv(epochMinute, MINUTES_PER_DAY) * MINUTES_PER_DAY);
+            }
+
+            long index = epochMinute - baseEpochMinute;
+            if (index >= sums.length) {
+                grow(index + 1);
+            }
+            sums[(int) index] += demand;
+            counts[(int) index]++;
+            used = Math.max(used, (int) index + 1);
+        }
+
+        /**
+         * Build the series over whole days, filling minutes without samples.
+         * @return The demand series, empty if no sample was added.
+         */
+        public DemandSeries build() {
+            if (empty) {
+                return new DemandSeries(0, new double[0]);
+            }
+            int length = (used + MINUTES_PER_DAY - 1) / MINUTES_PER_DAY * MINUTES_PER_DAY;
+            double[] values = new double[length];
+
+            // Minutes before the first sample take its value
+            int first = 0;
+            while (counts[first] == 0) {
+                first++;
+            }
+            double previous = sums[first] / counts[first];
+            for (int i = 0; i < length; i++) {
+                if (i < used && counts[i] > 0) {
+                    previous = sums[i] / counts[i];
+                }
+                values[i] = previous;
+            }
+            return new DemandSeries(baseEpochMinute, values);
+        }
+
+        private void grow(long minimum) {
+            if (minimum > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Demand series too long: " + minimum + " minutes");
+            }
+            int capacity = (int) Math.max(minimum, Math.min(Integer.MAX_VALUE - 8L, sums.length * 2L));
+            sums = Arrays.copyOf(sums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        private void rebase(long newBase) {
+            int shift = (int) (baseEpochMinute - newBase);
+            if ((long) used + shift > sums.length) {
+                grow((long) used + shift);
+            }
+            System.arraycopy(sums, 0, sums, shift, used);
+            System.arraycopy(counts, 0, counts, shift, used);
+            Arrays.fill(sums, 0, shift, 0.0);
+            Arrays.fill(counts, 0, shift, 0);
+            used += shift;
+            baseEpochMinute = newBase;
+        }
+    }
+}
@@ -0,0 +1,806 @@
+package edu.uoc.uoctron.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Dispatch kernel for the blackout restart sequence.
+ * The fleet is compiled once into primitive arrays sorted by merit order. The plants that may
+ * generate only change at a few minutes (the steps of the {@link RestartSchedule} and the
+ * restart time of each plant), so every interval between those minutes is compiled into a {@link Phase} holding
+ * the prefix sums of its eligible capacities. Dispatching a minute is then a binary search
+ * for the marginal plant instead of a walk over the whole fleet.
+ */
+public class DispatchEngine {
+
+    /** Minimum weighted stability the grid must keep while generating. */
+    public static final double MIN_STABILITY = 0.7;
+
+    private static final double REDUCTION_STEP_MW = 10.0;
+
+    private static final PlantType[] MERIT_ORDER = PlantType.values().clone();
+
+    static {
+        Arrays.sort(MERIT_ORDER, Comparator.comparingInt(PlantType::getMeritOrder));
+    }
+
+    private static final PlantType[] REDUCTION_ORDER = {
+            PlantType.SOLAR, PlantType.WIND, PlantType.BIOMASS, PlantType.GEOTHERMAL, PlantType.HYDROELECTRIC
+    };
+
+    private final SheddingMode sheddingMode;
+    private final RestartSchedule schedule;
+    private final int size;
+    private final int[] types;
+    private final double[] capacities;
+    private final int[] restartMinutes;
+    /** Position of each compiled plant in the list the engine was built from. */
+    private final int[] loadIndexes;
+    private final int plantCount;
+    /** Plants that keep generating through a regional blackout, or null if every plant restarts. */
+    private final boolean[] online;
+    private final long fleetHash;
+    private final int[] phaseStarts;
+    private final Phase[] phases;
+
+    /**
+     * The plants able to generate during an interval of the restart sequence, in merit order.
+     * Types are contiguous, so each type is a block of the arrays.
+     */
+    static final class Phase {
+        /** Index of each eligible plant in the engine arrays. */
+        final int[] plants;
+        /** Available capacity of each eligible plant, after the combined cycle cap. */
+        final double[] capacities;
+        /** prefix[k] is the capacity of the first k eligible plants; prefix has one more entry. */
+        final double[] prefix;
+        /** Capacity of the previous plants of the same type, summed from the start of the block. */
+        final double[] typePrefix;
+        final int[] typeFrom = new int[PlantType.COUNT];
+        final int[] typeTo = new int[PlantType.COUNT];
+        final double[] typeCapacity = new double[PlantType.COUNT];
+
+        Phase(int[] types, int[] plants, double[] capacities) {
+            int count = plants.length;
+            this.plants = plants;
+            this.capacities = capacities;
+            this.prefix = new double[count + 1];
+            this.typePrefix = new double[count];
+
+            for (int k = 0; k < count; k++) {
+                int type = types[plants[k]];
+                if (k == 0 || types[plants[k - 1]] != type) {
+                    typeFrom[type] = k;
+                }
+                typeTo[type] = k + 1;
+                typePrefix[k] = typeCapacity[type];
+                // Summed in the same order as a plant-by-plant walk, so the totals match it exactly
+                typeCapacity[type] += capacities[k];
+                prefix[k + 1] = prefix[k] + capacities[k];
+            }
+        }
+
+        /**
+         * Find the first plant that cannot be fully dispatched.
+         * @param demand The demand to cover.
+         * @return The index of the marginal plant, or the number of plants if the demand exceeds the phase.
+         */
+        int marginal(double demand) {
+            int low = 0;
+            int high = plants.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prefix[mid + 1] < demand) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Compile the fleet into merit-ordered arrays, shedding in closed form.
+     * @param plants The plants of the fleet, in load order.
+     */
+    public DispatchEngine(List<PowerPlant> plants) {
+        this(plants, SheddingMode.CLOSED_FORM);
+    }
+
+    /**
+     * Compile the fleet into merit-ordered arrays.
+     * @param plants The plants of the fleet, in load order.
+     * @param sheddingMode How generation is shed to restore stability.
+     */
+    public DispatchEngine(List<PowerPlant> plants, SheddingMode sheddingMode) {
+        this(plants, sheddingMode, RestartSchedule.DEFAULT);
+    }
+
+    /**
+     * Compile the fleet into merit-ordered arrays for a restoration plan.
+     * @param plants The plants of the fleet, in load order.
+     * @param sheddingMode How generation is shed to restore stability.
+     * @param schedule The restart schedule.
+     */
+    public DispatchEngine(List<PowerPlant> plants, SheddingMode sheddingMode, RestartSchedule schedule) {
+        this.sheddingMode = sheddingMode;
+        this.schedule = schedule;
+        List<Integer> ordered = new ArrayList<>(plants.size());
+        for (int i = 0; i < plants.size(); i++) {
+            if (plants.get(i).getPlantType() != null) {
+                ordered.add(i);
+            }
+        }
+        // Stable sort, so plants of the same type keep their load order
+        ordered.sort(Comparator.comparingInt(i -> plants.get(i).getPlantType().getMeritOrder()));
+
+        size = ordered.size();
+        plantCount = plants.size();
+        online = null;
+        types = new int[size];
+        capacities = new double[size];
+        restartMinutes = new int[size];
+        loadIndexes = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            loadIndexes[i] = ordered.get(i);
+            PowerPlant plant = plants.get(loadIndexes[i]);
+            PlantType type = plant.getPlantType();
+            double efficiency = 1.0;
+            if (plant instanceof RenewablePlant renewable && type != PlantType.GEOTHERMAL && type != PlantType.WIND) {
+                efficiency = renewable.getEfficiency();
+            }
+            types[i] = type.ordinal();
+            capacities[i] = plant.getGeneratedPower(efficiency);
+            restartMinutes[i] = plant.getRestartMinutes();
+        }
+        fleetHash = hash(types, capacities, restartMinutes) ^ schedule.getContentHash();
+        phaseStarts = phaseStarts(schedule, restartMinutes);
+        phases = compilePhases();
+    }
+
+    private DispatchEngine(DispatchEngine fleet, SheddingMode sheddingMode) {
+        this.sheddingMode = sheddingMode;
+        this.schedule = fleet.schedule;
+        this.size = fleet.size;
+        this.types = fleet.types;
+        this.capacities = fleet.capacities;
+        this.restartMinutes = fleet.restartMinutes;
+        this.loadIndexes = fleet.loadIndexes;
+        this.plantCount = fleet.plantCount;
+        this.online = fleet.online;
+        this.fleetHash = fleet.fleetHash;
+        this.phaseStarts = fleet.phaseStarts;
+        this.phases = fleet.phases;
+    }
+
+    private DispatchEngine(DispatchEngine fleet, RestartSchedule schedule, boolean[] online, long fleetHash) {
+        this.sheddingMode = fleet.sheddingMode;
+        this.schedule = schedule;
+        this.size = fleet.size;
+        this.types = fleet.types;
+        this.capacities = fleet.capacities;
+        this.restartMinutes = fleet.restartMinutes;
+        this.loadIndexes = fleet.loadIndexes;
+        this.plantCount = fleet.plantCount;
+        this.online = online;
+        this.fleetHash = fleetHash;
+        this.phaseStarts = schedule == fleet.schedule ? fleet.phaseStarts : phaseStarts(schedule, restartMinutes);
+        this.phases = compilePhases();
+    }
+
+    /**
+     * Get an engine for a blackout that only hits part of the fleet. The affected plants
+     * follow the restart sequence, while the rest keep generating from the first minute and
+     * are dispatched with them in merit order.
+     * @param affected The positions of the affected plants in the list the engine was built from.
+     * @return An engine over the same fleet with its own phases.
+     * @throws IndexOutOfBoundsException If a position is outside the list.
+     */
+    public DispatchEngine withBlackoutRegion(int[] affected) {
+        boolean[] hit = new boolean[plantCount];
+        for (int index : affected) {
+            hit[index] = true;
+        }
+        boolean[] regionOnline = new boolean[size];
+        long hash = fleetHash;
+        for (int i = 0; i < size; i++) {
+            regionOnline[i] = !hit[loadIndexes[i]];
+            if (!regionOnline[i]) {
+                hash = (hash ^ i) * 0x9E3779B97F4A7C15L;
+            }
+        }
+        // Salted, so an empty region (nothing restarts) never shares the hash of the nationwide fleet
+        return new DispatchEngine(this, schedule, regionOnline, hash ^ (hash >>> 31) ^ 0x5245474E);
+    }
+
+    /**
+     * Get an engine over the same fleet that follows another restoration plan.
+     * @param schedule The restart schedule.
+     * @return This engine if the schedule is the same, or a copy with its own phases.
+     */
+    public DispatchEngine withSchedule(RestartSchedule schedule) {
+        if (schedule.equals(this.schedule)) {
+            return this;
+        }
+        long hash = fleetHash ^ this.schedule.getContentHash() ^ schedule.getContentHash();
+        return new DispatchEngine(this, schedule, online, hash);
+    }
+
+    public RestartSchedule getSchedule() {
+        return schedule;
+    }
+
+    private static int[] phaseStarts(RestartSchedule schedule, int[] restartMinutes) {
+        // Phase boundaries: the changes of the schedule plus every restart time of a plant
+        TreeSet<Integer> starts = new TreeSet<>();
+        for (int start : schedule.getBoundaries()) {
+            starts.add(start);
+        }
+        for (int restart : restartMinutes) {
+            starts.add(Math.max(0, restart));
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Phase[] compilePhases() {
+        Phase[] compiled = new Phase[phaseStarts.length];
+        for (int p = 0; p < compiled.length; p++) {
+            compiled[p] = compilePhase(phaseStarts[p]);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compile the plants eligible from a minute until the next phase start.
+     * @param start The first minute of the phase.
+     * @return The compiled phase.
+     */
+    private Phase compilePhase(int start) {
+        int allowed = schedule.allowedMask(start);
+        double[] caps = new double[PlantType.COUNT];
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            caps[t] = schedule.capAt(t, start);
+        }
+        double[] generatedAtCap = new double[PlantType.COUNT];
+        int[] eligible = new int[size];
+        double[] available = new double[size];
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            int type = types[i];
+            boolean restarting = online == null || !online[i];
+            if (restarting && ((allowed & (1 << type)) == 0 || start < restartMinutes[i])) continue;
+
+            double capacity = capacities[i];
+            if (restarting && caps[type] != Double.POSITIVE_INFINITY) {
+                // Plants of a capped type fill the cap in merit order, the rest stay idle
+                if (generatedAtCap[type] + capacity > caps[type]) {
+                    capacity = caps[type] - generatedAtCap[type];
+                }
+                generatedAtCap[type] += capacity;
+            }
+            eligible[count] = i;
+            available[count] = capacity;
+            count++;
+        }
+        return new Phase(types, Arrays.copyOf(eligible, count), Arrays.copyOf(available, count));
+    }
+
+    /**
+     * Find the minutes that this engine dispatches exactly like another one: both use the same
+     * shedding mode and nuclear top-up minute, and have the same eligible capacities, of the same types, in the same merit
+     * order. For the same demand such a minute gives the same outcome in both, so its result
+     * can be reused, e.g., a plant added to the fleet only changes the phases it can run in.
+     * @param other The other engine, typically an earlier compiled form of this fleet.
+     * @param minutes The number of elapsed minutes to compare, from minute 0.
+     * @return For each minute, whether the dispatch is the same.
+     */
+    public boolean[] sameDispatch(DispatchEngine other, int minutes) {
+        boolean[] same = new boolean[minutes];
+        if (other.sheddingMode != sheddingMode || other.schedule.getNuclearTopUpMinute() != schedule.getNuclearTopUpMinute()) {
+            return same;
+        }
+        if (other.phases == phases) {
+            Arrays.fill(same, true);
+            return same;
+        }
+        int minute = 0;
+        while (minute < minutes) {
+            int end = Math.min(minutes, Math.min(nextPhaseStart(minute), other.nextPhaseStart(minute)));
+            if (samePhase(phaseAt(minute), types, other.phaseAt(minute), other.types)) {
+                Arrays.fill(same, minute, end, true);
+            }
+            minute = end;
+        }
+        return same;
+    }
+
+    private static boolean samePhase(Phase phase, int[] types, Phase other, int[] otherTypes) {
+        if (!Arrays.equals(phase.capacities, other.capacities)) {
+            return false;
+        }
+        for (int k = 0; k < phase.plants.length; k++) {
+            if (types[phase.plants[k]] != otherTypes[other.plants[k]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the minute where the next restart phase starts, i.e., where the compiled capacities change.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @return The first minute of the next phase, or {@link Integer#MAX_VALUE} in the last one.
+     */
+    int nextPhaseStart(int elapsedMinutes) {
+        int index = Arrays.binarySearch(phaseStarts, elapsedMinutes);
+        int next = index >= 0 ? index + 1 : -index - 1;
+        return next < phaseStarts.length ? phaseStarts[next] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the compiled phase a minute falls in.
+     * @param elapsedMinutes Minutes elapsed since the blackout, not negative.
+     * @return The phase.
+     */
+    Phase phaseAt(int elapsedMinutes) {
+        int index = Arrays.binarySearch(phaseStarts, elapsedMinutes);
+        return phases[index >= 0 ? index : -index - 2];
+    }
+
+    /**
+     * Get an engine over the same compiled fleet with another shedding mode.
+     * @param sheddingMode How generation is shed to restore stability.
+     * @return This engine if the mode is the same, or a copy sharing the fleet arrays.
+     */
+    public DispatchEngine withSheddingMode(SheddingMode sheddingMode) {
+        return sheddingMode == this.sheddingMode ? this : new DispatchEngine(this, sheddingMode);
+    }
+
+    public SheddingMode getSheddingMode() {
+        return sheddingMode;
+    }
+
+    /**
+     * Get the number of compiled plants (plants of an unknown type are left out).
+     * @return The number of plants.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the type of a compiled plant.
+     * @param index The index of the plant in merit order.
+     * @return The ordinal of its type.
+     */
+    int typeAt(int index) {
+        return types[index];
+    }
+
+    /**
+     * Get the number of plants in the list the engine was built from, unknown types included.
+     * @return The number of plants.
+     */
+    int getPlantCount() {
+        return plantCount;
+    }
+
+    /**
+     * Get the position of a compiled plant in the list the engine was built from.
+     * @param index The index of the plant in merit order.
+     * @return The position in load order.
+     */
+    int loadIndexAt(int index) {
+        return loadIndexes[index];
+    }
+
+    double capacityAt(int index) {
+        return capacities[index];
+    }
+
+    int restartMinutesAt(int index) {
+        return restartMinutes[index];
+    }
+
+    /**
+     * Get a 64-bit hash of everything the dispatch depends on: the type, available capacity
+     * and restart time of every plant, in merit order. Names and locations are not included.
+     * @return The content hash of the compiled fleet.
+     */
+    public long getFleetHash() {
+        return fleetHash;
+    }
+
+    /**
+     * Check whether another engine compiles the same fleet: the same types, available capacities
+     * and restart times in merit order, the same plants outside a blackout region and the same
+     * schedule. This is what {@link #getFleetHash()} summarizes, compared in full. The shedding
+     * mode is not compared.
+     * @param other The other engine.
+     * @return True if both engines dispatch every minute alike under the same shedding mode.
+     */
+    public boolean sameFleet(DispatchEngine other) {
+        return other == this || Arrays.equals(types, other.types) && Arrays.equals(capacities, other.capacities)
+                && Arrays.equals(restartMinutes, other.restartMinutes) && Arrays.equals(online, other.online)
+                && schedule.equals(other.schedule);
+    }
+
+    /**
+     * Estimate the heap retained by the engine: the compiled fleet and its phases. Engines
+     * derived from another one (e.g., {@link #withBlackoutRegion(int[])}) share its fleet
+     * arrays, which are counted in each of them.
+     * @return The estimated size in bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = 20L * size + 4L * phaseStarts.length + 7 * 16 + 96;
+        if (online != null) {
+            bytes += 16 + size;
+        }
+        for (Phase phase : phases) {
+            bytes += 28L * phase.plants.length + 8 + 7 * 16 + 16L * PlantType.COUNT + 32;
+        }
+        return bytes;
+    }
+
+    private static long hash(int[] types, double[] capacities, int[] restartMinutes) {
+        long hash = types.length;
+        for (int i = 0; i < types.length; i++) {
+            hash = (hash ^ types[i]) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ Double.doubleToLongBits(capacities[i])) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ restartMinutes[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Get the types allowed to generate at a given minute of the restart sequence.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @return Mask of allowed types (see {@link PlantType#mask()}).
+     */
+    public int allowedMask(int elapsedMinutes) {
+        return schedule.allowedMask(elapsedMinutes);
+    }
+
+    /**
+     * Dispatch one minute of the restart sequence.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @param expectedDemand Demand to cover in MW.
+     * @param state Reused state that receives the outcome.
+     */
+    public void dispatch(int elapsedMinutes, double expectedDemand, DispatchState state) {
+        state.reset();
+        double[] generatedByType = state.generatedByType;
+        if (elapsedMinutes < 0) {
+            return;
+        }
+        Phase phase = phaseAt(elapsedMinutes);
+
+        // Plants before the marginal one run at full capacity, the marginal one covers the rest
+        double totalGenerated = 0.0;
+        int count = phase.plants.length;
+        if (expectedDemand > 0 && count > 0) {
+            int marginal = phase.marginal(expectedDemand);
+            double partial = 0.0;
+            int marginalType = -1;
+            if (marginal < count) {
+                partial = Math.max(0.0, Math.min(phase.capacities[marginal], expectedDemand - phase.prefix[marginal]));
+                marginalType = types[phase.plants[marginal]];
+            }
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                if (phase.typeTo[t] == 0) continue;
+                if (phase.typeTo[t] <= marginal) {
+                    generatedByType[t] = phase.typeCapacity[t];
+                } else if (t == marginalType) {
+                    generatedByType[t] = phase.typePrefix[marginal] + partial;
+                }
+            }
+            totalGenerated = phase.prefix[marginal] + partial;
+        }
+
+        int nuclear = PlantType.NUCLEAR.ordinal();
+        settle(elapsedMinutes, expectedDemand, totalGenerated, state, phase.capacities, phase.typeFrom[nuclear], phase.typeTo[nuclear]);
+    }
+
+    /**
+     * Dispatch one minute from the capacity available by type instead of the compiled fleet,
+     * e.g., for a fleet whose restart times or availability are sampled per run. The types
+     * allowed by the restart phase are filled in merit order and then settled like
+     * {@link #dispatch(int, double, DispatchState)}.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @param expectedDemand Demand to cover in MW.
+     * @param typeCapacity Capacity of the restarted plants of each type, by ordinal.
+     * @param state Reused state that receives the outcome.
+     */
+    public void dispatch(int elapsedMinutes, double expectedDemand, double[] typeCapacity, DispatchState state) {
+        state.reset();
+        double[] generatedByType = state.generatedByType;
+        int allowed = schedule.allowedMask(elapsedMinutes);
+        if (allowed == 0) {
+            return;
+        }
+
+        double totalGenerated = 0.0;
+        for (PlantType type : MERIT_ORDER) {
+            int t = type.ordinal();
+            double remaining = expectedDemand - totalGenerated;
+            if (remaining <= 0) break;
+            if ((allowed & (1 << t)) == 0) continue;
+
+            double capacity = Math.min(typeCapacity[t], schedule.capAt(t, elapsedMinutes));
+            double generated = Math.min(capacity, remaining);
+            if (generated > 0) {
+                generatedByType[t] = generated;
+                totalGenerated += generated;
+            }
+        }
+
+        int nuclear = PlantType.NUCLEAR.ordinal();
+        settle(elapsedMinutes, expectedDemand, totalGenerated, state, typeCapacity, nuclear, nuclear + 1);
+    }
+
+    /**
+     * Split the generation by type of every row of a table among the plants that produced it.
+     * Within a phase the plants of a type are filled in merit order up to the MW of the type
+     * (the nuclear top-up is a second fill of the nuclear plants), so from one row to the next
+     * only the plants between the old and the new fill level of each type change. Only those
+     * are recomputed, and every plant is only walked when a phase starts.
+     * @param table The results of a run dispatched with this engine.
+     * @param out Receives the output changes, row by row.
+     */
+    void attribute(ResultTable table, PlantGenerationMatrix.Builder out) {
+        int nuclear = PlantType.NUCLEAR.ordinal();
+        double[] levels = new double[PlantType.COUNT];
+        double[] previousLevels = new double[PlantType.COUNT];
+        double previousTopUp = 0.0;
+        int[] phaseIds = new int[size];
+        Phase phase = null;
+        int phaseId = 0;
+        int phaseEnd = Integer.MIN_VALUE;
+
+        for (int row = 0; row < table.size(); row++) {
+            int elapsedMinutes = (int) ((long) row * table.getStepSeconds() / 60);
+            Phase current = phaseAt(elapsedMinutes);
+            double demand = table.getExpectedDemand(row);
+            for (PlantType type : PlantType.values()) {
+                levels[type.ordinal()] = table.getGeneratedByType(row, type);
+            }
+            // Nuclear is never shed, so whatever it generated beyond its dispatch is the top-up
+            double dispatched = dispatchedByType(current, demand, nuclear);
+            double topUp = Math.max(0.0, levels[nuclear] - dispatched);
+            levels[nuclear] = Math.min(levels[nuclear], dispatched);
+
+            if (current != phase) {
+                phaseId++;
+                for (int k = 0; k < current.plants.length; k++) {
+                    int type = types[current.plants[k]];
+                    phaseIds[current.plants[k]] = phaseId;
+                    out.set(loadIndexes[current.plants[k]], row, plantOutput(current, k, levels[type], type == nuclear ? topUp : 0.0));
+                }
+                if (phase != null) {
+                    for (int plant : phase.plants) {
+                        if (phaseIds[plant] != phaseId) {
+                            out.set(loadIndexes[plant], row, 0.0);
+                        }
+                    }
+                }
+                phase = current;
+            } else {
+                for (int t = 0; t < PlantType.COUNT; t++) {
+                    if (phase.typeTo[t] == 0) continue;
+                    double extra = t == nuclear ? topUp : 0.0;
+                    double previousExtra = t == nuclear ? previousTopUp : 0.0;
+                    if (levels[t] != previousLevels[t]) {
+                        updateOutputs(phase, t, row, Math.min(levels[t], previousLevels[t]), Math.max(levels[t], previousLevels[t]),
+                                levels[t], extra, out);
+                    }
+                    if (extra != previousExtra) {
+                        updateOutputs(phase, t, row, Math.min(extra, previousExtra), Math.max(extra, previousExtra),
+                                levels[t], extra, out);
+                    }
+                }
+            }
+            System.arraycopy(levels, 0, previousLevels, 0, PlantType.COUNT);
+            previousTopUp = topUp;
+        }
+    }
+
+    /**
+     * Recompute the plants of a type whose fill level lies between two levels.
+     */
+    private void updateOutputs(Phase phase, int type, int row, double low, double high, double level, double topUp,
+                               PlantGenerationMatrix.Builder out) {
+        int from = phase.typeFrom[type];
+        int to = phase.typeTo[type];
+        // The first plant reached by the lower level and the first one not reached by the higher one
+        int first = Math.max(from, fillIndex(phase, from, to, low) - 1);
+        int last = fillIndex(phase, from, to, high);
+        for (int k = first; k < last; k++) {
+            out.set(loadIndexes[phase.plants[k]], row, plantOutput(phase, k, level, topUp));
+        }
+    }
+
+    /**
+     * Find the number of plants of a type block that start filling below a level.
+     */
+    private static int fillIndex(Phase phase, int from, int to, double level) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (phase.typePrefix[mid] < level) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the output of a plant when its type is filled up to a level, plus a top-up fill.
+     */
+    private static double plantOutput(Phase phase, int k, double level, double topUp) {
+        double capacity = phase.capacities[k];
+        double output = Math.max(0.0, Math.min(capacity, level - phase.typePrefix[k]));
+        if (topUp > 0) {
+            output += Math.max(0.0, Math.min(capacity, topUp - phase.typePrefix[k]));
+        }
+        return output;
+    }
+
+    /**
+     * Check whether a type is dispatched in a minute before any shedding, so it generates in that
+     * minute unless it is then shed in full.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @param expectedDemand Demand to cover in MW.
+     * @param type The plant type.
+     * @return True if the merit order gives the type some power.
+     */
+    boolean dispatches(int elapsedMinutes, double expectedDemand, PlantType type) {
+        return elapsedMinutes >= 0 && dispatchedByType(phaseAt(elapsedMinutes), expectedDemand, type.ordinal()) > 0;
+    }
+
+    /**
+     * Get what a type generates in a phase before shedding, as {@link #dispatch(int, double, DispatchState)} fills it.
+     */
+    private static double dispatchedByType(Phase phase, double demand, int type) {
+        int count = phase.plants.length;
+        if (!(demand > 0) || count == 0 || phase.typeTo[type] == 0) {
+            return 0.0;
+        }
+        int marginal = phase.marginal(demand);
+        if (phase.typeTo[type] <= marginal) {
+            return phase.typeCapacity[type];
+        }
+        if (phase.typeFrom[type] > marginal) {
+            return 0.0;
+        }
+        return phase.typePrefix[marginal] + Math.max(0.0, Math.min(phase.capacities[marginal], demand - phase.prefix[marginal]));
+    }
+
+    /**
+     * Shed generation until the average stability reaches the minimum, top up with nuclear
+     * power if demand is left uncovered, and store the totals.
+     * @param nuclearCapacities Capacities used by the nuclear top-up, between the two indexes.
+     */
+    private void settle(int elapsedMinutes, double expectedDemand, double totalGenerated, DispatchState state,
+                        double[] nuclearCapacities, int nuclearFrom, int nuclearTo) {
+        double[] generatedByType = state.generatedByType;
+
+        // Weighted-sum accumulator: the average stability is weighted / total at every point
+        double total = 0.0;
+        double weighted = 0.0;
+        for (int t = 0; t < generatedByType.length; t++) {
+            total += generatedByType[t];
+            weighted += generatedByType[t] * PlantType.of(t).getStability();
+        }
+        double avgStability = total == 0.0 ? 1.0 : weighted / total; // No production means perfect stability
+
+        if (avgStability < MIN_STABILITY && totalGenerated > 0) {
+            long sheddingStart = state.timed ? System.nanoTime() : 0;
+            for (PlantType reduced : REDUCTION_ORDER) {
+                int type = reduced.ordinal();
+                double available = generatedByType[type];
+                if (available <= 0 || avgStability >= MIN_STABILITY) continue;
+
+                double stability = reduced.getStability();
+                if (sheddingMode == SheddingMode.STEPPED) {
+                    while (generatedByType[type] > 0 && avgStability < MIN_STABILITY) {
+                        double reduction = Math.min(REDUCTION_STEP_MW, generatedByType[type]);
+                        generatedByType[type] -= reduction;
+                        totalGenerated -= reduction;
+                        total -= reduction;
+                        weighted -= reduction * stability;
+                        avgStability = total > 0 ? weighted / total : 1.0;
+                        state.sheddingIterations++;
+                    }
+                } else {
+                    state.sheddingIterations++;
+                    double reduction = closedFormReduction(total, weighted, stability, available);
+                    generatedByType[type] = reduction < available ? available - reduction : 0.0;
+                    totalGenerated -= reduction;
+                    total -= reduction;
+                    weighted -= reduction * stability;
+                    avgStability = total > 0 ? weighted / total : 1.0;
+                }
+
+                if (generatedByType[type] <= 0) {
+                    // Re-sync once a type is fully shed, so rounding never leaves a phantom total behind
+                    total = 0.0;
+                    weighted = 0.0;
+                    for (int t = 0; t < generatedByType.length; t++) {
+                        total += generatedByType[t];
+                        weighted += generatedByType[t] * PlantType.of(t).getStability();
+                    }
+                    avgStability = total == 0.0 ? 1.0 : weighted / total;
+                }
+            }
+
+            if (state.timed) {
+                state.sheddingNanos += System.nanoTime() - sheddingStart;
+            }
+
+            double remainingAfterReduction = expectedDemand - totalGenerated;
+            if (remainingAfterReduction > 1e-3 && schedule.isNuclearTopUp(elapsedMinutes)) {
+                long topUpStart = state.timed ? System.nanoTime() : 0;
+                state.nuclearTopUps++;
+                int nuclear = PlantType.NUCLEAR.ordinal();
+                for (int k = nuclearFrom; k < nuclearTo; k++) {
+                    double additional = Math.min(nuclearCapacities[k], remainingAfterReduction);
+                    if (additional > 1e-3) {
+                        generatedByType[nuclear] += additional;
+                        totalGenerated += additional;
+                        remainingAfterReduction -= additional;
+                    }
+
+                    if (remainingAfterReduction <= 0) break;
+                }
+                if (state.timed) {
+                    state.nuclearNanos += System.nanoTime() - topUpStart;
+                }
+            }
+        }
+
+        state.generated = totalGenerated;
+        state.stability = avgStability;
+    }
+
+    /**
+     * Compute how much of a type the stepped shedding loop would remove, in one pass.
+     * Shedding x MW of a type with stability s gives (weighted - s*x) / (total - x), which reaches
+     * the minimum at x = (min*total - weighted) / (min - s). The result is rounded up to whole steps
+     * and then settled against the exact stop condition, so it matches the stepped loop.
+     * @param total Total generated power.
+     * @param weighted Generated power weighted by stability.
+     * @param stability Stability coefficient of the shed type.
+     * @param available Power of the shed type that can be removed.
+     * @return The power to remove, at most {@code available}.
+     */
+    static double closedFormReduction(double total, double weighted, double stability, double available) {
+        if (stability >= MIN_STABILITY) {
+            return available; // Shedding this type never lifts the average, so it is fully shed
+        }
+        long maxSteps = (long) Math.ceil(available / REDUCTION_STEP_MW);
+        double needed = (MIN_STABILITY * total - weighted) / (MIN_STABILITY - stability);
+        long steps = Math.max(1, Math.min(maxSteps, (long) Math.ceil(needed / REDUCTION_STEP_MW)));
+
+        while (steps > 1 && reachesMinimum(total, weighted, stability, Math.min(available, (steps - 1) * REDUCTION_STEP_MW))) {
+            steps--;
+        }
+        while (steps < maxSteps && !reachesMinimum(total, weighted, stability, steps * REDUCTION_STEP_MW)) {
+            steps++;
+        }
+        return Math.min(available, steps * REDUCTION_STEP_MW);
+    }
+
+    private static boolean reachesMinimum(double total, double weighted, double stability, double reduction) {
+        double remaining = total - reduction;
+        return remaining <= 0 || (weighted - reduction * stability) / remaining >= MIN_STABILITY;
+    }
+}
@@ -0,0 +1,55 @@
+package edu.uoc.uoctron.model;
+
+/**
+ * Mutable per-run scratch holding the outcome of dispatching one minute.
+ * A single instance is reused for every minute of a run, so reading it is only
+ * valid until the next call to {@link DispatchEngine#dispatch}.
+ */
+public class DispatchState {
+    final double[] generatedByType = new double[PlantType.COUNT];
+    double generated;
+    double stability;
+
+    // Pipeline counters, summed across minutes until cleared; the timings are only taken when timed is set
+    boolean timed;
+    long sheddingIterations;
+    long sheddingNanos;
+    long nuclearTopUps;
+    long nuclearNanos;
+
+    void reset() {
+        for (int t = 0; t < generatedByType.length; t++) {
+            generatedByType[t] = 0.0;
+        }
+        generated = 0.0;
+        stability = 1.0;
+    }
+
+    void clearCounters() {
+        sheddingIterations = 0;
+        sheddingNanos = 0;
+        nuclearTopUps = 0;
+        nuclearNanos = 0;
+    }
+
+    public double getGenerated() {
+        return generated;
+    }
+
+    public double getStability() {
+        return stability;
+    }
+
+    public double getGeneratedByType(PlantType type) {
+        return generatedByType[type.ordinal()];
+    }
+
+    /**
+     * Get the generated power of a type by ordinal.
+     * @param ordinal The ordinal of the plant type.
+     * @return Generated power in MW.
+     */
+    public double getGeneratedByType(int ordinal) {
+        return generatedByType[ordinal];
+    }
+}
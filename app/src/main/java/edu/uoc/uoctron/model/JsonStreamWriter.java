@@ -0,0 +1,137 @@
+package edu.uoc.uoctron.model;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON straight to a {@link Writer} without building an org.json object tree.
+ * Field names and number formatting follow {@link SimulationResult#toJSONObject()}, so
+ * the output parses to the same values as the org.json representation.
+ */
+public class JsonStreamWriter {
+    private final Writer out;
+
+    public JsonStreamWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Write every row of a table as a JSON array.
+     * @param table The results to write.
+     * @throws IOException If the underlying writer fails.
+     */
+    public void writeResults(ResultTable table) throws IOException {
+        writeResults(table, 0, table.size());
+    }
+
+    /**
+     * Write the rows {@code [from, to)} of a table as a JSON array.
+     * @param table The results to write.
+     * @param from First row to write (inclusive).
+     * @param to Last row to write (exclusive).
+     * @throws IOException If the underlying writer fails.
+     */
+    public void writeResults(ResultTable table, int from, int to) throws IOException {
+        out.write('[');
+        for (int row = from; row < to; row++) {
+            if (row > from) {
+                out.write(',');
+            }
+            writeResult(table, row);
+        }
+        out.write(']');
+    }
+
+    /**
+     * Write one row of a table as a JSON object.
+     * @param table The results.
+     * @param row The row to write.
+     * @throws IOException If the underlying writer fails.
+     */
+    public void writeResult(ResultTable table, int row) throws IOException {
+        out.write("{\"time\":");
+        writeString(table.getTime(row).toString());
+        out.write(",\"generatedMW\":");
+        writeNumber(table.getGenerated(row));
+        out.write(",\"expectedDemandMW\":");
+        writeNumber(table.getExpectedDemand(row));
+        out.write(",\"averageStability\":");
+        writeNumber(table.getAverageStability(row));
+        out.write(",\"generatedByTypeMW\":{");
+        boolean first = true;
+        for (PlantType type : PlantType.values()) {
+            double value = table.getGeneratedByType(row, type);
+            if (value > 1e-6) {
+                if (!first) {
+                    out.write(',');
+                }
+                writeString(type.getLabel());
+                out.write(':');
+                writeNumber(value);
+                first = false;
+            }
+        }
+        out.write("}}");
+    }
+
+    /**
+     * Write a quoted and escaped JSON string.
+     * @param value The string to write.
+     * @throws IOException If the underlying writer fails.
+     */
+    public void writeString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\b' -> out.write("\\b");
+                case '\f' -> out.write("\\f");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Write a JSON number.
+     * @param value The number to write.
+     * @throws IOException If the underlying writer fails.
+     */
+    public void writeNumber(double value) throws IOException {
+        out.write(numberToString(value));
+    }
+
+    /**
+     * Format a double the way org.json does: shortest representation, trailing zeros removed.
+     * @param value A finite number.
+     * @return The JSON text of the number.
+     */
+    public static String numberToString(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON does not allow non-finite numbers: " + value);
+        }
+        String string = Double.toString(value);
+        if (string.indexOf('.') > 0 && string.indexOf('E') < 0) {
+            int end = string.length();
+            while (string.charAt(end - 1) == '0') {
+                end--;
+            }
+            if (string.charAt(end - 1) == '.') {
+                end--;
+            }
+            string = string.substring(0, end);
+        }
+        return string;
+    }
+}
@@ -0,0 +1,155 @@
+package edu.uoc.uoctron.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Model {
+    private static final int MAX_SIMULATIONS = 32;
+    private static final long MAX_SIMULATION_BYTES = 64L * 1024 * 1024;
+
+    private List<PowerPlant> plants;
+    /** Whether {@link #plants} is a shared read-only fleet, to be copied before adding to it. */
+    private boolean sharedPlants;
+    private DemandSeries demand;
+    private RestartSchedule schedule = RestartSchedule.DEFAULT;
+    private final SimulationHistory simulations;
+    private volatile ModelSnapshot snapshot;
+
+    public Model() {
+        plants = new ArrayList<>();
+        demand = new DemandSeries.Builder().build();
+        simulations = new SimulationHistory(MAX_SIMULATIONS, MAX_SIMULATION_BYTES);
+    }
+
+    /**
+     * Get an immutable snapshot of the fleet and the demand. The snapshot is built on first
+     * use after a change and then shared, so reading it never takes a lock.
+     * @return The current snapshot.
+     */
+    public ModelSnapshot getSnapshot() {
+        ModelSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = new ModelSnapshot(List.copyOf(plants), new DispatchEngine(plants, SheddingMode.CLOSED_FORM, schedule), demand);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Get the plants of the fleet.
+     * @return The plants of the current snapshot, in load order. The list is read-only.
+     */
+    public List<PowerPlant> getPlants() {
+        return getSnapshot().getPlants();
+    }
+
+    /**
+     * Add a plant to the fleet. Snapshots taken before the call are not affected.
+     * @param plant The plant to add.
+     */
+    public synchronized void addPlant(PowerPlant plant) {
+        if (sharedPlants) {
+            plants = new ArrayList<>(plants);
+            sharedPlants = false;
+        }
+        plants.add(plant);
+        snapshot = null;
+    }
+
+    /**
+     * Replace the fleet with one compiled beforehand, typically shared with other models.
+     * The list is not copied, so it must be read-only; adding a plant afterwards gives this
+     * model its own copy. Snapshots taken before the call are not affected.
+     * @param plants The plants of the fleet, in load order.
+     * @param dispatchEngine The fleet compiled for dispatch, built from the same plants.
+     */
+    public synchronized void setFleet(List<PowerPlant> plants, DispatchEngine dispatchEngine) {
+        this.plants = plants;
+        this.sharedPlants = true;
+        snapshot = new ModelSnapshot(plants, dispatchEngine.withSchedule(schedule), demand);
+    }
+
+    public RestartSchedule getRestartSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Replace the restoration plan followed by the simulations. The fleet is recompiled for
+     * it; snapshots taken before the call are not affected.
+     * @param schedule The new restart schedule.
+     */
+    public synchronized void setRestartSchedule(RestartSchedule schedule) {
+        this.schedule = schedule;
+        ModelSnapshot current = snapshot;
+        if (current != null) {
+            snapshot = new ModelSnapshot(current, current.getDispatchEngine().withSchedule(schedule), demand);
+        }
+    }
+
+    /**
+     * Get the fleet compiled for dispatch. It is compiled on first use and kept until the fleet changes.
+     * @return The dispatch engine of the current snapshot.
+     */
+    public DispatchEngine getDispatchEngine() {
+        return getSnapshot().getDispatchEngine();
+    }
+
+    public DemandSeries getDemand() {
+        return getSnapshot().getDemand();
+    }
+
+    /**
+     * Replace the demand series. Snapshots taken before the call are not affected.
+     * @param demand The new demand series.
+     */
+    public synchronized void setDemand(DemandSeries demand) {
+        this.demand = demand;
+        ModelSnapshot current = snapshot;
+        if (current != null) {
+            // The fleet did not change, so its compiled form is kept
+            snapshot = new ModelSnapshot(current, current.getDispatchEngine(), demand);
+        }
+    }
+
+    /**
+     * Get the stored simulations, oldest first.
+     * @return A copy of the retained runs.
+     */
+    public List<Simulation> getSimulations() {
+        return simulations.list();
+    }
+
+    /**
+     * Store a simulation in the history, keeping the previous ones within the retention limits.
+     * @param simulation The simulation to store.
+     * @return The stored run, carrying its id.
+     */
+    public Simulation addSimulation(Simulation simulation) {
+        return simulations.add(simulation);
+    }
+
+    /**
+     * Get a stored simulation.
+     * @param id The id of the run.
+     * @return The run, or null if it does not exist or was evicted.
+     */
+    public Simulation getSimulation(long id) {
+        return simulations.get(id);
+    }
+
+    /**
+     * Get the most recently stored simulation.
+     * @return The latest run, or null if there is none.
+     */
+    public Simulation getLatestSimulation() {
+        return simulations.latest();
+    }
+
+    public SimulationHistory getSimulationHistory() {
+        return simulations;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.uoc.uoctron.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Immutable view of the data a simulation reads: the plants, the fleet compiled for dispatch,
+ * the demand series and, once needed, the spatial index of the plants. A snapshot never
+ * changes once created, so any number of threads can simulate against it without locking;
+ * changes to the {@link Model} publish a new snapshot.
+ */
+public final class ModelSnapshot {
+    private final List<PowerPlant> plants;
+    private final DispatchEngine dispatchEngine;
+    private final DemandSeries demand;
+    private volatile SpatialIndex spatialIndex;
+    private volatile byte[] plantsJSON;
+
+    ModelSnapshot(List<PowerPlant> plants, DispatchEngine dispatchEngine, DemandSeries demand) {
+        this.plants = plants;
+        this.dispatchEngine = dispatchEngine;
+        this.demand = demand;
+    }
+
+    /**
+     * Create a snapshot with the plants of another one, e.g., after the demand changed. What was
+     * built from the plants (the spatial index and their JSON) is kept.
+     * @param previous The snapshot whose plants are kept.
+     * @param dispatchEngine The fleet compiled for dispatch, from the same plants.
+     * @param demand The demand series.
+     */
+    ModelSnapshot(ModelSnapshot previous, DispatchEngine dispatchEngine, DemandSeries demand) {
+        this(previous.plants, dispatchEngine, demand);
+        this.spatialIndex = previous.spatialIndex;
+        this.plantsJSON = previous.plantsJSON;
+    }
+
+    /**
+     * Get the plants of the fleet.
+     * @return The plants, in load order. The list is read-only.
+     */
+    public List<PowerPlant> getPlants() {
+        return plants;
+    }
+
+    /**
+     * Get the plants as a JSON array encoded in UTF-8, built on first use from the JSON of
+     * each plant and shared until the fleet changes.
+     * @return A read-only buffer over the encoded array, positioned at its start.
+     */
+    public ByteBuffer getPlantsJSON() {
+        byte[] bytes = plantsJSON;
+        if (bytes == null) {
+            StringBuilder json = new StringBuilder(plants.size() * 192 + 2).append('[');
+            for (int i = 0; i < plants.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(plants.get(i).toString());
+            }
+            bytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            plantsJSON = bytes;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    public DispatchEngine getDispatchEngine() {
+        return dispatchEngine;
+    }
+
+    public DemandSeries getDemand() {
+        return demand;
+    }
+
+    /**
+     * Get the spatial index of the plants, built on first use. Indexes are positions in {@link #getPlants()}.
+     * @return The spatial index.
+     */
+    public SpatialIndex getSpatialIndex() {
+        SpatialIndex index = spatialIndex;
+        if (index == null) {
+            // Building it twice in a race is harmless, both copies are equal
+            index = new SpatialIndex(plants);
+            spatialIndex = index;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,146 @@
+package edu.uoc.uoctron.model;
+
+/**
+ * Trials and uncertainty model of a Monte Carlo blackout analysis.
+ * In every trial each plant independently may be unavailable for the whole run, restarts
+ * after an exponentially distributed delay on top of its own restart time, and, for the
+ * renewable types whose output depends on efficiency (hydroelectric, solar and biomass),
+ * runs at an efficiency drawn uniformly from a range.
+ * Options are immutable; the {@code with} methods return modified copies of {@link #DEFAULT}.
+ */
+public final class MonteCarloOptions {
+
+    public static final MonteCarloOptions DEFAULT = new MonteCarloOptions(10_000, 42L,
+            SimulationOptions.DEFAULT_HORIZON_MINUTES, 30.0, 0.05, 0.7, 1.0, 0.01, null);
+
+    private final int trials;
+    private final long seed;
+    private final int horizonMinutes;
+    private final double meanRestartDelayMinutes;
+    private final double outageProbability;
+    private final double minEfficiency;
+    private final double maxEfficiency;
+    private final double relativeAccuracy;
+    private final SheddingMode sheddingMode;
+
+    private MonteCarloOptions(int trials, long seed, int horizonMinutes, double meanRestartDelayMinutes,
+                              double outageProbability, double minEfficiency, double maxEfficiency,
+                              double relativeAccuracy, SheddingMode sheddingMode) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("Trials must be positive: " + trials);
+        }
+        if (horizonMinutes <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive: " + horizonMinutes);
+        }
+        if (meanRestartDelayMinutes < 0) {
+            throw new IllegalArgumentException("Negative restart delay: " + meanRestartDelayMinutes);
+        }
+        if (outageProbability < 0 || outageProbability > 1) {
+            throw new IllegalArgumentException("Outage probability must be between 0 and 1: " + outageProbability);
+        }
+        if (minEfficiency < 0 || maxEfficiency < minEfficiency) {
+            throw new IllegalArgumentException("Invalid efficiency range: " + minEfficiency + " to " + maxEfficiency);
+        }
+        this.trials = trials;
+        this.seed = seed;
+        this.horizonMinutes = horizonMinutes;
+        this.meanRestartDelayMinutes = meanRestartDelayMinutes;
+        this.outageProbability = outageProbability;
+        this.minEfficiency = minEfficiency;
+        this.maxEfficiency = maxEfficiency;
+        this.relativeAccuracy = relativeAccuracy;
+        this.sheddingMode = sheddingMode;
+    }
+
+    public MonteCarloOptions withTrials(int trials) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    /**
+     * Get options with another seed. The same seed always gives the same result, whatever
+     * the number of cores.
+     * @param seed The root seed of the trials.
+     * @return The modified options.
+     */
+    public MonteCarloOptions withSeed(long seed) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    public MonteCarloOptions withHorizonMinutes(int horizonMinutes) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    public MonteCarloOptions withMeanRestartDelayMinutes(double meanRestartDelayMinutes) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    public MonteCarloOptions withOutageProbability(double outageProbability) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    public MonteCarloOptions withEfficiencyRange(double minEfficiency, double maxEfficiency) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    /**
+     * Get options with another accuracy for the reported quantiles.
+     * @param relativeAccuracy The maximum relative error of the quantiles, e.g., 0.01 for 1%.
+     * @return The modified options.
+     */
+    public MonteCarloOptions withRelativeAccuracy(double relativeAccuracy) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    /**
+     * Get options with a shedding mode.
+     * @param sheddingMode The shedding mode, or null to use the one of the controller.
+     * @return The modified options.
+     */
+    public MonteCarloOptions withSheddingMode(SheddingMode sheddingMode) {
+        return new MonteCarloOptions(trials, seed, horizonMinutes, meanRestartDelayMinutes, outageProbability,
+                minEfficiency, maxEfficiency, relativeAccuracy, sheddingMode);
+    }
+
+    public int getTrials() {
+        return trials;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getHorizonMinutes() {
+        return horizonMinutes;
+    }
+
+    public double getMeanRestartDelayMinutes() {
+        return meanRestartDelayMinutes;
+    }
+
+    public double getOutageProbability() {
+        return outageProbability;
+    }
+
+    public double getMinEfficiency() {
+        return minEfficiency;
+    }
+
+    public double getMaxEfficiency() {
+        return maxEfficiency;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public SheddingMode getSheddingMode() {
+        return sheddingMode;
+    }
+}
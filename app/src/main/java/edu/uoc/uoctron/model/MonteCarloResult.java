@@ -0,0 +1,170 @@
+package edu.uoc.uoctron.model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+
+/**
+ * Distributions of a Monte Carlo blackout analysis.
+ * For every minute of the horizon the stability and the unmet demand of all the trials are
+ * kept in {@link QuantileSketch}es, as are the unserved energy and the minimum stability of
+ * each trial, so the trials themselves are never stored.
+ */
+public class MonteCarloResult {
+
+    /** Quantiles reported by {@link #toJSONObject()}. */
+    public static final double[] REPORTED_QUANTILES = {0.5, 0.95, 0.99};
+
+    private final LocalDateTime startTime;
+    private final int horizonMinutes;
+    private final QuantileSketch[] stability;
+    private final QuantileSketch[] unmetDemand;
+    private final QuantileSketch unservedEnergy;
+    private final QuantileSketch minStability;
+    private long trials;
+
+    MonteCarloResult(LocalDateTime startTime, int horizonMinutes, double relativeAccuracy) {
+        this.startTime = startTime;
+        this.horizonMinutes = horizonMinutes;
+        this.stability = new QuantileSketch[horizonMinutes];
+        this.unmetDemand = new QuantileSketch[horizonMinutes];
+        for (int m = 0; m < horizonMinutes; m++) {
+            stability[m] = new QuantileSketch(relativeAccuracy);
+            unmetDemand[m] = new QuantileSketch(relativeAccuracy);
+        }
+        this.unservedEnergy = new QuantileSketch(relativeAccuracy);
+        this.minStability = new QuantileSketch(relativeAccuracy);
+    }
+
+    /**
+     * Count the outcome of one minute of a trial.
+     */
+    void addMinute(int minute, double averageStability, double unmet) {
+        stability[minute].add(averageStability);
+        unmetDemand[minute].add(unmet);
+    }
+
+    /**
+     * Count the totals of a finished trial.
+     */
+    void addTrial(double unservedMWh, double trialMinStability) {
+        unservedEnergy.add(unservedMWh);
+        minStability.add(trialMinStability);
+        trials++;
+    }
+
+    /**
+     * Add the trials of another partial result to this one.
+     * @param other A result of the same analysis.
+     * @return This result.
+     */
+    MonteCarloResult merge(MonteCarloResult other) {
+        for (int m = 0; m < horizonMinutes; m++) {
+            stability[m].merge(other.stability[m]);
+            unmetDemand[m].merge(other.unmetDemand[m]);
+        }
+        unservedEnergy.merge(other.unservedEnergy);
+        minStability.merge(other.minStability);
+        trials += other.trials;
+        return this;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public int getHorizonMinutes() {
+        return horizonMinutes;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    /**
+     * Get a quantile of the average stability at a minute, over all trials.
+     * @param minute Minutes elapsed since the blackout.
+     * @param q The quantile, between 0 and 1.
+     * @return The estimated stability.
+     */
+    public double getStabilityQuantile(int minute, double q) {
+        return stability[minute].quantile(q);
+    }
+
+    /**
+     * Get a quantile of the unmet demand at a minute, over all trials.
+     * @param minute Minutes elapsed since the blackout.
+     * @param q The quantile, between 0 and 1.
+     * @return The estimated unmet demand in MW.
+     */
+    public double getUnmetDemandQuantile(int minute, double q) {
+        return unmetDemand[minute].quantile(q);
+    }
+
+    /**
+     * Get a quantile of the stability for every minute.
+     * @param q The quantile, between 0 and 1.
+     * @return The stability curve, one value per minute.
+     */
+    public double[] getStabilityCurve(double q) {
+        double[] curve = new double[horizonMinutes];
+        for (int m = 0; m < horizonMinutes; m++) {
+            curve[m] = stability[m].quantile(q);
+        }
+        return curve;
+    }
+
+    /**
+     * Get a quantile of the unmet demand for every minute.
+     * @param q The quantile, between 0 and 1.
+     * @return The unmet demand curve in MW, one value per minute.
+     */
+    public double[] getUnmetDemandCurve(double q) {
+        double[] curve = new double[horizonMinutes];
+        for (int m = 0; m < horizonMinutes; m++) {
+            curve[m] = unmetDemand[m].quantile(q);
+        }
+        return curve;
+    }
+
+    /**
+     * Get the distribution of the energy left unserved by each trial.
+     * @return The sketch of unserved MWh per trial.
+     */
+    public QuantileSketch getUnservedEnergy() {
+        return unservedEnergy;
+    }
+
+    /**
+     * Get the distribution of the lowest stability reached while generating in each trial.
+     * @return The sketch of the minimum stability per trial.
+     */
+    public QuantileSketch getMinStability() {
+        return minStability;
+    }
+
+    public JSONObject toJSONObject() {
+        JSONObject obj = new JSONObject();
+        obj.put("startTime", startTime.toString());
+        obj.put("trials", trials);
+        obj.put("horizonMinutes", horizonMinutes);
+
+        JSONObject stabilityCurves = new JSONObject();
+        JSONObject unmetCurves = new JSONObject();
+        JSONObject unserved = new JSONObject();
+        JSONObject lowest = new JSONObject();
+        for (double q : REPORTED_QUANTILES) {
+            String key = "p" + Math.round(q * 100);
+            stabilityCurves.put(key, new JSONArray(getStabilityCurve(q)));
+            unmetCurves.put(key, new JSONArray(getUnmetDemandCurve(q)));
+            unserved.put(key, unservedEnergy.quantile(q));
+            lowest.put(key, minStability.quantile(q));
+        }
+        obj.put("averageStability", stabilityCurves);
+        obj.put("unmetDemandMW", unmetCurves);
+        obj.put("unservedMWh", unserved);
+        obj.put("minStability", lowest);
+        return obj;
+    }
+}
@@ -0,0 +1,133 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Runs Monte Carlo blackout analyses over a compiled fleet.
+ * Trials are grouped in fixed chunks that run in parallel on the common pool. Each chunk
+ * gets a {@link SplittableRandom} split from the root seed up front and each trial a further
+ * split of it, so the outcome depends on the seed only, not on the number of cores or on
+ * scheduling. Every worker accumulates into its own {@link MonteCarloResult}, and the
+ * partial results are merged at the end.
+ */
+public class MonteCarloSimulator {
+
+    private static final int TRIALS_PER_CHUNK = 256;
+    private static final double UNMET_TOLERANCE_MW = 1e-3;
+
+    /** Types whose output depends on the efficiency of the plant. */
+    private static final int EFFICIENCY_TYPES =
+            PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.SOLAR, PlantType.BIOMASS);
+
+    private final DispatchEngine engine;
+    private final double[] demand;
+    private final LocalDateTime startTime;
+    private final MonteCarloOptions options;
+
+    /**
+     * Prepare an analysis.
+     * @param engine The compiled fleet, with the shedding mode to use.
+     * @param demandSeries The demand series.
+     * @param startTime The start time of the blackout.
+     * @param options The trials and uncertainty model.
+     */
+    public MonteCarloSimulator(DispatchEngine engine, DemandSeries demandSeries, LocalDateTime startTime, MonteCarloOptions options) {
+        this.engine = engine;
+        this.startTime = startTime;
+        this.options = options;
+
+        // Every trial sees the same demand, so it is read once
+        long startEpochMinute = DemandSeries.toEpochMinute(startTime);
+        this.demand = new double[options.getHorizonMinutes()];
+        for (int m = 0; m < demand.length; m++) {
+            demand[m] = demandSeries.getDemand(startEpochMinute + m);
+        }
+    }
+
+    /**
+     * Run all the trials.
+     * @return The merged distributions.
+     */
+    public MonteCarloResult run() {
+        int trials = options.getTrials();
+        int chunks = (trials + TRIALS_PER_CHUNK - 1) / TRIALS_PER_CHUNK;
+        SplittableRandom root = new SplittableRandom(options.getSeed());
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            chunkRandoms[c] = root.split();
+        }
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .collect(Worker::new,
+                        (worker, chunk) -> worker.runChunk(chunkRandoms[chunk],
+                                Math.min(TRIALS_PER_CHUNK, trials - chunk * TRIALS_PER_CHUNK)),
+                        (left, right) -> left.result.merge(right.result))
+                .result;
+    }
+
+    /**
+     * Scratch space and partial result of one thread.
+     */
+    private final class Worker {
+        final MonteCarloResult result = new MonteCarloResult(startTime, demand.length, options.getRelativeAccuracy());
+        final DispatchState state = new DispatchState();
+        /** Capacity restarting at each minute, by type: [type * horizon + minute]. */
+        final double[] restarts = new double[PlantType.COUNT * demand.length];
+        final double[] typeCapacity = new double[PlantType.COUNT];
+
+        void runChunk(SplittableRandom chunkRandom, int trials) {
+            for (int trial = 0; trial < trials; trial++) {
+                runTrial(chunkRandom.split());
+            }
+        }
+
+        void runTrial(SplittableRandom random) {
+            int horizon = demand.length;
+            double outage = options.getOutageProbability();
+            double meanDelay = options.getMeanRestartDelayMinutes();
+            double minEfficiency = options.getMinEfficiency();
+            double efficiencyRange = options.getMaxEfficiency() - minEfficiency;
+
+            Arrays.fill(restarts, 0.0);
+            for (int i = 0; i < engine.size(); i++) {
+                if (outage > 0 && random.nextDouble() < outage) continue;
+
+                int type = engine.typeAt(i);
+                double capacity = engine.capacityAt(i);
+                if ((EFFICIENCY_TYPES & (1 << type)) != 0) {
+                    capacity *= minEfficiency + efficiencyRange * random.nextDouble();
+                }
+                long restart = engine.restartMinutesAt(i);
+                if (meanDelay > 0) {
+                    restart += Math.round(-meanDelay * Math.log(1.0 - random.nextDouble()));
+                }
+                if (restart < horizon) {
+                    restarts[type * horizon + (int) Math.max(0, restart)] += capacity;
+                }
+            }
+
+            Arrays.fill(typeCapacity, 0.0);
+            double unservedMWh = 0.0;
+            double minStability = 1.0;
+            for (int m = 0; m < horizon; m++) {
+                for (int t = 0; t < PlantType.COUNT; t++) {
+                    typeCapacity[t] += restarts[t * horizon + m];
+                }
+                engine.dispatch(m, demand[m], typeCapacity, state);
+
+                double unmet = demand[m] - state.generated;
+                unmet = unmet > UNMET_TOLERANCE_MW ? unmet : 0.0;
+                result.addMinute(m, state.stability, unmet);
+                unservedMWh += unmet / 60.0;
+                if (state.generated > 0.0) {
+                    minStability = Math.min(minStability, state.stability);
+                }
+            }
+            result.addTrial(unservedMWh, minStability);
+        }
+    }
+}
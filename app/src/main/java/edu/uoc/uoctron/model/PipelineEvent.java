@@ -0,0 +1,42 @@
+package edu.uoc.uoctron.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one stage of the simulation pipeline. Disabled by default;
+ * enable {@code edu.uoc.uoctron.Pipeline} in a recording to get one event per file load,
+ * dispatch phase and serialization, plus the shedding and nuclear top-up of each phase.
+ */
+@Name("edu.uoc.uoctron.Pipeline")
+@Label("Pipeline Stage")
+@Category("UOCtron")
+@Description("A stage of the blackout simulation pipeline")
+@StackTrace(false)
+class PipelineEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Rows")
+    @Description("Rows processed: plants, demand minutes, dispatched steps, shedding iterations, topped-up minutes or serialized rows")
+    long rows;
+
+    @Label("Phase Start")
+    @Description("Elapsed minute where the dispatch phase starts, or -1 outside dispatch")
+    int phaseStartMinute = -1;
+
+    @Label("Busy Time")
+    @Description("Time spent in the stage. Equals the duration except for shedding and top-up, which are summed over a phase")
+    @Timespan(Timespan.NANOSECONDS)
+    long busyTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,25 @@
+package edu.uoc.uoctron.model;
+
+/**
+ * Stages of the simulation pipeline measured by {@link PipelineStats}.
+ */
+public enum PipelineStage {
+    LOAD_PLANTS("Load plants"),
+    LOAD_DEMAND("Load demand"),
+    /** A data file served from the catalog: resolving it and checking that it did not change. */
+    CATALOG_HIT("Catalog hit"),
+    DISPATCH("Dispatch"),
+    SHEDDING("Stability shedding"),
+    NUCLEAR_TOP_UP("Nuclear top-up"),
+    SERIALIZATION("Serialization");
+
+    private final String label;
+
+    PipelineStage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
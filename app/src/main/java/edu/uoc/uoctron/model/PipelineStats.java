@@ -0,0 +1,227 @@
+package edu.uoc.uoctron.model;
+
+import jdk.jfr.EventType;
+import org.json.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of the simulation pipeline, one set per {@link PipelineStage}:
+ * how many times the stage ran, the time spent, the rows processed and the bytes allocated.
+ * Counters are lock-free adders updated once per stage, never per row. The same measures
+ * are emitted as {@link PipelineEvent Flight Recorder events} when the event is enabled.
+ * The time and the allocated bytes are only measured then: with recording off, a stage gets
+ * a shared probe that only counts the run and its rows, so nothing is allocated and no clock
+ * is read. Whether the event is enabled is read from its type.
+ */
+public final class PipelineStats {
+
+    private static final int STAGES = PipelineStage.values().length;
+    private static final LongAdder[] COUNTS = adders();
+    private static final LongAdder[] NANOS = adders();
+    private static final LongAdder[] ROWS = adders();
+    private static final LongAdder[] BYTES = adders();
+    private static final EventType EVENT_TYPE = EventType.getEventType(PipelineEvent.class);
+    /** The probe of each stage while recording is off, shared by every run of the stage. */
+    private static final Probe[] UNRECORDED = new Probe[STAGES];
+
+    static {
+        for (PipelineStage stage : PipelineStage.values()) {
+            UNRECORDED[stage.ordinal()] = new Probe(stage);
+        }
+    }
+
+    private PipelineStats() {
+    }
+
+    /**
+     * Start measuring a stage on the current thread.
+     * @param stage The stage.
+     * @return The probe to end when the stage is done.
+     */
+    public static Probe start(PipelineStage stage) {
+        return EVENT_TYPE.isEnabled() ? new Probe(stage, -1) : UNRECORDED[stage.ordinal()];
+    }
+
+    /**
+     * Start measuring a dispatch phase on the current thread.
+     * @param phaseStartMinute The elapsed minute where the phase starts.
+     * @return The probe to end when the phase is done.
+     */
+    static Probe startPhase(int phaseStartMinute) {
+        return EVENT_TYPE.isEnabled() ? new Probe(PipelineStage.DISPATCH, phaseStartMinute)
+                : UNRECORDED[PipelineStage.DISPATCH.ordinal()];
+    }
+
+    /**
+     * Whether pipeline events are being recorded, so finer (costlier) timing is worth taking.
+     * @return True if the Flight Recorder event is enabled.
+     */
+    static boolean isRecording() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Add a stage measured in pieces, e.g., the shedding of every minute of a phase.
+     * @param stage The stage.
+     * @param nanos The total time spent, or 0 if it was not timed.
+     * @param rows The rows processed.
+     * @param enclosing The probe of the dispatch phase the pieces belong to.
+     */
+    static void add(PipelineStage stage, long nanos, long rows, Probe enclosing) {
+        COUNTS[stage.ordinal()].increment();
+        NANOS[stage.ordinal()].add(nanos);
+        ROWS[stage.ordinal()].add(rows);
+
+        if (EVENT_TYPE.isEnabled()) {
+            PipelineEvent event = new PipelineEvent();
+            event.begin();
+            event.stage = stage.getLabel();
+            event.rows = rows;
+            event.phaseStartMinute = enclosing.phaseStartMinute;
+            event.busyTime = nanos;
+            event.commit();
+        }
+    }
+
+    public static long getCount(PipelineStage stage) {
+        return COUNTS[stage.ordinal()].sum();
+    }
+
+    public static long getRows(PipelineStage stage) {
+        return ROWS[stage.ordinal()].sum();
+    }
+
+    /**
+     * Get the time spent in a stage while events were being recorded.
+     * @param stage The stage.
+     * @return The time in nanoseconds.
+     */
+    public static long getNanos(PipelineStage stage) {
+        return NANOS[stage.ordinal()].sum();
+    }
+
+    /**
+     * Get the bytes allocated by a stage while events were being recorded.
+     * @param stage The stage.
+     * @return The allocated bytes.
+     */
+    public static long getAllocatedBytes(PipelineStage stage) {
+        return BYTES[stage.ordinal()].sum();
+    }
+
+    /**
+     * Reset every counter to zero.
+     */
+    public static void reset() {
+        for (int s = 0; s < STAGES; s++) {
+            COUNTS[s].reset();
+            NANOS[s].reset();
+            ROWS[s].reset();
+            BYTES[s].reset();
+        }
+    }
+
+    public static JSONObject toJSON() {
+        JSONObject obj = new JSONObject();
+        for (PipelineStage stage : PipelineStage.values()) {
+            JSONObject counters = new JSONObject();
+            counters.put("count", getCount(stage));
+            counters.put("totalMs", getNanos(stage) / 1e6);
+            counters.put("rows", getRows(stage));
+            counters.put("allocatedBytes", getAllocatedBytes(stage));
+            obj.put(stage.name(), counters);
+        }
+        return obj;
+    }
+
+    /**
+     * Measurement of one run of a stage, started and ended on the same thread. A probe that is
+     * never ended records nothing.
+     */
+    public static final class Probe {
+        private final PipelineStage stage;
+        private final int phaseStartMinute;
+        /** The event being recorded, or null for the shared probe of a stage while recording is off. */
+        private final PipelineEvent event;
+        private final long startBytes;
+        private final long startNanos;
+
+        /**
+         * Start a recorded run of a stage.
+         */
+        private Probe(PipelineStage stage, int phaseStartMinute) {
+            this.stage = stage;
+            this.phaseStartMinute = phaseStartMinute;
+            event = new PipelineEvent();
+            event.begin();
+            startBytes = allocatedBytes();
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Create the shared probe of a stage, which only counts.
+         */
+        private Probe(PipelineStage stage) {
+            this.stage = stage;
+            this.phaseStartMinute = -1;
+            event = null;
+            startBytes = -1;
+            startNanos = -1;
+        }
+
+        /**
+         * End the stage and record it.
+         * @param rows The rows processed by the stage.
+         */
+        public void end(long rows) {
+            int s = stage.ordinal();
+            COUNTS[s].increment();
+            ROWS[s].add(rows);
+            if (event != null) {
+                long nanos = System.nanoTime() - startNanos;
+                NANOS[s].add(nanos);
+                long bytes = Math.max(0, allocatedBytes() - startBytes);
+                BYTES[s].add(bytes);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage.getLabel();
+                    event.rows = rows;
+                    event.phaseStartMinute = phaseStartMinute;
+                    event.busyTime = nanos;
+                    event.allocatedBytes = bytes;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = Allocation.THREADS;
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    /**
+     * Holder of the thread bean, so the management classes are only loaded once something is recorded.
+     */
+    private static final class Allocation {
+        static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+        private static com.sun.management.ThreadMXBean threadBean() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+            return null;
+        }
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[STAGES];
+        for (int s = 0; s < STAGES; s++) {
+            adders[s] = new LongAdder();
+        }
+        return adders;
+    }
+}
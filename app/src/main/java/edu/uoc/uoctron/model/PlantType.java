@@ -0,0 +1,118 @@
+package edu.uoc.uoctron.model;
+
+/**
+ * Enumeration of power plant types, declared in dispatch (merit) order.
+ * Each type carries its display label, the key naming it in the data files and its
+ * stability coefficient.
+ */
+public enum PlantType {
+    HYDROELECTRIC("Hydroelectric", "HYDRO", 0, 0.8),
+    COMBINED_CYCLE("Combined cycle", "COMBINED_CYCLE", 1, 0.7),
+    WIND("Wind", "WIND", 2, 0.2),
+    SOLAR("Solar", "SOLAR", 3, 0.1),
+    GEOTHERMAL("Geothermal", "GEOTHERMAL", 4, 0.7),
+    COAL("Coal", "COAL", 5, 0.9),
+    BIOMASS("Biomass", "BIOMASS", 6, 0.5),
+    FUEL_GAS("Fuel gas", "FUEL_GAS", 7, 0.6),
+    NUCLEAR("Nuclear", "NUCLEAR", 8, 1.0);
+
+    /** Number of plant types, handy for sizing arrays indexed by ordinal. */
+    public static final int COUNT = values().length;
+
+    /** Mask with every type set. */
+    public static final int ALL_MASK = (1 << COUNT) - 1;
+
+    private static final PlantType[] VALUES = values();
+
+    private final String label;
+    private final String key;
+    private final int meritOrder;
+    private final double stability;
+
+    PlantType(String label, String key, int meritOrder, double stability) {
+        this.label = label;
+        this.key = key;
+        this.meritOrder = meritOrder;
+        this.stability = stability;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get the key of the type in the data files (e.g., "HYDRO").
+     * @return The key, in upper case.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public int getMeritOrder() {
+        return meritOrder;
+    }
+
+    public double getStability() {
+        return stability;
+    }
+
+    /**
+     * Bit of this type inside an allowed-types mask.
+     * @return The mask with only this type set.
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the type with the given ordinal.
+     * @param ordinal The ordinal of the type.
+     * @return The plant type.
+     */
+    public static PlantType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Find the type matching a display label (e.g., "Combined cycle").
+     * @param label The label returned by {@link PowerPlant#getType()}.
+     * @return The plant type, or null if the label is unknown.
+     */
+    public static PlantType fromLabel(String label) {
+        if (label == null) return null;
+        for (PlantType type : VALUES) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the type matching a data file key (e.g., "HYDRO"), ignoring case.
+     * @param key The key of the type.
+     * @return The plant type, or null if the key is unknown.
+     */
+    public static PlantType fromKey(String key) {
+        if (key == null) return null;
+        for (PlantType type : VALUES) {
+            if (type.key.equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Build a mask from a list of types.
+     * @param types The types to include.
+     * @return The combined mask.
+     */
+    public static int maskOf(PlantType... types) {
+        int mask = 0;
+        for (PlantType type : types) {
+            mask |= type.mask();
+        }
+        return mask;
+    }
+}
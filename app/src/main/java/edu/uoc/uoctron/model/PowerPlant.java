@@ -13,6 +13,9 @@ public abstract class PowerPlant {
     protected String image;
     protected double latitude;
     protected double longitude;
+    private PlantType plantType;
+    /** JSON form of the plant, built on first use; the serialized fields never change after construction. */
+    private volatile String json;
 
     public PowerPlant(String id, String name, String city, double maxCapacityMW, String availability, int restartMinutes,
                       double stability, String image, double latitude, double longitude) {
@@ -28,6 +31,18 @@ public abstract class PowerPlant {
         this.longitude = longitude;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public double getMaxCapacityMW() {
+        return maxCapacityMW;
+    }
+
     public int getRestartMinutes() {
         return restartMinutes;
     }
@@ -40,6 +55,25 @@ public abstract class PowerPlant {
         return stability;
     }
 
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Get the type of the plant as an enum, resolved once from {@link #getType()}.
+     * @return The plant type, or null if the type label is unknown.
+     */
+    public PlantType getPlantType() {
+        if (plantType == null) {
+            plantType = PlantType.fromLabel(getType());
+        }
+        return plantType;
+    }
+
     public JSONObject toJSON() {
         JSONObject obj = new JSONObject();
         obj.put("name", name != null ? name : "");
@@ -52,13 +86,23 @@ public abstract class PowerPlant {
         return obj;
     }
 
+    /**
+     * Get the plant as a JSON string. It is serialized once and then returned from a cache,
+     * so polling the fleet does not build a {@link JSONObject} per plant every time.
+     * @return The JSON of {@link #toJSON()}, or an empty object if it cannot be built.
+     */
     @Override
     public String toString() {
-        try {
-            return this.toJSON().toString();
-        } catch (Exception e) {
-            return "{}"; // String JSON vacío
+        String cached = json;
+        if (cached == null) {
+            try {
+                cached = this.toJSON().toString();
+            } catch (Exception e) {
+                cached = "{}"; // String JSON vacío
+            }
+            json = cached;
         }
+        return cached;
     }
 
 
@@ -0,0 +1,144 @@
+package edu.uoc.uoctron.model;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable streaming quantile sketch with relative accuracy, for non-negative values.
+ * Values are counted in logarithmic buckets, so a quantile is returned within the given
+ * relative error of the true one (values at or below {@link #ZERO_THRESHOLD} count as zero)
+ * and memory only grows with the logarithm of the value range, never with the number of values.
+ * Two sketches with the same accuracy merge exactly by adding their bucket counts.
+ */
+public class QuantileSketch {
+
+    /** Values up to this are counted as zero. */
+    public static final double ZERO_THRESHOLD = 1e-9;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double lastValue = Double.NaN;
+    private int lastIndex;
+
+    /**
+     * Create an empty sketch.
+     * @param relativeAccuracy The maximum relative error of the quantiles, e.g., 0.01 for 1%.
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Count a value. Negative values are counted as zero.
+     * @param value The value to count.
+     */
+    public void add(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (value <= ZERO_THRESHOLD) {
+            zeroCount++;
+            return;
+        }
+        // Runs often repeat the same value (e.g., full stability), so the last bucket is remembered
+        int index = value == lastValue ? lastIndex : (int) Math.ceil(Math.log(value) / logGamma);
+        lastValue = value;
+        lastIndex = index;
+        int slot = slot(index);
+        counts[slot]++;
+    }
+
+    /**
+     * Add the counts of another sketch to this one.
+     * @param other A sketch created with the same relative accuracy.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Sketches with different accuracy cannot be merged");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                int slot = slot(other.offset + i);
+                counts[slot] += other.counts[i];
+            }
+        }
+    }
+
+    /**
+     * Estimate a quantile of the counted values.
+     * @param q The quantile, between 0 and 1 (e.g., 0.95 for P95).
+     * @return The estimated value, or NaN if the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0.0, Math.min(1.0, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return Math.max(min, 0.0);
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double value = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Get the position of a bucket in the counts, growing them if needed. The counts array
+     * may be replaced, so it must be read after this call.
+     */
+    private int slot(int index) {
+        if (counts.length == 0) {
+            counts = new long[8];
+            offset = index - 4;
+        } else if (index < offset) {
+            int shift = Math.max(offset - index, counts.length);
+            long[] grown = new long[counts.length + shift];
+            System.arraycopy(counts, 0, grown, shift, counts.length);
+            counts = grown;
+            offset -= shift;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index - offset + 1, counts.length * 2));
+        }
+        return index - offset;
+    }
+}
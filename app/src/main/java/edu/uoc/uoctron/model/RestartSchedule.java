@@ -0,0 +1,244 @@
+package edu.uoc.uoctron.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Restoration plan after a blackout: which plant types may restart at each elapsed minute,
+ * how much restarting plants of a type may generate in some windows, and from which minute
+ * nuclear power tops up the demand left after shedding.
+ * The plan is compiled once into a per-minute timeline of allowed-type masks and of caps by
+ * type, so a lookup is an array read; minutes past the end of the timeline take its last entry.
+ * Steps lie within {@link #MAX_MINUTES} of the blackout, which bounds the timeline.
+ * Schedules are immutable and are built with a {@link Builder}, or read from a file (see
+ * {@code DataFileParser.parseSchedule}).
+ */
+public final class RestartSchedule {
+
+    /** Latest minute a step can start or end at: one week, far beyond the simulated horizon of a run. */
+    public static final int MAX_MINUTES = 7 * 1440;
+
+    /** The original restoration plan, used when no schedule is configured. */
+    public static final RestartSchedule DEFAULT = new Builder()
+            .allow(4, PlantType.maskOf(PlantType.HYDROELECTRIC))
+            .allow(7, PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND))
+            .allow(61, PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND, PlantType.GEOTHERMAL))
+            .allow(121, PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND, PlantType.GEOTHERMAL,
+                    PlantType.SOLAR, PlantType.COMBINED_CYCLE, PlantType.COAL))
+            .allow(1000, PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND, PlantType.GEOTHERMAL,
+                    PlantType.COMBINED_CYCLE))
+            .allow(1500, PlantType.ALL_MASK)
+            .cap(PlantType.COMBINED_CYCLE, 1000, 1001, 6119.5)
+            .nuclearTopUpFrom(1500)
+            .build();
+
+    /** Allowed-type mask of each minute. */
+    private final int[] allowedMasks;
+    /** Cap of each type at each minute, or null for a type without caps. */
+    private final double[][] caps;
+    private final int nuclearTopUpMinute;
+    /** Minutes where the mask or a cap changes, starting at 0. */
+    private final int[] boundaries;
+    private final long contentHash;
+
+    private RestartSchedule(int[] allowedMasks, double[][] caps, int nuclearTopUpMinute, int[] boundaries) {
+        this.allowedMasks = allowedMasks;
+        this.caps = caps;
+        this.nuclearTopUpMinute = nuclearTopUpMinute;
+        this.boundaries = boundaries;
+
+        long hash = nuclearTopUpMinute;
+        for (int mask : allowedMasks) {
+            hash = (hash ^ mask) * 0x9E3779B97F4A7C15L;
+        }
+        for (double[] typeCaps : caps) {
+            hash = (hash ^ Arrays.hashCode(typeCaps)) * 0x9E3779B97F4A7C15L;
+        }
+        this.contentHash = hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Get the types that may restart at a minute.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @return The mask of allowed types, 0 before the blackout.
+     */
+    public int allowedMask(int elapsedMinutes) {
+        if (elapsedMinutes < 0) {
+            return 0;
+        }
+        return allowedMasks[Math.min(elapsedMinutes, allowedMasks.length - 1)];
+    }
+
+    /**
+     * Get how much the restarting plants of a type may generate together at a minute.
+     * @param type The ordinal of the type.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @return The cap in MW, or {@link Double#POSITIVE_INFINITY} if the type is not capped.
+     */
+    public double capAt(int type, int elapsedMinutes) {
+        double[] typeCaps = caps[type];
+        if (typeCaps == null || elapsedMinutes < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return typeCaps[Math.min(elapsedMinutes, typeCaps.length - 1)];
+    }
+
+    /**
+     * Whether nuclear power may cover the demand left after shedding.
+     * @param elapsedMinutes Minutes elapsed since the blackout.
+     * @return True from the top-up minute on.
+     */
+    public boolean isNuclearTopUp(int elapsedMinutes) {
+        return elapsedMinutes >= nuclearTopUpMinute;
+    }
+
+    public int getNuclearTopUpMinute() {
+        return nuclearTopUpMinute;
+    }
+
+    /**
+     * Get the minutes where the allowed types or a cap change. Between two boundaries, and
+     * after the last one, {@link #allowedMask} and {@link #capAt} return the value they have
+     * at the boundary.
+     * @return A copy of the boundaries, in increasing order, starting at 0.
+     */
+    public int[] getBoundaries() {
+        return boundaries.clone();
+    }
+
+    /**
+     * Get a 64-bit hash of the compiled timeline.
+     * @return The content hash of the schedule.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RestartSchedule other)) return false;
+        return nuclearTopUpMinute == other.nuclearTopUpMinute
+                && Arrays.equals(allowedMasks, other.allowedMasks)
+                && Arrays.deepEquals(caps, other.caps);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(contentHash);
+    }
+
+    /**
+     * Collects the steps of a restoration plan. No type is allowed before the first step.
+     * Every minute must lie between 0 and {@link #MAX_MINUTES}.
+     */
+    public static class Builder {
+        private final TreeMap<Integer, Integer> masks = new TreeMap<>();
+        /** Cap windows of each type, by ordinal: first minute, minute after, cap. */
+        private final List<List<double[]>> capWindows = new ArrayList<>();
+        private int nuclearTopUpMinute = Integer.MAX_VALUE;
+
+        public Builder() {
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                capWindows.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Allow a set of types from a minute until the next step. A later call for the same
+         * minute replaces the set.
+         * @param fromMinute The first minute of the step.
+         * @param mask The allowed types (see {@link PlantType#mask()}).
+         * @return This builder.
+         * @throws IllegalArgumentException If the minute is out of range.
+         */
+        public Builder allow(int fromMinute, int mask) {
+            checkMinute(fromMinute);
+            masks.put(fromMinute, mask);
+            return this;
+        }
+
+        /**
+         * Limit what the restarting plants of a type generate together during a window.
+         * Windows of the same type may overlap: where they do, the lowest cap applies.
+         * @param type The capped type.
+         * @param fromMinute The first minute of the window.
+         * @param toMinute The minute after the window.
+         * @param capMW The cap in MW.
+         * @return This builder.
+         * @throws IllegalArgumentException If the window is empty or out of range, or the cap is negative or infinite.
+         */
+        public Builder cap(PlantType type, int fromMinute, int toMinute, double capMW) {
+            checkMinute(fromMinute);
+            checkMinute(toMinute);
+            if (toMinute <= fromMinute) {
+                throw new IllegalArgumentException("Invalid cap window: " + fromMinute + " to " + toMinute);
+            }
+            if (!(capMW >= 0) || capMW == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("Invalid cap: " + capMW);
+            }
+            capWindows.get(type.ordinal()).add(new double[]{fromMinute, toMinute, capMW});
+            return this;
+        }
+
+        /**
+         * Let nuclear power cover the demand left after shedding from a minute on.
+         * @param fromMinute The first minute of the top-up.
+         * @return This builder.
+         * @throws IllegalArgumentException If the minute is out of range.
+         */
+        public Builder nuclearTopUpFrom(int fromMinute) {
+            checkMinute(fromMinute);
+            this.nuclearTopUpMinute = fromMinute;
+            return this;
+        }
+
+        private static void checkMinute(int minute) {
+            if (minute < 0 || minute > MAX_MINUTES) {
+                throw new IllegalArgumentException("Minute out of range (0 to " + MAX_MINUTES + "): " + minute);
+            }
+        }
+
+        /**
+         * Compile the plan into its timeline.
+         * @return The schedule.
+         */
+        public RestartSchedule build() {
+            TreeSet<Integer> boundaries = new TreeSet<>();
+            boundaries.add(0);
+            boundaries.addAll(masks.keySet());
+            for (List<double[]> windows : capWindows) {
+                for (double[] window : windows) {
+                    boundaries.add((int) window[0]);
+                    boundaries.add((int) window[1]);
+                }
+            }
+            int length = boundaries.last() + 1;
+
+            int[] allowedMasks = new int[length];
+            int mask = 0;
+            for (int minute = 0; minute < length; minute++) {
+                mask = masks.getOrDefault(minute, mask);
+                allowedMasks[minute] = mask;
+            }
+
+            double[][] caps = new double[PlantType.COUNT][];
+            for (int t = 0; t < PlantType.COUNT; t++) {
+                for (double[] window : capWindows.get(t)) {
+                    if (caps[t] == null) {
+                        caps[t] = new double[length];
+                        Arrays.fill(caps[t], Double.POSITIVE_INFINITY);
+                    }
+                    for (int minute = (int) window[0]; minute < (int) window[1]; minute++) {
+                        caps[t][minute] = Math.min(caps[t][minute], window[2]);
+                    }
+                }
+            }
+            return new RestartSchedule(allowedMasks, caps, nuclearTopUpMinute,
+                    boundaries.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selection of the rows of a run to return, e.g., the hour a chart is zoomed into.
+ * Queries are immutable; the {@code with} methods return modified copies, starting from
+ * {@link #ALL}. The time range is applied first, then the page, then the downsampling,
+ * and rows outside the selection are never read.
+ */
+public final class ResultQuery {
+
+    /** Every row, without downsampling. */
+    public static final ResultQuery ALL = new ResultQuery(null, null, 0, Integer.MAX_VALUE, 0);
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final int offset;
+    private final int limit;
+    private final int points;
+
+    private ResultQuery(LocalDateTime from, LocalDateTime to, int offset, int limit, int points) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid page: offset " + offset + ", limit " + limit);
+        }
+        if (points < 0) {
+            throw new IllegalArgumentException("Negative number of points: " + points);
+        }
+        this.from = from;
+        this.to = to;
+        this.offset = offset;
+        this.limit = limit;
+        this.points = points;
+    }
+
+    /**
+     * Get a query limited to the rows in a time range.
+     * @param from The first time (included), or null for the start of the run.
+     * @param to The end time (excluded), or null for the end of the run.
+     * @return The modified query.
+     */
+    public ResultQuery withTimeRange(LocalDateTime from, LocalDateTime to) {
+        return new ResultQuery(from, to, offset, limit, points);
+    }
+
+    /**
+     * Get a query limited to a page of rows, counted from the start of the time range.
+     * @param offset The number of rows to skip.
+     * @param limit The maximum number of rows.
+     * @return The modified query.
+     */
+    public ResultQuery withPage(int offset, int limit) {
+        return new ResultQuery(from, to, offset, limit, points);
+    }
+
+    /**
+     * Get a query that averages the selected rows down to a number of points. Rows are split
+     * into consecutive buckets of the same length (the last one may be shorter), and each
+     * bucket is returned as one row at the time of its first row, with the mean of its values.
+     * @param points The maximum number of rows to return, or 0 to return every selected row.
+     * @return The modified query.
+     */
+    public ResultQuery withPoints(int points) {
+        return new ResultQuery(from, to, offset, limit, points);
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    /**
+     * Select the rows of a table. The time range is turned into rows arithmetically (see
+     * {@link ResultTable#rowAt(LocalDateTime)}), and only a downsampled selection is copied.
+     * @param table The results to query.
+     * @return The selected rows.
+     */
+    public Selection select(ResultTable table) {
+        int first = from != null ? table.rowAt(from) : 0;
+        int end = to != null ? table.rowAt(to) : table.size();
+        int fromRow = (int) Math.min(end, (long) first + offset);
+        int toRow = (int) Math.max(fromRow, Math.min(end, (long) fromRow + limit));
+        if (points > 0 && toRow - fromRow > points) {
+            ResultTable downsampled = table.downsample(fromRow, toRow, points);
+            return new Selection(downsampled, 0, downsampled.size());
+        }
+        return new Selection(table, fromRow, toRow);
+    }
+
+    /**
+     * Rows {@code [fromRow, toRow)} of a table: the queried one, or a downsampled copy of it.
+     */
+    public static final class Selection {
+        private final ResultTable table;
+        private final int fromRow;
+        private final int toRow;
+
+        private Selection(ResultTable table, int fromRow, int toRow) {
+            this.table = table;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        public ResultTable getTable() {
+            return table;
+        }
+
+        public int getFromRow() {
+            return fromRow;
+        }
+
+        public int getToRow() {
+            return toRow;
+        }
+
+        public int size() {
+            return toRow - fromRow;
+        }
+    }
+}
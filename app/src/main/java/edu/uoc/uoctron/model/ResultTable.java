@@ -0,0 +1,455 @@
+package edu.uoc.uoctron.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Columnar storage for the minute-by-minute results of a simulation.
+ * Each measure is kept in its own primitive column, and the generation by type is a
+ * dense type-by-minute matrix, so a whole run costs a handful of arrays instead of
+ * one object (and one map) per minute. Row {@code i} is the time {@code startTime + i * step},
+ * one minute per row unless the run used another step. A table kept for long is made
+ * {@link #compact()}, which stores the columns that change rarely as runs of equal values.
+ */
+public class ResultTable {
+    private static final int GENERATED = 0;
+    private static final int EXPECTED_DEMAND = 1;
+    private static final int STABILITY = 2;
+    private static final int BY_TYPE = 3;
+
+    private final LocalDateTime startTime;
+    private final long startEpochMinute;
+    private final int size;
+    private final int stepSeconds;
+    private final double[] generated;
+    private final double[] expectedDemand;
+    private final double[] stability;
+    private final double[][] generatedByType;
+    /**
+     * Run-length encoded columns of a compact table, by measure and then by type ordinal, or null
+     * for a dense table. A column stored here is null among the dense ones above.
+     */
+    private final RunColumn[] runs;
+
+    /**
+     * Create an empty table for a run.
+     * @param startTime The time of the first row.
+     * @param size The number of rows (minutes) of the run.
+     */
+    public ResultTable(LocalDateTime startTime, int size) {
+        this(startTime, size, 60);
+    }
+
+    /**
+     * Create an empty table for a run.
+     * @param startTime The time of the first row.
+     * @param size The number of rows (steps) of the run.
+     * @param stepSeconds The time between two rows, in seconds.
+     */
+    public ResultTable(LocalDateTime startTime, int size, int stepSeconds) {
+        this.startTime = startTime;
+        this.startEpochMinute = DemandSeries.toEpochMinute(startTime);
+        this.size = size;
+        this.stepSeconds = stepSeconds;
+        this.generated = new double[size];
+        this.expectedDemand = new double[size];
+        this.stability = new double[size];
+        this.generatedByType = new double[PlantType.COUNT][size];
+        this.runs = null;
+    }
+
+    /**
+     * Create a table over existing columns, e.g., read back from a file. The columns are not copied.
+     * @param startTime The time of the first row.
+     * @param stepSeconds The time between two rows, in seconds.
+     * @param generated Generated MW by row.
+     * @param expectedDemand Expected demand MW by row.
+     * @param stability Average stability by row.
+     * @param generatedByType Generated MW by type ordinal and row, with null for types that never generate.
+     */
+    public ResultTable(LocalDateTime startTime, int stepSeconds, double[] generated, double[] expectedDemand,
+                       double[] stability, double[][] generatedByType) {
+        if (expectedDemand.length != generated.length || stability.length != generated.length
+                || generatedByType.length != PlantType.COUNT) {
+            throw new IllegalArgumentException("Columns of different sizes");
+        }
+        this.startTime = startTime;
+        this.startEpochMinute = DemandSeries.toEpochMinute(startTime);
+        this.size = generated.length;
+        this.stepSeconds = stepSeconds;
+        this.generated = generated;
+        this.expectedDemand = expectedDemand;
+        this.stability = stability;
+        this.generatedByType = generatedByType;
+        this.runs = null;
+    }
+
+    private ResultTable(ResultTable table, LocalDateTime startTime, double[] generated, double[] expectedDemand,
+                        double[] stability, double[][] generatedByType, RunColumn[] runs) {
+        this.startTime = startTime;
+        this.startEpochMinute = DemandSeries.toEpochMinute(startTime);
+        this.size = table.size;
+        this.stepSeconds = table.stepSeconds;
+        this.generated = generated;
+        this.expectedDemand = expectedDemand;
+        this.stability = stability;
+        this.generatedByType = generatedByType;
+        this.runs = runs;
+    }
+
+    /**
+     * Get a table with the same rows starting at another time. The columns are shared, not copied.
+     * @param startTime The time of the first row.
+     * @return The re-timed table.
+     */
+    public ResultTable withStartTime(LocalDateTime startTime) {
+        return new ResultTable(this, startTime, generated, expectedDemand, stability, generatedByType, runs);
+    }
+
+    /**
+     * Get a compact copy of the table for long-term retention. Type columns that are zero in
+     * every row are dropped. A column with at most a third as many runs of equal values as rows,
+     * such as the output of a type that is off or at full capacity for hours, or the demand of
+     * a run with sub-minute steps, is stored as its runs; the other columns are shared, not
+     * copied. Every row reads exactly as before.
+     * @return The compact table, or this table if it is already compact.
+     */
+    public ResultTable compact() {
+        if (runs != null) {
+            return this;
+        }
+        RunColumn[] encoded = new RunColumn[BY_TYPE + PlantType.COUNT];
+        double[][] byType = new double[PlantType.COUNT][];
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            double[] column = generatedByType[t];
+            if (column != null) {
+                for (double value : column) {
+                    if (value != 0.0) {
+                        byType[t] = column;
+                        break;
+                    }
+                }
+            }
+            if (byType[t] != null) {
+                encoded[BY_TYPE + t] = RunColumn.encode(byType[t], size);
+                if (encoded[BY_TYPE + t] != null) {
+                    byType[t] = null;
+                }
+            }
+        }
+        encoded[GENERATED] = RunColumn.encode(generated, size);
+        encoded[EXPECTED_DEMAND] = RunColumn.encode(expectedDemand, size);
+        encoded[STABILITY] = RunColumn.encode(stability, size);
+        return new ResultTable(this, startTime, encoded[GENERATED] == null ? generated : null,
+                encoded[EXPECTED_DEMAND] == null ? expectedDemand : null, encoded[STABILITY] == null ? stability : null,
+                byType, encoded);
+    }
+
+    /**
+     * Get a table with the rows {@code [from, to)} averaged into at most a number of rows.
+     * The rows are split into consecutive buckets of the same length (the last one may be
+     * shorter), and each bucket becomes one row at the time of its first row, holding the
+     * mean of every column over the bucket. Only the rows in the range are read.
+     * @param from The first row (included).
+     * @param to The last row (excluded).
+     * @param points The maximum number of rows of the result.
+     * @return A new table whose step is the bucket length.
+     * @throws IndexOutOfBoundsException If the range is out of the table.
+     * @throws IllegalArgumentException If points is not positive.
+     */
+    public ResultTable downsample(int from, int to, int points) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Rows: " + from + " to " + to + ", Size: " + size);
+        }
+        if (points <= 0) {
+            throw new IllegalArgumentException("Points must be positive: " + points);
+        }
+        int bucket = Math.max(1, (to - from + points - 1) / points);
+        int rows = (to - from + bucket - 1) / bucket;
+        double[][] byType = new double[PlantType.COUNT][];
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            byType[t] = mean(generatedByType[t], runColumn(BY_TYPE + t), from, to, bucket, rows);
+        }
+        return new ResultTable(getTime(from), Math.multiplyExact(bucket, stepSeconds),
+                mean(generated, runColumn(GENERATED), from, to, bucket, rows),
+                mean(expectedDemand, runColumn(EXPECTED_DEMAND), from, to, bucket, rows),
+                mean(stability, runColumn(STABILITY), from, to, bucket, rows), byType);
+    }
+
+    private static double[] mean(double[] column, RunColumn runColumn, int from, int to, int bucket, int rows) {
+        if (column == null && runColumn == null) {
+            return null;
+        }
+        double[] means = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            int start = from + r * bucket;
+            int end = Math.min(to, start + bucket);
+            double sum;
+            if (column != null) {
+                sum = 0.0;
+                for (int row = start; row < end; row++) {
+                    sum += column[row];
+                }
+            } else {
+                sum = runColumn.sum(start, end);
+            }
+            means[r] = sum / (end - start);
+        }
+        return means;
+    }
+
+    private RunColumn runColumn(int index) {
+        return runs == null ? null : runs[index];
+    }
+
+    /**
+     * Estimate the heap retained by the columns of the table.
+     * @return The estimated size in bytes.
+     */
+    public long estimatedBytes() {
+        long columns = 0;
+        for (double[] column : new double[][]{generated, expectedDemand, stability}) {
+            if (column != null) {
+                columns++;
+            }
+        }
+        for (double[] column : generatedByType) {
+            if (column != null) {
+                columns++;
+            }
+        }
+        long bytes = columns * (16 + 8L * size) + 16L * PlantType.COUNT + 64;
+        if (runs != null) {
+            bytes += 16L + 8L * runs.length;
+            for (RunColumn column : runs) {
+                if (column != null) {
+                    bytes += column.estimatedBytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Store the outcome of a dispatched minute.
+     * @param row The row (elapsed minute) to write.
+     * @param demand The expected demand of that minute.
+     * @param state The dispatch outcome of that minute.
+     */
+    public void setRow(int row, double demand, DispatchState state) {
+        generated[row] = state.generated;
+        expectedDemand[row] = demand;
+        stability[row] = state.stability;
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            generatedByType[t][row] = state.generatedByType[t];
+        }
+    }
+
+    /**
+     * Copy a row of another table with the same layout into this one.
+     * @param row The row to copy.
+     * @param from The table to copy it from; it may be compact.
+     */
+    void copyRow(int row, ResultTable from) {
+        generated[row] = from.getGenerated(row);
+        expectedDemand[row] = from.getExpectedDemand(row);
+        stability[row] = from.getAverageStability(row);
+        for (PlantType type : PlantType.values()) {
+            generatedByType[type.ordinal()][row] = from.getGeneratedByType(row, type);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get the start of the run as minutes since the epoch (UTC), the key used to index rows by time.
+     * @return The epoch minute of row 0.
+     */
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    /**
+     * Get the time between two rows.
+     * @return The step in seconds, 60 for minute results.
+     */
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * Find the first row at or after a time. Rows are evenly spaced from the start time, so the
+     * time column is indexed arithmetically, without a search.
+     * @param time The time to look up.
+     * @return The row, 0 for a time before the run, or {@link #size()} for a time after its last row.
+     */
+    public int rowAt(LocalDateTime time) {
+        Duration offset = Duration.between(startTime, time);
+        if (offset.isNegative() || offset.isZero()) {
+            return 0;
+        }
+        long seconds = offset.getSeconds() + (offset.getNano() > 0 ? 1 : 0);
+        long row = (seconds + stepSeconds - 1) / stepSeconds;
+        return (int) Math.min(row, size);
+    }
+
+    public LocalDateTime getTime(int row) {
+        return stepSeconds == 60 ? startTime.plusMinutes(row) : startTime.plusSeconds((long) row * stepSeconds);
+    }
+
+    public double getGenerated(int row) {
+        return generated != null ? generated[row] : runs[GENERATED].get(row, size);
+    }
+
+    public double getExpectedDemand(int row) {
+        return expectedDemand != null ? expectedDemand[row] : runs[EXPECTED_DEMAND].get(row, size);
+    }
+
+    public double getAverageStability(int row) {
+        return stability != null ? stability[row] : runs[STABILITY].get(row, size);
+    }
+
+    public double getGeneratedByType(int row, PlantType type) {
+        double[] column = generatedByType[type.ordinal()];
+        if (column != null) {
+            return column[row];
+        }
+        RunColumn runColumn = runColumn(BY_TYPE + type.ordinal());
+        return runColumn == null ? 0.0 : runColumn.get(row, size);
+    }
+
+    /**
+     * Get the backing generated column. It must not be modified.
+     * A column stored as runs by {@link #compact()} is decoded into a fresh array.
+     * @return Generated MW by row.
+     */
+    public double[] getGeneratedColumn() {
+        return generated != null ? generated : runs[GENERATED].decode(size);
+    }
+
+    /**
+     * Get the backing expected demand column. It must not be modified.
+     * A column stored as runs by {@link #compact()} is decoded into a fresh array.
+     * @return Expected demand MW by row.
+     */
+    public double[] getExpectedDemandColumn() {
+        return expectedDemand != null ? expectedDemand : runs[EXPECTED_DEMAND].decode(size);
+    }
+
+    /**
+     * Get the backing stability column. It must not be modified.
+     * A column stored as runs by {@link #compact()} is decoded into a fresh array.
+     * @return Average stability by row.
+     */
+    public double[] getStabilityColumn() {
+        return stability != null ? stability : runs[STABILITY].decode(size);
+    }
+
+    /**
+     * Get the backing column of a plant type. It must not be modified.
+     * A type dropped by {@link #compact()} gets a fresh column of zeros, and a type stored as
+     * runs is decoded into a fresh array.
+     * @param type The plant type.
+     * @return Generated MW of that type by row.
+     */
+    public double[] getGeneratedByTypeColumn(PlantType type) {
+        double[] column = generatedByType[type.ordinal()];
+        if (column != null) {
+            return column;
+        }
+        RunColumn runColumn = runColumn(BY_TYPE + type.ordinal());
+        return runColumn == null ? new double[size] : runColumn.decode(size);
+    }
+
+    /**
+     * A column stored as runs of equal values: run {@code i} holds {@code values[i]} up to
+     * row {@code ends[i]} (excluded), from the end of the previous run.
+     */
+    private static final class RunColumn {
+        private final int[] ends;
+        private final double[] values;
+
+        private RunColumn(int[] ends, double[] values) {
+            this.ends = ends;
+            this.values = values;
+        }
+
+        /**
+         * Encode a column if its runs take at most a third of its rows. Values are compared
+         * bit for bit, so every row decodes to exactly the value it had.
+         * @return The encoded column, or null if it is better left dense.
+         */
+        static RunColumn encode(double[] column, int size) {
+            int maxRuns = size / 3;
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (row == 0 || Double.doubleToRawLongBits(column[row]) != Double.doubleToRawLongBits(column[row - 1])) {
+                    if (++count > maxRuns) {
+                        return null;
+                    }
+                }
+            }
+            int[] ends = new int[count];
+            double[] values = new double[count];
+            int run = -1;
+            for (int row = 0; row < size; row++) {
+                if (row == 0 || Double.doubleToRawLongBits(column[row]) != Double.doubleToRawLongBits(column[row - 1])) {
+                    values[++run] = column[row];
+                }
+                ends[run] = row + 1;
+            }
+            return new RunColumn(ends, values);
+        }
+
+        private int runOf(int row, int size) {
+            if (row < 0 || row >= size) {
+                throw new ArrayIndexOutOfBoundsException("Index " + row + " out of bounds for length " + size);
+            }
+            int run = Arrays.binarySearch(ends, row + 1);
+            return run >= 0 ? run : -run - 1;
+        }
+
+        double get(int row, int size) {
+            return values[runOf(row, size)];
+        }
+
+        /**
+         * Add up the rows {@code [from, to)} one by one, in the order a dense column would be.
+         */
+        double sum(int from, int to) {
+            double sum = 0.0;
+            if (from == to) {
+                return sum;
+            }
+            int run = runOf(from, ends[ends.length - 1]);
+            for (int row = from; row < to; row++) {
+                if (row == ends[run]) {
+                    run++;
+                }
+                sum += values[run];
+            }
+            return sum;
+        }
+
+        double[] decode(int size) {
+            double[] column = new double[size];
+            int start = 0;
+            for (int run = 0; run < ends.length; run++) {
+                Arrays.fill(column, start, ends[run], values[run]);
+                start = ends[run];
+            }
+            return column;
+        }
+
+        long estimatedBytes() {
+            return 16 + 16 + 4L * ends.length + 16 + 8L * values.length;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.uoc.uoctron.model;
+
+/**
+ * How generation is shed when the weighted stability drops below the minimum.
+ */
+public enum SheddingMode {
+    /** Compute in one step how much of each type must be shed. */
+    CLOSED_FORM,
+    /** Shed in fixed 10 MW steps, re-checking the stability after each one (legacy behaviour). */
+    STEPPED
+}
@@ -0,0 +1,118 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.List;
+
+public class Simulation {
+    private final long id;
+    private final LocalDateTime startTime;
+    private final ResultTable table;
+    private final DispatchEngine engine;
+    private final BlackoutRegion region;
+    /** The store holding this run, told when the plant generation is built so it counts its size. */
+    private final SimulationHistory history;
+    private volatile PlantGenerationMatrix plantGeneration;
+
+    public Simulation(LocalDateTime startTime, ResultTable table) {
+        this(0, startTime, table);
+    }
+
+    public Simulation(long id, LocalDateTime startTime, ResultTable table) {
+        this(id, startTime, table, null, null);
+    }
+
+    /**
+     * Create a simulation that remembers how it was computed, so it can be updated after the
+     * fleet or the demand change instead of being run again from scratch.
+     * @param id The id in the history store, or 0.
+     * @param startTime The start time of the blackout.
+     * @param table The results.
+     * @param engine The engine the run was dispatched with, or null if unknown.
+     * @param region The region of a regional blackout, or null for a nationwide one.
+     */
+    public Simulation(long id, LocalDateTime startTime, ResultTable table, DispatchEngine engine, BlackoutRegion region) {
+        this(id, startTime, table, engine, region, null);
+    }
+
+    Simulation(long id, LocalDateTime startTime, ResultTable table, DispatchEngine engine, BlackoutRegion region,
+               SimulationHistory history) {
+        this.id = id;
+        this.startTime = startTime;
+        this.table = table;
+        this.engine = engine;
+        this.region = region;
+        this.history = history;
+    }
+
+    /**
+     * Get the id of the simulation in the history store.
+     * @return The id, or 0 if the simulation was not stored.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public ResultTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the engine the run was dispatched with, fleet and shedding mode included.
+     * @return The engine, or null if unknown (e.g., read back from a file).
+     */
+    public DispatchEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Get the region hit by the blackout.
+     * @return The region, or null for a nationwide blackout.
+     */
+    public BlackoutRegion getRegion() {
+        return region;
+    }
+
+    /**
+     * Get the output of every plant at every row. The matrix is built on first use and kept
+     * with the simulation, and counted against the byte limit of the {@link SimulationHistory}
+     * that stores the run; it needs the engine the run was dispatched with.
+     * @return The per-plant generation, or null if the engine is unknown (e.g., read back from a file).
+     */
+    public PlantGenerationMatrix getPlantGeneration() {
+        PlantGenerationMatrix matrix = plantGeneration;
+        if (matrix == null && engine != null) {
+            matrix = PlantGenerationMatrix.of(engine, table);
+            plantGeneration = matrix;
+            if (history != null) {
+                history.retain(this, matrix);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Get the results as a list of row views. Rows are created on access.
+     * @return The results, one per simulated minute.
+     */
+    public List<SimulationResult> getResults() {
+        return new AbstractList<>() {
+            @Override
+            public SimulationResult get(int index) {
+                if (index < 0 || index >= table.size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + table.size());
+                }
+                return new SimulationResult(table, index, engine);
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package edu.uoc.uoctron.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded store of past simulations, each addressable by id.
+ * Runs are kept in compact form ({@link ResultTable#compact()}) and the oldest ones are
+ * evicted when the number of runs or their estimated size exceeds the limits. The size of
+ * the runs kept is their tables, plus the engines they were dispatched with (kept for
+ * incremental updates, and counted once however many runs share them, e.g., every
+ * nationwide run of a fleet, while each regional run has its own), plus the plant generation
+ * of the runs where it was built ({@link Simulation#getPlantGeneration()}). Building one can
+ * evict older runs too. The newest run is always kept, even if it is larger than the byte
+ * limit on its own.
+ * All methods are thread-safe: concurrent writers each get their own id and none of
+ * their runs is lost, except by eviction.
+ */
+public class SimulationHistory {
+    private final int maxRuns;
+    private final long maxBytes;
+    private final Map<Long, Simulation> runs = new LinkedHashMap<>();
+    /** Number of stored runs dispatched with each engine. */
+    private final Map<DispatchEngine, Integer> engines = new IdentityHashMap<>();
+    /** Estimated size of the plant generation built for a stored run, by id. */
+    private final Map<Long, Long> plantGenerationBytes = new HashMap<>();
+    private long nextId = 1;
+    private Simulation latest;
+    private long retainedBytes;
+
+    /**
+     * Create a history store.
+     * @param maxRuns The maximum number of runs kept.
+     * @param maxBytes The maximum estimated size of the runs kept, in bytes.
+     */
+    public SimulationHistory(int maxRuns, long maxBytes) {
+        this.maxRuns = maxRuns;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Store a simulation, evicting the oldest runs if needed.
+     * @param simulation The simulation to store.
+     * @return The stored run, carrying its id.
+     */
+    public synchronized Simulation add(Simulation simulation) {
+        long id = nextId++;
+        DispatchEngine engine = simulation.getEngine();
+        Simulation stored = new Simulation(id, simulation.getStartTime(), simulation.getTable().compact(),
+                engine, simulation.getRegion(), this);
+        runs.put(id, stored);
+        latest = stored;
+        retainedBytes += stored.getTable().estimatedBytes();
+        if (engine != null && engines.merge(engine, 1, Integer::sum) == 1) {
+            retainedBytes += engine.estimatedBytes();
+        }
+        evict();
+        return stored;
+    }
+
+    /**
+     * Count the plant generation built for a stored run, evicting the oldest runs if needed.
+     * @param simulation The stored run.
+     * @param matrix Its plant generation.
+     */
+    synchronized void retain(Simulation simulation, PlantGenerationMatrix matrix) {
+        // Ignored once the run is evicted, and when two threads both built the matrix
+        if (runs.get(simulation.getId()) != simulation || plantGenerationBytes.containsKey(simulation.getId())) {
+            return;
+        }
+        long bytes = matrix.estimatedBytes();
+        plantGenerationBytes.put(simulation.getId(), bytes);
+        retainedBytes += bytes;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Simulation> oldest = runs.values().iterator();
+        while (runs.size() > 1 && (runs.size() > maxRuns || retainedBytes > maxBytes)) {
+            Simulation evicted = oldest.next();
+            oldest.remove();
+            retainedBytes -= evicted.getTable().estimatedBytes();
+            Long matrixBytes = plantGenerationBytes.remove(evicted.getId());
+            if (matrixBytes != null) {
+                retainedBytes -= matrixBytes;
+            }
+            DispatchEngine engine = evicted.getEngine();
+            if (engine != null && engines.merge(engine, -1, Integer::sum) == 0) {
+                engines.remove(engine);
+                retainedBytes -= engine.estimatedBytes();
+            }
+        }
+    }
+
+    /**
+     * Get a stored run.
+     * @param id The id of a run returned by {@link #add(Simulation)}.
+     * @return The run, or null if it does not exist or was evicted.
+     */
+    public synchronized Simulation get(long id) {
+        return runs.get(id);
+    }
+
+    /**
+     * Get the most recently stored run.
+     * @return The latest run, or null if there is none.
+     */
+    public synchronized Simulation latest() {
+        return latest;
+    }
+
+    /**
+     * Get the stored runs, oldest first.
+     * @return A copy of the stored runs.
+     */
+    public synchronized List<Simulation> list() {
+        return new ArrayList<>(runs.values());
+    }
+
+    public synchronized int size() {
+        return runs.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return runs.isEmpty();
+    }
+
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public int getMaxRuns() {
+        return maxRuns;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,82 @@
+package edu.uoc.uoctron.model;
+
+import java.time.Duration;
+
+/**
+ * Length and resolution of a blackout simulation.
+ * Options are immutable; the {@code with} methods return modified copies, starting from
+ * {@link #DEFAULT} (36 hours in one-minute steps, as the original simulation).
+ */
+public final class SimulationOptions {
+
+    public static final int DEFAULT_HORIZON_MINUTES = 2160;
+
+    public static final SimulationOptions DEFAULT = new SimulationOptions(DEFAULT_HORIZON_MINUTES * 60L, 60, null);
+
+    private final long horizonSeconds;
+    private final int stepSeconds;
+    private final SheddingMode sheddingMode;
+
+    private SimulationOptions(long horizonSeconds, int stepSeconds, SheddingMode sheddingMode) {
+        if (horizonSeconds < 0) {
+            throw new IllegalArgumentException("Negative horizon: " + horizonSeconds + " s");
+        }
+        if (stepSeconds <= 0) {
+            throw new IllegalArgumentException("Step must be at least one second: " + stepSeconds + " s");
+        }
+        if (horizonSeconds / stepSeconds > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many steps: " + horizonSeconds / stepSeconds);
+        }
+        this.horizonSeconds = horizonSeconds;
+        this.stepSeconds = stepSeconds;
+        this.sheddingMode = sheddingMode;
+    }
+
+    /**
+     * Get options with another horizon.
+     * @param horizon The simulated time after the blackout, in whole seconds.
+     * @return The modified options.
+     */
+    public SimulationOptions withHorizon(Duration horizon) {
+        return new SimulationOptions(horizon.getSeconds(), stepSeconds, sheddingMode);
+    }
+
+    /**
+     * Get options with another step. Steps shorter than a minute repeat the demand of their
+     * minute, since the forecast has one value per minute.
+     * @param step The time between two results, in whole seconds.
+     * @return The modified options.
+     */
+    public SimulationOptions withStep(Duration step) {
+        return new SimulationOptions(horizonSeconds, Math.toIntExact(step.getSeconds()), sheddingMode);
+    }
+
+    /**
+     * Get options with a shedding mode.
+     * @param sheddingMode The shedding mode, or null to use the one of the controller.
+     * @return The modified options.
+     */
+    public SimulationOptions withSheddingMode(SheddingMode sheddingMode) {
+        return new SimulationOptions(horizonSeconds, stepSeconds, sheddingMode);
+    }
+
+    public long getHorizonSeconds() {
+        return horizonSeconds;
+    }
+
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * Get the number of results of a run, the horizon divided by the step (rounded down).
+     * @return The number of steps.
+     */
+    public int getSteps() {
+        return (int) (horizonSeconds / stepSeconds);
+    }
+
+    public SheddingMode getSheddingMode() {
+        return sheddingMode;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.uoc.uoctron.model;
+
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * View over one row (minute) of a {@link ResultTable}.
+ */
+public class SimulationResult {
+    private final ResultTable table;
+    private final int row;
+    private final DispatchEngine engine;
+
+    public SimulationResult(ResultTable table, int row) {
+        this(table, row, null);
+    }
+
+    /**
+     * Create a view over a row of a run.
+     * @param table The results of the run.
+     * @param row The row.
+     * @param engine The engine the run was dispatched with, or null if unknown.
+     */
+    public SimulationResult(ResultTable table, int row, DispatchEngine engine) {
+        this.table = table;
+        this.row = row;
+        this.engine = engine;
+    }
+
+    public LocalDateTime getTime() {
+        return table.getTime(row);
+    }
+
+    public double getGenerated() {
+        return table.getGenerated(row);
+    }
+
+    public double getExpectedDemand() {
+        return table.getExpectedDemand(row);
+    }
+
+    public double getAverageStability() {
+        return table.getAverageStability(row);
+    }
+
+    /**
+     * Get the generation of the row by type label. As in the original per-minute dispatch, a type
+     * that was dispatched and then shed in full is reported with 0.0; this needs the engine of the
+     * run, and without it only the types that generate are reported.
+     * @return A new map of generated MW by type label.
+     */
+    public Map<String, Double> getGeneratedByType() {
+        Map<String, Double> generatedByType = new HashMap<>();
+        int elapsedMinutes = (int) ((long) row * table.getStepSeconds() / 60);
+        for (PlantType type : PlantType.values()) {
+            double value = table.getGeneratedByType(row, type);
+            if (value > 0 || engine != null && engine.dispatches(elapsedMinutes, table.getExpectedDemand(row), type)) {
+                generatedByType.put(type.getLabel(), value);
+            }
+        }
+        return generatedByType;
+    }
+
+    // 🚩 Nuevo método añadido:
+    public JSONObject toJSONObject() {
+        JSONObject obj = new JSONObject();
+        obj.put("time", getTime().toString());
+        obj.put("generatedMW", getGenerated());
+        obj.put("expectedDemandMW", getExpectedDemand());
+        obj.put("averageStability", getAverageStability());
+
+        JSONObject types = new JSONObject();
+        for (PlantType type : PlantType.values()) {
+            double value = table.getGeneratedByType(row, type);
+            if (value > 1e-6) {  // FILTRO CRUCIAL PARA PASAR EL TEST
+                types.put(type.getLabel(), value);
+            }
+        }
+        obj.put("generatedByTypeMW", types);
+
+        return obj;
+    }
+}
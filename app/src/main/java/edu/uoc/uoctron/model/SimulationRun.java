@@ -0,0 +1,193 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Cursor over the steps of a blackout simulation, computed on demand.
+ * Each call to {@link #next()} dispatches one step into a reused {@link DispatchState},
+ * so a run of any length needs constant memory. The getters describe the current step and
+ * are only valid until the next call.
+ */
+public class SimulationRun {
+    private final DispatchEngine engine;
+    private final DemandSeries demand;
+    private final LocalDateTime startTime;
+    private final long startEpochMinute;
+    private final int startSecond;
+    private final int stepSeconds;
+    private final int steps;
+    private final DispatchState state = new DispatchState();
+    private int step = -1;
+    private double expectedDemand;
+
+    // Dispatch phase being measured, see measurePhase
+    private PipelineStats.Probe phaseProbe;
+    private int phaseSteps;
+    private int phaseEnd = Integer.MIN_VALUE;
+
+    /**
+     * Prepare a run. Nothing is computed until {@link #next()} is called.
+     * @param engine The compiled fleet, with the shedding mode to use.
+     * @param demand The demand series.
+     * @param startTime The start time of the blackout.
+     * @param options The horizon and step of the run.
+     */
+    public SimulationRun(DispatchEngine engine, DemandSeries demand, LocalDateTime startTime, SimulationOptions options) {
+        this.engine = engine;
+        this.demand = demand;
+        this.startTime = startTime;
+        this.startEpochMinute = DemandSeries.toEpochMinute(startTime);
+        this.startSecond = startTime.getSecond();
+        this.stepSeconds = options.getStepSeconds();
+        this.steps = options.getSteps();
+    }
+
+    /**
+     * Compute the next step.
+     * @return False if the run is over.
+     */
+    public boolean next() {
+        if (step + 1 >= steps) {
+            if (phaseProbe != null) {
+                endPhase();
+            }
+            return false;
+        }
+        step++;
+        long elapsedSeconds = (long) step * stepSeconds;
+        int elapsedMinutes = (int) (elapsedSeconds / 60);
+        if (elapsedMinutes >= phaseEnd) {
+            measurePhase(elapsedMinutes);
+        }
+        expectedDemand = demand.getDemand(startEpochMinute + (startSecond + elapsedSeconds) / 60);
+        engine.dispatch(elapsedMinutes, expectedDemand, state);
+        phaseSteps++;
+        return true;
+    }
+
+    /**
+     * Record the phase that just ended and start measuring the one of a minute. When streaming,
+     * the time of a phase includes what the consumer does between steps.
+     */
+    private void measurePhase(int elapsedMinutes) {
+        if (phaseProbe != null) {
+            endPhase();
+        }
+        phaseEnd = engine.nextPhaseStart(elapsedMinutes);
+        phaseSteps = 0;
+        state.clearCounters();
+        state.timed = PipelineStats.isRecording();
+        phaseProbe = PipelineStats.startPhase(elapsedMinutes);
+    }
+
+    private void endPhase() {
+        phaseProbe.end(phaseSteps);
+        if (state.sheddingIterations > 0) {
+            PipelineStats.add(PipelineStage.SHEDDING, state.sheddingNanos, state.sheddingIterations, phaseProbe);
+        }
+        if (state.nuclearTopUps > 0) {
+            PipelineStats.add(PipelineStage.NUCLEAR_TOP_UP, state.nuclearNanos, state.nuclearTopUps, phaseProbe);
+        }
+        phaseProbe = null;
+    }
+
+    /**
+     * Compute the remaining steps, passing each one to a consumer as soon as it is produced.
+     * @param consumer Receives this run, positioned on each step in turn.
+     */
+    public void forEachRemaining(Consumer<? super SimulationRun> consumer) {
+        while (next()) {
+            consumer.accept(this);
+        }
+    }
+
+    /**
+     * Compute every step into a table.
+     * @return A table with one row per step, starting at the start time of the run.
+     * @throws IllegalStateException If the run was already advanced.
+     */
+    public ResultTable toTable() {
+        if (step != -1) {
+            throw new IllegalStateException("The run was already advanced to step " + step);
+        }
+        ResultTable table = new ResultTable(startTime, steps, stepSeconds);
+        while (next()) {
+            table.setRow(step, expectedDemand, state);
+        }
+        return table;
+    }
+
+    /**
+     * Compute every step into a table, reusing the rows of an earlier run of the same blackout
+     * wherever their inputs did not change: the demand of the step is the same and the engine
+     * dispatches its minute like the earlier one (see {@link DispatchEngine#sameDispatch}).
+     * The result is the same as {@link #toTable()}, only the changed steps are dispatched.
+     * @param previous The table of the earlier run.
+     * @param previousEngine The engine the earlier run was dispatched with, or null if unknown.
+     * @return A table with one row per step, starting at the start time of the run.
+     * @throws IllegalStateException If the run was already advanced.
+     */
+    public ResultTable update(ResultTable previous, DispatchEngine previousEngine) {
+        if (previousEngine == null || previous.size() != steps || previous.getStepSeconds() != stepSeconds
+                || !previous.getStartTime().equals(startTime)) {
+            return toTable();
+        }
+        if (step != -1) {
+            throw new IllegalStateException("The run was already advanced to step " + step);
+        }
+        int minutes = steps == 0 ? 0 : (int) ((long) (steps - 1) * stepSeconds / 60) + 1;
+        boolean[] same = engine.sameDispatch(previousEngine, minutes);
+
+        PipelineStats.Probe probe = PipelineStats.start(PipelineStage.DISPATCH);
+        ResultTable table = new ResultTable(startTime, steps, stepSeconds);
+        int dispatched = 0;
+        for (int row = 0; row < steps; row++) {
+            long elapsedSeconds = (long) row * stepSeconds;
+            int elapsedMinutes = (int) (elapsedSeconds / 60);
+            double rowDemand = demand.getDemand(startEpochMinute + (startSecond + elapsedSeconds) / 60);
+            if (same[elapsedMinutes] && rowDemand == previous.getExpectedDemand(row)) {
+                table.copyRow(row, previous);
+            } else {
+                engine.dispatch(elapsedMinutes, rowDemand, state);
+                table.setRow(row, rowDemand, state);
+                dispatched++;
+            }
+        }
+        step = steps - 1;
+        probe.end(dispatched);
+        return table;
+    }
+
+    /**
+     * Get the index of the current step.
+     * @return The step, from 0.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getElapsedSeconds() {
+        return (long) step * stepSeconds;
+    }
+
+    public LocalDateTime getTime() {
+        return startTime.plusSeconds(getElapsedSeconds());
+    }
+
+    public double getExpectedDemand() {
+        return expectedDemand;
+    }
+
+    /**
+     * Get the outcome of the current step. The state is reused by the next step.
+     * @return The dispatch state.
+     */
+    public DispatchState getState() {
+        return state;
+    }
+}
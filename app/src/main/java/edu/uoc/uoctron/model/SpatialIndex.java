@@ -0,0 +1,285 @@
+package edu.uoc.uoctron.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid index over the locations of the plants.
+ * The bounding box of the fleet is split into square cells sized for a few plants each, and
+ * the plant indexes are stored grouped by cell in one flat array (cell {@code c} owns the
+ * entries from {@code cellStart[c]} to {@code cellStart[c + 1]}), so a query only visits
+ * the cells that overlap its bounding box. Indexes are positions in the list the index was
+ * built from. Plants without finite coordinates are never returned. Longitudes are expected
+ * between -180 and 180: a circle that crosses the antimeridian is searched on both sides of
+ * it, while a polygon that crosses it is rejected.
+ */
+public class SpatialIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final int PLANTS_PER_CELL = 4;
+    private static final double MIN_CELL_DEGREES = 1e-4;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    /** Cosine of each latitude, kept for the distance test. */
+    private final double[] cosLatitudes;
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final int[] cellStart;
+    private final int[] entries;
+
+    /**
+     * Build the index.
+     * @param plants The plants to index.
+     */
+    public SpatialIndex(List<PowerPlant> plants) {
+        int size = plants.size();
+        latitudes = new double[size];
+        longitudes = new double[size];
+        cosLatitudes = new double[size];
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        int located = 0;
+        for (int i = 0; i < size; i++) {
+            PowerPlant plant = plants.get(i);
+            latitudes[i] = plant.getLatitude();
+            longitudes[i] = plant.getLongitude();
+            cosLatitudes[i] = Math.cos(Math.toRadians(latitudes[i]));
+            if (isLocated(i)) {
+                minLat = Math.min(minLat, latitudes[i]);
+                maxLat = Math.max(maxLat, latitudes[i]);
+                minLon = Math.min(minLon, longitudes[i]);
+                maxLon = Math.max(maxLon, longitudes[i]);
+                located++;
+            }
+        }
+
+        if (located == 0) {
+            minLat = 0;
+            maxLat = 0;
+            minLon = 0;
+            maxLon = 0;
+        }
+        double area = Math.max(maxLat - minLat, MIN_CELL_DEGREES) * Math.max(maxLon - minLon, MIN_CELL_DEGREES);
+        double cells = Math.max(1.0, (double) located / PLANTS_PER_CELL);
+        minLatitude = minLat;
+        minLongitude = minLon;
+        cellDegrees = Math.max(MIN_CELL_DEGREES, Math.sqrt(area / cells));
+        rows = (int) ((maxLat - minLat) / cellDegrees) + 1;
+        columns = (int) ((maxLon - minLon) / cellDegrees) + 1;
+
+        // Counting sort of the plants by cell
+        cellStart = new int[rows * columns + 1];
+        for (int i = 0; i < size; i++) {
+            if (isLocated(i)) {
+                cellStart[cellOf(i) + 1]++;
+            }
+        }
+        for (int c = 0; c < rows * columns; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        entries = new int[located];
+        int[] next = Arrays.copyOf(cellStart, rows * columns);
+        for (int i = 0; i < size; i++) {
+            if (isLocated(i)) {
+                entries[next[cellOf(i)]++] = i;
+            }
+        }
+    }
+
+    public int size() {
+        return latitudes.length;
+    }
+
+    /**
+     * Find the plants within a distance of a point, measured along the Earth's surface.
+     * @param latitude The latitude of the center, in degrees.
+     * @param longitude The longitude of the center, in degrees.
+     * @param radiusKm The radius in kilometers.
+     * @return The indexes of the plants in the circle, in increasing order.
+     */
+    public int[] withinRadius(double latitude, double longitude, double radiusKm) {
+        double latitudeDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double cosLatitude = Math.cos(Math.toRadians(Math.min(90.0, Math.abs(latitude) + latitudeDelta)));
+        double longitudeDelta = cosLatitude > 1e-9 ? Math.min(180.0, latitudeDelta / cosLatitude) : 180.0;
+
+        // Compare the haversine term against the one of the radius, without asin or sqrt per plant
+        double maxHaversine = Math.pow(Math.sin(Math.min(Math.PI, radiusKm / EARTH_RADIUS_KM) / 2), 2);
+        double cosLatitude0 = Math.cos(Math.toRadians(latitude));
+
+        // Past the antimeridian, the box goes on at the other end of the grid
+        double west = longitude - longitudeDelta;
+        double east = longitude + longitudeDelta;
+        int[] columnRanges;
+        if (longitudeDelta >= 180.0) {
+            columnRanges = new int[]{0, columns - 1};
+        } else if (west < -180.0) {
+            columnRanges = columnRanges(west + 360.0, 180.0, -180.0, east);
+        } else if (east > 180.0) {
+            columnRanges = columnRanges(west, 180.0, -180.0, east - 360.0);
+        } else {
+            columnRanges = new int[]{columnOf(west), columnOf(east)};
+        }
+
+        int[] found = new int[16];
+        int count = 0;
+        int fromRow = rowOf(latitude - latitudeDelta);
+        int toRow = rowOf(latitude + latitudeDelta);
+        for (int range = 0; range < columnRanges.length; range += 2) {
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = columnRanges[range]; column <= columnRanges[range + 1]; column++) {
+                    int cell = row * columns + column;
+                    for (int e = cellStart[cell]; e < cellStart[cell + 1]; e++) {
+                        int i = entries[e];
+                        if (haversine(latitude, longitude, cosLatitude0, latitudes[i], longitudes[i], cosLatitudes[i]) <= maxHaversine) {
+                            if (count == found.length) {
+                                found = Arrays.copyOf(found, count * 2);
+                            }
+                            found[count++] = i;
+                        }
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Get the column ranges of two longitude intervals, as one range if they overlap or touch
+     * once clamped to the grid, so no cell is visited twice.
+     */
+    private int[] columnRanges(double west1, double east1, double west2, double east2) {
+        int from1 = columnOf(west1);
+        int to1 = columnOf(east1);
+        int from2 = columnOf(west2);
+        int to2 = columnOf(east2);
+        if (from2 <= to1 + 1 && from1 <= to2 + 1) {
+            return new int[]{Math.min(from1, from2), Math.max(to1, to2)};
+        }
+        return new int[]{from1, to1, from2, to2};
+    }
+
+    /**
+     * Find the plants inside a polygon, treating latitude and longitude as plane coordinates.
+     * @param polygonLatitudes The latitudes of the vertices, in order.
+     * @param polygonLongitudes The longitudes of the vertices, in the same order.
+     * @return The indexes of the plants in the polygon, in increasing order.
+     * @throws IllegalArgumentException If the polygon is invalid (see {@link #checkPolygon}).
+     */
+    public int[] withinPolygon(double[] polygonLatitudes, double[] polygonLongitudes) {
+        checkPolygon(polygonLatitudes, polygonLongitudes);
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < polygonLatitudes.length; v++) {
+            minLat = Math.min(minLat, polygonLatitudes[v]);
+            maxLat = Math.max(maxLat, polygonLatitudes[v]);
+            minLon = Math.min(minLon, polygonLongitudes[v]);
+            maxLon = Math.max(maxLon, polygonLongitudes[v]);
+        }
+
+        int[] found = new int[16];
+        int count = 0;
+        for (int row = rowOf(minLat); row <= rowOf(maxLat); row++) {
+            for (int column = columnOf(minLon); column <= columnOf(maxLon); column++) {
+                int cell = row * columns + column;
+                for (int e = cellStart[cell]; e < cellStart[cell + 1]; e++) {
+                    int i = entries[e];
+                    if (contains(polygonLatitudes, polygonLongitudes, latitudes[i], longitudes[i])) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = i;
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Check that a polygon can be searched: at least 3 vertices with finite coordinates, and
+     * no edge spanning more than 180 degrees of longitude. Such an edge would cross the
+     * antimeridian, which the plane test cannot represent; split the polygon in two instead.
+     * @param latitudes The latitudes of the vertices, in order.
+     * @param longitudes The longitudes of the vertices, in the same order.
+     * @throws IllegalArgumentException If the polygon is invalid.
+     */
+    public static void checkPolygon(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length || latitudes.length < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 vertices with both coordinates");
+        }
+        for (int v = 0, w = latitudes.length - 1; v < latitudes.length; w = v++) {
+            if (!Double.isFinite(latitudes[v]) || !Double.isFinite(longitudes[v])) {
+                throw new IllegalArgumentException("Invalid vertex: " + latitudes[v] + ", " + longitudes[v]);
+            }
+            if (Math.abs(longitudes[v] - longitudes[w]) > 180.0) {
+                throw new IllegalArgumentException("Polygon edge crosses the antimeridian: longitude "
+                        + longitudes[w] + " to " + longitudes[v]);
+            }
+        }
+    }
+
+    /**
+     * Compute the great-circle distance between two points (haversine formula).
+     * @return The distance in kilometers.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double a = haversine(latitude1, longitude1, Math.cos(Math.toRadians(latitude1)),
+                latitude2, longitude2, Math.cos(Math.toRadians(latitude2)));
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static double haversine(double latitude1, double longitude1, double cosLatitude1,
+                                    double latitude2, double longitude2, double cosLatitude2) {
+        double sinLat = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLon = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        return sinLat * sinLat + cosLatitude1 * cosLatitude2 * sinLon * sinLon;
+    }
+
+    /**
+     * Ray-casting test of a point against a polygon.
+     */
+    private static boolean contains(double[] lats, double[] lons, double latitude, double longitude) {
+        boolean inside = false;
+        for (int v = 0, w = lats.length - 1; v < lats.length; w = v++) {
+            if ((lats[v] > latitude) != (lats[w] > latitude)
+                    && longitude < (lons[w] - lons[v]) * (latitude - lats[v]) / (lats[w] - lats[v]) + lons[v]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private boolean isLocated(int i) {
+        return Double.isFinite(latitudes[i]) && Double.isFinite(longitudes[i]);
+    }
+
+    private int cellOf(int i) {
+        return rowOf(latitudes[i]) * columns + columnOf(longitudes[i]);
+    }
+
+    /**
+     * Get the row of a latitude, clamped to the grid.
+     */
+    private int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude - minLatitude) / cellDegrees);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int columnOf(double longitude) {
+        int column = (int) Math.floor((longitude - minLongitude) / cellDegrees);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+}
@@ -0,0 +1,57 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregated outcome of one blackout simulation within a sweep over start times.
+ * Only the aggregates are kept, not the minute-by-minute rows.
+ */
+public class SweepResult {
+    private final LocalDateTime blackoutStart;
+    private final double minStability;
+    private final int unmetMinutes;
+    private final double unservedMWh;
+    private final int recoveryMinutes;
+
+    public SweepResult(LocalDateTime blackoutStart, double minStability, int unmetMinutes, double unservedMWh, int recoveryMinutes) {
+        this.blackoutStart = blackoutStart;
+        this.minStability = minStability;
+        this.unmetMinutes = unmetMinutes;
+        this.unservedMWh = unservedMWh;
+        this.recoveryMinutes = recoveryMinutes;
+    }
+
+    public LocalDateTime getBlackoutStart() {
+        return blackoutStart;
+    }
+
+    /**
+     * Get the lowest average stability among the minutes that generated power.
+     * @return Minimum stability, 1.0 if nothing was generated.
+     */
+    public double getMinStability() {
+        return minStability;
+    }
+
+    public int getUnmetMinutes() {
+        return unmetMinutes;
+    }
+
+    public double getUnservedMWh() {
+        return unservedMWh;
+    }
+
+    /**
+     * Get the elapsed minutes after which demand stays fully covered until the end of the run.
+     * @return Minutes to full recovery, or -1 if demand is still unmet at the end of the run.
+     */
+    public int getRecoveryMinutes() {
+        return recoveryMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return blackoutStart + " minStability=" + minStability + " unmetMinutes=" + unmetMinutes
+                + " unservedMWh=" + unservedMWh + " recoveryMinutes=" + recoveryMinutes;
+    }
+}
@@ -0,0 +1,271 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.PowerPlant;
+import edu.uoc.uoctron.model.RenewablePlant;
+import edu.uoc.uoctron.model.SheddingMode;
+import edu.uoc.uoctron.model.SimulationResult;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the compiled dispatch kernel to the original plant-by-plant simulation, kept below as
+ * {@link #baseline(LocalDateTime)}: same restart sequence, merit order, stepped shedding and
+ * nuclear top-up, with plant types as strings and demand read straight from the forecast file.
+ */
+public class BaselineDispatchTest {
+
+    private static final double TOLERANCE = 1e-6;
+
+    private UOCtronController controller;
+    private List<PowerPlant> plants;
+    private double[] demand;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+        plants = new ArrayList<>();
+        for (Object plant : controller.getPowerPlants()) {
+            plants.add((PowerPlant) plant);
+        }
+        demand = readDemand();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2025-05-21T00:00", "2025-05-21T06:30", "2025-05-21T13:37", "2025-05-21T23:59",
+            "2025-05-21T17:45:30"})
+    public void testTimelineMatchesBaseline(String start) {
+        LocalDateTime blackoutStart = LocalDateTime.parse(start);
+        controller.runBlackoutSimulation(blackoutStart);
+        JSONArray results = controller.getSimulationResults();
+        List<JSONObject> expected = baseline(blackoutStart);
+
+        assertEquals(expected.size(), results.length());
+        for (int i = 0; i < expected.size(); i++) {
+            JSONObject want = expected.get(i);
+            JSONObject got = results.getJSONObject(i);
+            String row = start + " minute " + i;
+
+            assertEquals(want.getString("time"), got.getString("time"), row);
+            assertEquals(want.getDouble("expectedDemandMW"), got.getDouble("expectedDemandMW"), TOLERANCE, row);
+            assertEquals(want.getDouble("generatedMW"), got.getDouble("generatedMW"), TOLERANCE, row);
+            assertEquals(want.getDouble("averageStability"), got.getDouble("averageStability"), TOLERANCE, row);
+
+            JSONObject wantTypes = want.getJSONObject("generatedByTypeMW");
+            JSONObject gotTypes = got.getJSONObject("generatedByTypeMW");
+            assertEquals(wantTypes.keySet(), gotTypes.keySet(), row);
+            for (String type : wantTypes.keySet()) {
+                assertEquals(wantTypes.getDouble(type), gotTypes.getDouble(type), TOLERANCE, row + " " + type);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2025-05-21T00:00", "2025-05-21T13:37", "2025-05-21T17:45:30"})
+    public void testGeneratedByTypeMatchesBaseline(String start) {
+        // Types dispatched and then shed in full are reported with 0.0, whatever the shedding mode
+        LocalDateTime blackoutStart = LocalDateTime.parse(start);
+        List<Map<String, Double>> expected = new ArrayList<>();
+        baseline(blackoutStart, expected);
+
+        int shedInFull = 0;
+        for (SheddingMode mode : SheddingMode.values()) {
+            controller.setSheddingMode(mode);
+            List<SimulationResult> results = controller.getSimulation(controller.runBlackoutSimulation(blackoutStart)).getResults();
+            assertEquals(expected.size(), results.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Map<String, Double> want = expected.get(i);
+                Map<String, Double> got = results.get(i).getGeneratedByType();
+                String row = start + " " + mode + " minute " + i;
+                assertEquals(want.keySet(), got.keySet(), row);
+                if (mode == SheddingMode.STEPPED) {
+                    for (String type : want.keySet()) {
+                        assertEquals(want.get(type), got.get(type), TOLERANCE, row + " " + type);
+                    }
+                }
+                shedInFull += (int) got.values().stream().filter(value -> value == 0.0).count();
+            }
+        }
+        assertTrue(shedInFull > 0, "no type shed in full");
+    }
+
+    private static double[] readDemand() throws IOException {
+        double[] byMinute = new double[1440];
+        try (InputStream in = BaselineDispatchTest.class.getResourceAsStream("/data/demand_forecast.txt")) {
+            assertNotNull(in);
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\\R")) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split(",");
+                String[] time = fields[0].trim().split(":");
+                byMinute[Integer.parseInt(time[0]) * 60 + Integer.parseInt(time[1])] = Double.parseDouble(fields[1].trim());
+            }
+        }
+        return byMinute;
+    }
+
+    private List<JSONObject> baseline(LocalDateTime blackoutStart) {
+        return baseline(blackoutStart, new ArrayList<>());
+    }
+
+    /**
+     * The simulation as it was before the dispatch kernel, one plant at a time.
+     * @param generatedByTypeOut Receives the generation by type of every minute, shed types included.
+     */
+    private List<JSONObject> baseline(LocalDateTime blackoutStart, List<Map<String, Double>> generatedByTypeOut) {
+        List<JSONObject> results = new ArrayList<>();
+
+        for (int i = 0; i < 2160; i++) {
+            LocalDateTime currentTime = blackoutStart.plusMinutes(i);
+            double expectedDemand = demand[currentTime.getHour() * 60 + currentTime.getMinute()];
+            Map<String, Double> generatedByType = new HashMap<>();
+            double totalGenerated = 0.0;
+
+            generatedByTypeOut.add(generatedByType);
+            if (i < 4) {
+                results.add(toJSON(currentTime, 0.0, expectedDemand, 1.0, generatedByType));
+                continue;
+            }
+
+            List<String> allowedTypes;
+            if (i < 7) {
+                allowedTypes = List.of("Hydroelectric");
+            } else if (i < 61) {
+                allowedTypes = List.of("Hydroelectric", "Wind");
+            } else if (i < 121) {
+                allowedTypes = List.of("Hydroelectric", "Wind", "Geothermal");
+            } else if (i < 1000) {
+                allowedTypes = List.of("Hydroelectric", "Wind", "Geothermal", "Solar", "Combined cycle", "Coal");
+            } else if (i < 1500) {
+                allowedTypes = List.of("Hydroelectric", "Wind", "Geothermal", "Combined cycle");
+            } else {
+                allowedTypes = List.of("Hydroelectric", "Wind", "Geothermal", "Solar",
+                        "Nuclear", "Coal", "Combined cycle", "Fuel gas", "Biomass");
+            }
+
+            List<PowerPlant> orderedPlants = new ArrayList<>();
+            for (PowerPlant p : plants) {
+                if (!allowedTypes.contains(p.getType()) || i < p.getRestartMinutes()) continue;
+                orderedPlants.add(p);
+            }
+            orderedPlants.sort(Comparator.comparingInt(p -> switch (p.getType()) {
+                case "Hydroelectric" -> 0;
+                case "Combined cycle" -> 1;
+                case "Wind" -> 2;
+                case "Solar" -> 3;
+                case "Geothermal" -> 4;
+                case "Coal" -> 5;
+                case "Biomass" -> 6;
+                case "Fuel gas" -> 7;
+                case "Nuclear" -> 8;
+                default -> 9;
+            }));
+
+            double combinedGeneratedAt1000 = 0.0;
+            for (PowerPlant plant : orderedPlants) {
+                double efficiency = 1.0;
+                if (plant instanceof RenewablePlant renewable) {
+                    efficiency = (plant.getType().equals("Geothermal") || plant.getType().equals("Wind")) ? 1.0 : renewable.getEfficiency();
+                }
+                double capacity = plant.getGeneratedPower(efficiency);
+
+                double remaining = expectedDemand - totalGenerated;
+                if (remaining <= 0) break;
+
+                double generated = Math.min(capacity, remaining);
+                if (i == 1000 && plant.getType().equals("Combined cycle")) {
+                    if (combinedGeneratedAt1000 + generated > 6119.5) {
+                        generated = 6119.5 - combinedGeneratedAt1000;
+                    }
+                    combinedGeneratedAt1000 += generated;
+                }
+                if (generated > 0) {
+                    generatedByType.merge(plant.getType(), generated, Double::sum);
+                    totalGenerated += generated;
+                }
+            }
+
+            double avgStability = stability(generatedByType);
+            if (avgStability < 0.7 && totalGenerated > 0) {
+                for (String type : List.of("Solar", "Wind", "Biomass", "Geothermal", "Hydroelectric")) {
+                    while (generatedByType.containsKey(type) && generatedByType.get(type) > 0 && avgStability < 0.7) {
+                        double reduction = Math.min(10.0, generatedByType.get(type));
+                        generatedByType.put(type, generatedByType.get(type) - reduction);
+                        totalGenerated -= reduction;
+                        avgStability = stability(generatedByType);
+                    }
+                }
+
+                double remainingAfterReduction = expectedDemand - totalGenerated;
+                if (remainingAfterReduction > 1e-3) {
+                    for (PowerPlant plant : plants) {
+                        if (!plant.getType().equals("Nuclear") || i < plant.getRestartMinutes() || i < 1500) continue;
+
+                        double additional = Math.min(plant.getGeneratedPower(1.0), remainingAfterReduction);
+                        if (additional > 1e-3) {
+                            generatedByType.merge("Nuclear", additional, Double::sum);
+                            totalGenerated += additional;
+                            remainingAfterReduction -= additional;
+                        }
+                        if (remainingAfterReduction <= 0) break;
+                    }
+                }
+            }
+
+            results.add(toJSON(currentTime, totalGenerated, expectedDemand, avgStability, generatedByType));
+        }
+        return results;
+    }
+
+    private static double stability(Map<String, Double> generatedByType) {
+        double total = generatedByType.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total == 0.0) {
+            return 1.0;
+        }
+        double weighted = 0.0;
+        for (Map.Entry<String, Double> entry : generatedByType.entrySet()) {
+            weighted += entry.getValue() / total * switch (entry.getKey()) {
+                case "Biomass" -> 0.5;
+                case "Coal" -> 0.9;
+                case "Combined cycle", "Geothermal" -> 0.7;
+                case "Fuel gas" -> 0.6;
+                case "Hydroelectric" -> 0.8;
+                case "Nuclear" -> 1.0;
+                case "Solar" -> 0.1;
+                case "Wind" -> 0.2;
+                default -> 0.0;
+            };
+        }
+        return weighted;
+    }
+
+    private static JSONObject toJSON(LocalDateTime time, double generated, double expectedDemand, double stability,
+                                     Map<String, Double> generatedByType) {
+        JSONObject types = new JSONObject();
+        for (Map.Entry<String, Double> entry : generatedByType.entrySet()) {
+            if (entry.getValue() > 1e-6) {
+                types.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new JSONObject()
+                .put("time", time.toString())
+                .put("generatedMW", generated)
+                .put("expectedDemandMW", expectedDemand)
+                .put("averageStability", stability)
+                .put("generatedByTypeMW", types);
+    }
+}
@@ -0,0 +1,121 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.Simulation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs started while the fleet is edited must each read one snapshot, and all of them must reach the history.
+ */
+public class ConcurrentSimulationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+    private static final List<LocalDateTime> STARTS = List.of(START.plusMinutes(30), START.plusHours(6),
+            START.plusHours(13).plusMinutes(17), START.plusHours(21));
+    private static final int EDITS = 5;
+    private static final int CALLERS = 2;
+    private static final int ROUNDS = 3;
+
+    private static void addPlant(UOCtronController controller, int edit) {
+        controller.addPowerPlant("COMBINED_CYCLE", "Extra " + edit, 40.0, -3.7, "Madrid", 300.0 + 150.0 * edit, 1.0);
+    }
+
+    private static void assertSameTable(ResultTable expected, ResultTable actual, String at) {
+        assertEquals(expected.size(), actual.size(), at);
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.getGenerated(row), actual.getGenerated(row), at + " row " + row);
+            assertEquals(expected.getExpectedDemand(row), actual.getExpectedDemand(row), at + " row " + row);
+            assertEquals(expected.getAverageStability(row), actual.getAverageStability(row), at + " row " + row);
+        }
+    }
+
+    @Test
+    public void testSimulateAllWhileTheFleetIsEdited() throws Exception {
+        // The run of every start against every fleet the edits go through, by fleet hash
+        UOCtronController reference = new UOCtronController("plants.txt", "demand_forecast.txt");
+        Map<Long, Map<LocalDateTime, ResultTable>> expected = new HashMap<>();
+        for (int edit = 0; edit <= EDITS; edit++) {
+            if (edit > 0) {
+                addPlant(reference, edit);
+            }
+            Map<LocalDateTime, ResultTable> runs = new HashMap<>();
+            long fleetHash = 0;
+            for (LocalDateTime start : STARTS) {
+                Simulation simulation = reference.simulate(start);
+                fleetHash = simulation.getEngine().getFleetHash();
+                runs.put(start, simulation.getTable());
+            }
+            expected.put(fleetHash, runs);
+        }
+        assertEquals(EDITS + 1, expected.size());
+
+        UOCtronController controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS + 1);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<List<Simulation>>> callers = new ArrayList<>();
+            for (int c = 0; c < CALLERS; c++) {
+                callers.add(executor.submit(() -> {
+                    ready.await();
+                    List<Simulation> simulations = new ArrayList<>();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        simulations.addAll(controller.simulateAll(STARTS));
+                    }
+                    return simulations;
+                }));
+            }
+            Future<?> editor = executor.submit(() -> {
+                ready.await();
+                for (int edit = 1; edit <= EDITS; edit++) {
+                    addPlant(controller, edit);
+                    Thread.sleep(2);
+                }
+                return null;
+            });
+            ready.countDown();
+            editor.get();
+
+            List<Simulation> simulations = new ArrayList<>();
+            for (Future<List<Simulation>> caller : callers) {
+                simulations.addAll(caller.get());
+            }
+            assertEquals(CALLERS * ROUNDS * STARTS.size(), simulations.size());
+
+            Set<Long> ids = new HashSet<>();
+            for (Simulation simulation : simulations) {
+                String at = "run " + simulation.getId() + " at " + simulation.getStartTime();
+                // The results are those of the fleet the run was dispatched with, with no edit half seen
+                Map<LocalDateTime, ResultTable> runs = expected.get(simulation.getEngine().getFleetHash());
+                assertNotNull(runs, at);
+                assertSameTable(runs.get(simulation.getStartTime()), simulation.getTable(), at);
+
+                // Every run has its own id and is still in the history
+                assertTrue(ids.add(simulation.getId()), at);
+                Simulation stored = controller.getSimulation(simulation.getId());
+                assertNotNull(stored, at);
+                assertSame(simulation.getTable(), stored.getTable(), at);
+            }
+            for (long id = 1; id <= simulations.size(); id++) {
+                assertTrue(ids.contains(id), "id " + id);
+            }
+            assertNull(controller.getSimulation(simulations.size() + 1));
+            assertEquals(reference.getPowerPlants().length, controller.getPowerPlants().length);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
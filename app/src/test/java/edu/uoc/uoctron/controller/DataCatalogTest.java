@@ -0,0 +1,192 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.DemandSeries;
+import edu.uoc.uoctron.model.PipelineStage;
+import edu.uoc.uoctron.model.PipelineStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataCatalogTest {
+
+    private static final String PLANTS = """
+            # type,name,latitude,longitude,city,maxCapacityMW
+            NUCLEAR, Almaraz I, 39.8, -5.7, Almaraz, 1300.0
+            HYDRO, Aldeadávila, 41.2, -6.6, Aldeadávila, 1550.0
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path plants;
+    private Path demand;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        plants = directory.resolve("plants.txt");
+        demand = directory.resolve("demand.txt");
+        Files.writeString(plants, PLANTS);
+        Files.writeString(demand, "00:00,100.0\n12:00,200.0\n");
+    }
+
+    /**
+     * Move the last-modified time of a file, so a change is seen whatever the resolution of the file system.
+     */
+    private static void touch(Path file, long millis) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + millis));
+    }
+
+    @Test
+    public void testUnchangedFileIsParsedOnce() throws IOException {
+        DataCatalog catalog = new DataCatalog();
+        DataCatalog.Fleet fleet = catalog.getPlants(plants.toString());
+        DemandSeries series = catalog.getDemand(demand.toString());
+        assertEquals(2, catalog.getLoads());
+
+        assertSame(fleet, catalog.getPlants(plants.toString()));
+        assertSame(series, catalog.getDemand(demand.toString()));
+        assertEquals(2, catalog.getLoads());
+        assertEquals(2, fleet.getPlants().size());
+        assertThrows(UnsupportedOperationException.class, () -> fleet.getPlants().remove(0));
+    }
+
+    @Test
+    public void testReloadsWhenTheSizeChanges() throws IOException {
+        DataCatalog catalog = new DataCatalog();
+        DataCatalog.Fleet fleet = catalog.getPlants(plants.toString());
+        long modified = Files.getLastModifiedTime(plants).toMillis();
+
+        Files.writeString(plants, PLANTS + "WIND, Maranchón, 41.0, -2.2, Guadalajara, 520.0\n");
+        // Same time, so only the size tells the files apart
+        Files.setLastModifiedTime(plants, FileTime.fromMillis(modified));
+
+        DataCatalog.Fleet reloaded = catalog.getPlants(plants.toString());
+        assertNotSame(fleet, reloaded);
+        assertEquals(3, reloaded.getPlants().size());
+        assertEquals(2, fleet.getPlants().size());
+        assertEquals(2, catalog.getLoads());
+    }
+
+    @Test
+    public void testReloadsWhenTheTimeChanges() throws IOException {
+        DataCatalog catalog = new DataCatalog();
+        DemandSeries series = catalog.getDemand(demand.toString());
+
+        // Same size, so only the time tells the files apart
+        Files.writeString(demand, "00:00,300.0\n12:00,200.0\n");
+        touch(demand, 2000);
+
+        DemandSeries reloaded = catalog.getDemand(demand.toString());
+        assertNotSame(series, reloaded);
+        assertEquals(300.0, reloaded.getDemandData(0).getDemand());
+        assertEquals(100.0, series.getDemandData(0).getDemand());
+        assertEquals(2, catalog.getLoads());
+
+        assertSame(reloaded, catalog.getDemand(demand.toString()));
+        assertEquals(2, catalog.getLoads());
+    }
+
+    @Test
+    public void testClearParsesAgain() throws IOException {
+        DataCatalog catalog = new DataCatalog();
+        DataCatalog.Fleet fleet = catalog.getPlants(plants.toString());
+        catalog.clear();
+        assertNotSame(fleet, catalog.getPlants(plants.toString()));
+        assertEquals(2, catalog.getLoads());
+    }
+
+    @Test
+    public void testLoadsAndHitsAreSeparateStages() throws IOException {
+        DataCatalog catalog = new DataCatalog();
+        long loads = PipelineStats.getCount(PipelineStage.LOAD_PLANTS);
+        long loadedRows = PipelineStats.getRows(PipelineStage.LOAD_PLANTS);
+        long demandLoads = PipelineStats.getCount(PipelineStage.LOAD_DEMAND);
+        long hits = PipelineStats.getCount(PipelineStage.CATALOG_HIT);
+
+        catalog.getPlants(plants.toString());
+        catalog.getDemand(demand.toString());
+        assertEquals(loads + 1, PipelineStats.getCount(PipelineStage.LOAD_PLANTS));
+        assertEquals(loadedRows + 2, PipelineStats.getRows(PipelineStage.LOAD_PLANTS));
+        assertEquals(demandLoads + 1, PipelineStats.getCount(PipelineStage.LOAD_DEMAND));
+        assertEquals(hits, PipelineStats.getCount(PipelineStage.CATALOG_HIT));
+
+        for (int i = 0; i < 3; i++) {
+            catalog.getPlants(plants.toString());
+            catalog.getDemand(demand.toString());
+        }
+        assertEquals(loads + 1, PipelineStats.getCount(PipelineStage.LOAD_PLANTS));
+        assertEquals(demandLoads + 1, PipelineStats.getCount(PipelineStage.LOAD_DEMAND));
+        assertEquals(hits + 6, PipelineStats.getCount(PipelineStage.CATALOG_HIT));
+    }
+
+    @Test
+    public void testMissingFile() {
+        DataCatalog catalog = new DataCatalog();
+        assertThrows(FileNotFoundException.class, () -> catalog.getPlants(directory.resolve("none.txt").toString()));
+        assertEquals(0, catalog.getLoads());
+    }
+
+    @Test
+    public void testInvalidPlantLineKeepsThePlantsBefore() throws IOException {
+        Files.writeString(plants, PLANTS + """
+                WIND, Maranchón, forty-one, -2.2, Guadalajara, 520.0
+                SOLAR, Núñez de Balboa, 38.4, -6.3, Usagre, 500.0
+                """);
+        DataCatalog catalog = new DataCatalog();
+        DataCatalog.Fleet fleet = catalog.getPlants(plants.toString());
+        assertEquals(2, fleet.getPlants().size());
+        assertEquals("Aldeadávila", fleet.getPlants().get(1).getName());
+
+        // The partial fleet is cached like a complete one, and controllers get it too
+        assertSame(fleet, catalog.getPlants(plants.toString()));
+        assertEquals(1, catalog.getLoads());
+        assertEquals(2, new UOCtronController(plants.toString(), demand.toString()).getPowerPlants().length);
+    }
+
+    @Test
+    public void testInvalidDemandLineKeepsTheRowsBefore() throws IOException {
+        Path before = directory.resolve("before.txt");
+        Files.writeString(before, "00:00,100.0\n06:00,150.0\n");
+        DataCatalog catalog = new DataCatalog();
+        DemandSeries expected = catalog.getDemand(before.toString());
+
+        // A demand that is not a number, then a time that is not one
+        Files.writeString(demand, "00:00,100.0\n06:00,150.0\n12:00,lots\n18:00,200.0\n");
+        assertEquals(expected, catalog.getDemand(demand.toString()));
+        Path badTime = directory.resolve("time.txt");
+        Files.writeString(badTime, "00:00,100.0\n06:00,150.0\n25:00,175.0\n18:00,200.0\n");
+        assertEquals(expected, catalog.getDemand(badTime.toString()));
+    }
+
+    @Test
+    public void testControllersShareTheFleetAndDemand() throws IOException {
+        long loads = DataCatalog.shared().getLoads();
+        UOCtronController first = new UOCtronController(plants.toString(), demand.toString());
+        UOCtronController second = new UOCtronController(plants.toString(), demand.toString());
+        // One load of each file, for both controllers
+        assertEquals(loads + 2, DataCatalog.shared().getLoads());
+
+        Object[] firstPlants = first.getPowerPlants();
+        Object[] secondPlants = second.getPowerPlants();
+        assertEquals(2, firstPlants.length);
+        for (int i = 0; i < firstPlants.length; i++) {
+            assertSame(firstPlants[i], secondPlants[i]);
+        }
+
+        // A controller created after the file changed gets the new fleet, the others keep theirs
+        Files.writeString(plants, PLANTS + "WIND, Maranchón, 41.0, -2.2, Guadalajara, 520.0\n");
+        touch(plants, 2000);
+        UOCtronController third = new UOCtronController(plants.toString(), demand.toString());
+        assertEquals(3, third.getPowerPlants().length);
+        assertEquals(2, first.getPowerPlants().length);
+        assertEquals(loads + 3, DataCatalog.shared().getLoads());
+    }
+}
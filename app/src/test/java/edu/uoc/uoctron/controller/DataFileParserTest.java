@@ -0,0 +1,93 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.RestartSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataFileParserTest {
+
+    private static final int CC = PlantType.COMBINED_CYCLE.ordinal();
+
+    private static RestartSchedule schedule(String text) {
+        return DataFileParser.parseSchedule(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String error(String text) {
+        return assertThrows(IllegalArgumentException.class, () -> schedule(text)).getMessage();
+    }
+
+    @Test
+    public void testDefaultPlanFromFile() {
+        RestartSchedule schedule = schedule("""
+                # The original plan
+                allow,4,HYDRO
+                allow,7,HYDRO WIND
+                allow,61,HYDRO WIND GEOTHERMAL
+                allow,121,HYDRO WIND GEOTHERMAL SOLAR COMBINED_CYCLE COAL
+
+                allow,1000,HYDRO WIND GEOTHERMAL COMBINED_CYCLE
+                allow,1500,ALL
+                cap,COMBINED_CYCLE,1000,1001,6119.5
+                nuclear_top_up,1500
+                """);
+        assertEquals(RestartSchedule.DEFAULT, schedule);
+        assertEquals(RestartSchedule.DEFAULT.getContentHash(), schedule.getContentHash());
+    }
+
+    @Test
+    public void testCrlfAndSpacing() {
+        RestartSchedule schedule = schedule("allow, 0 , hydro  wind\r\nCAP,combined_cycle,5,10,100\r\nallow,20,NONE\r\n");
+        assertEquals(PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND), schedule.allowedMask(0));
+        assertEquals(100.0, schedule.capAt(CC, 5));
+        assertEquals(0, schedule.allowedMask(20));
+        assertFalse(schedule.isNuclearTopUp(RestartSchedule.MAX_MINUTES));
+    }
+
+    @Test
+    public void testOverlappingCaps() {
+        RestartSchedule schedule = schedule("""
+                cap,COMBINED_CYCLE,1000,1100,500
+                cap,COMBINED_CYCLE,1050,1200,800
+                """);
+        assertEquals(500.0, schedule.capAt(CC, 1050));
+        assertEquals(800.0, schedule.capAt(CC, 1100));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 1200));
+    }
+
+    @Test
+    public void testMinutesOutOfRange() {
+        int over = RestartSchedule.MAX_MINUTES + 1;
+        assertTrue(error("allow,4,HYDRO\nallow," + over + ",ALL\n").startsWith("Invalid schedule line 2"));
+        assertTrue(error("allow,2147483647,ALL").startsWith("Invalid schedule line 1"));
+        assertTrue(error("allow,99999999999,ALL").startsWith("Invalid schedule line 1"));
+        assertTrue(error("allow,-1,ALL").startsWith("Invalid schedule line 1"));
+        assertTrue(error("cap,COAL,0," + over + ",10").startsWith("Invalid schedule line 1"));
+        assertTrue(error("nuclear_top_up," + over).startsWith("Invalid schedule line 1"));
+        assertEquals(PlantType.ALL_MASK, schedule("allow," + RestartSchedule.MAX_MINUTES + ",ALL").allowedMask(over));
+    }
+
+    @Test
+    public void testInvalidLines() {
+        assertTrue(error("allow,4").contains("expected 3 fields, found 2"));
+        assertTrue(error("cap,COAL,0,10").contains("expected 5 fields, found 4"));
+        assertTrue(error("allow,4,HYDRO STEAM").contains("unknown plant type 'STEAM'"));
+        assertTrue(error("cap,STEAM,0,10,5").contains("unknown plant type 'STEAM'"));
+        assertTrue(error("restart,4,HYDRO").contains("unknown step 'restart'"));
+        assertTrue(error("cap,COAL,10,5,5").contains("Invalid cap window"));
+        assertTrue(error("cap,COAL,0,10,-5").contains("Invalid cap"));
+        assertTrue(error("\n# comment\r\nallow,x,ALL").startsWith("Invalid schedule line 3"));
+    }
+
+    @Test
+    public void testEmptyFile() {
+        RestartSchedule schedule = schedule("# nothing\n\n");
+        assertEquals(0, schedule.allowedMask(0));
+        assertEquals(0, schedule.allowedMask(5000));
+        assertFalse(schedule.isNuclearTopUp(5000));
+    }
+}
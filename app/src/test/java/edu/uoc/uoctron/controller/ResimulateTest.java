@@ -0,0 +1,125 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.BlackoutRegion;
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.SheddingMode;
+import edu.uoc.uoctron.model.Simulation;
+import edu.uoc.uoctron.model.SimulationOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resimulating a stored run after a demand revision must give the run a fresh controller computes.
+ */
+public class ResimulateTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+
+    private UOCtronController controller;
+    private UOCtronController fresh;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+        fresh = new UOCtronController("plants.txt", "demand_forecast.txt");
+    }
+
+    private static void assertSameTable(ResultTable expected, ResultTable actual) {
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStepSeconds(), actual.getStepSeconds());
+        assertArrayEquals(expected.getExpectedDemandColumn(), actual.getExpectedDemandColumn());
+        assertArrayEquals(expected.getGeneratedColumn(), actual.getGeneratedColumn());
+        assertArrayEquals(expected.getStabilityColumn(), actual.getStabilityColumn());
+        for (PlantType type : PlantType.values()) {
+            assertArrayEquals(expected.getGeneratedByTypeColumn(type), actual.getGeneratedByTypeColumn(type), type.name());
+        }
+    }
+
+    private static double[] ramp(int minutes, double from) {
+        double[] demand = new double[minutes];
+        for (int i = 0; i < minutes; i++) {
+            demand[i] = from + 250.0 * i;
+        }
+        return demand;
+    }
+
+    private void revise(LocalDateTime from, double[] demand) {
+        controller.reviseDemand(from, demand);
+        fresh.reviseDemand(from, demand);
+    }
+
+    @Test
+    public void testRevisedHour() {
+        long id = controller.runBlackoutSimulation(START);
+        revise(START.plusHours(3), ramp(60, 12000.0));
+
+        Simulation resimulated = controller.resimulate(id);
+        assertSameTable(fresh.simulate(START).getTable(), resimulated.getTable());
+        assertNotEquals(id, resimulated.getId());
+        assertEquals(12000.0, resimulated.getTable().getExpectedDemand(180));
+    }
+
+    @Test
+    public void testSeveralRevisedRanges() {
+        long id = controller.runBlackoutSimulation(START);
+        revise(START, ramp(5, 30000.0));
+        revise(START.plusMinutes(118), ramp(10, 8000.0));
+        revise(START.plusMinutes(990), ramp(520, 20000.0));
+
+        assertSameTable(fresh.simulate(START).getTable(), controller.resimulate(id).getTable());
+    }
+
+    @Test
+    public void testRevisionAcrossMidnightAndOutsideTheRun() {
+        // The forecast is one day, so a revision before the start still reaches the second day of the run
+        long id = controller.runBlackoutSimulation(START);
+        revise(START.minusMinutes(20), ramp(40, 5000.0));
+        revise(LocalDateTime.of(2025, 5, 21, 23, 50), ramp(20, 15000.0));
+
+        Simulation resimulated = controller.resimulate(id);
+        assertSameTable(fresh.simulate(START).getTable(), resimulated.getTable());
+        assertEquals(5000.0 + 250.0 * 20, resimulated.getTable().getExpectedDemand(1440));
+    }
+
+    @Test
+    public void testOptionsOfTheStoredRunAreKept() {
+        SimulationOptions options = SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(30))
+                .withHorizon(Duration.ofHours(10)).withSheddingMode(SheddingMode.STEPPED);
+        LocalDateTime start = START.plusSeconds(20);
+        long id = controller.simulate(start, options).getId();
+        revise(START.plusMinutes(200), ramp(15, 9000.0));
+
+        Simulation resimulated = controller.resimulate(id);
+        assertEquals(SheddingMode.STEPPED, resimulated.getEngine().getSheddingMode());
+        assertSameTable(fresh.simulate(start, options).getTable(), resimulated.getTable());
+    }
+
+    @Test
+    public void testRegionalRun() {
+        BlackoutRegion region = BlackoutRegion.circle(40.4, -3.7, 300.0);
+        long id = controller.simulateRegionalBlackout(START, region, SimulationOptions.DEFAULT).getId();
+        revise(START.plusMinutes(50), ramp(30, 26000.0));
+
+        Simulation resimulated = controller.resimulate(id);
+        assertSame(region, resimulated.getRegion());
+        assertSameTable(fresh.simulateRegionalBlackout(START, region, SimulationOptions.DEFAULT).getTable(),
+                resimulated.getTable());
+    }
+
+    @Test
+    public void testUnchangedDemandGivesTheSameRun() {
+        Simulation stored = controller.simulate(START);
+        double[] same = Arrays.copyOf(stored.getTable().getExpectedDemandColumn(), 60);
+        controller.reviseDemand(START, same);
+
+        assertSameTable(stored.getTable(), controller.resimulate(stored.getId()).getTable());
+        assertNull(controller.resimulate(-1));
+    }
+}
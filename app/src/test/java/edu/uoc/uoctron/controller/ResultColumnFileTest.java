@@ -0,0 +1,201 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.Simulation;
+import edu.uoc.uoctron.model.SimulationOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultColumnFileTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+
+    @TempDir
+    Path dir;
+
+    private UOCtronController controller;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+    }
+
+    private static void assertSameColumn(double[] expected, DoubleBuffer actual, String name) {
+        assertEquals(expected.length, actual.remaining(), name);
+        for (int row = 0; row < expected.length; row++) {
+            assertEquals(expected[row], actual.get(row), name + " row " + row);
+        }
+    }
+
+    private static void assertRoundTrip(Simulation simulation, Path path) throws IOException {
+        ResultColumnFile.write(simulation, path);
+        ResultColumnFile.Columns columns = ResultColumnFile.read(path);
+        ResultTable table = simulation.getTable();
+
+        assertEquals(table.size(), columns.size());
+        assertEquals(table.getStartTime(), columns.getStartTime());
+        assertEquals(table.getStepSeconds(), columns.getStepSeconds());
+
+        LongBuffer time = columns.getTimeColumn();
+        for (int row = 0; row < table.size(); row++) {
+            assertEquals(table.getTime(row).toEpochSecond(ZoneOffset.UTC), time.get(row), "time row " + row);
+        }
+        assertSameColumn(table.getGeneratedColumn(), columns.getColumn(ResultColumnFile.GENERATED), "generated");
+        assertSameColumn(table.getExpectedDemandColumn(), columns.getColumn(ResultColumnFile.EXPECTED_DEMAND), "demand");
+        assertSameColumn(table.getStabilityColumn(), columns.getColumn(ResultColumnFile.AVERAGE_STABILITY), "stability");
+
+        List<String> expectedNames = new ArrayList<>(List.of(ResultColumnFile.TIME, ResultColumnFile.GENERATED,
+                ResultColumnFile.EXPECTED_DEMAND, ResultColumnFile.AVERAGE_STABILITY));
+        for (PlantType type : PlantType.values()) {
+            double[] expected = table.getGeneratedByTypeColumn(type);
+            DoubleBuffer actual = columns.getGeneratedByType(type);
+            boolean generates = false;
+            for (double value : expected) {
+                generates |= value != 0.0;
+            }
+            if (generates) {
+                expectedNames.add(ResultColumnFile.GENERATED_BY_TYPE + type.getKey());
+                assertSameColumn(expected, actual, type.getKey());
+            } else {
+                assertNull(actual, type.getKey());
+            }
+        }
+        assertEquals(expectedNames, columns.getColumnNames());
+
+        // Copied back into a table, every row reads the same, types left out included
+        ResultTable copy = columns.toTable();
+        for (int row = 0; row < table.size(); row++) {
+            assertEquals(table.getGenerated(row), copy.getGenerated(row));
+            for (PlantType type : PlantType.values()) {
+                assertEquals(table.getGeneratedByType(row, type), copy.getGeneratedByType(row, type), type + " row " + row);
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Simulation simulation = controller.simulate(START);
+        assertRoundTrip(simulation, dir.resolve("run.uocr"));
+        // The day-long run has most types, and leaves some out
+        ResultColumnFile.Columns columns = ResultColumnFile.read(dir.resolve("run.uocr"));
+        assertNotNull(columns.getGeneratedByType(PlantType.HYDROELECTRIC));
+        assertNotNull(columns.getGeneratedByType(PlantType.NUCLEAR));
+    }
+
+    @Test
+    public void testRoundTripWithSubMinuteStep() throws IOException {
+        SimulationOptions options = SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(3)).withStep(Duration.ofSeconds(20));
+        Simulation simulation = controller.simulate(START.plusSeconds(40), options);
+        assertEquals(540, simulation.getTable().size());
+        assertRoundTrip(simulation, dir.resolve("fine.uocr"));
+    }
+
+    @Test
+    public void testControllerExport() throws IOException {
+        long id = controller.runBlackoutSimulation(START);
+        Path path = dir.resolve("export.uocr");
+        assertTrue(controller.exportSimulation(id, path));
+        assertFalse(controller.exportSimulation(id + 100, dir.resolve("none.uocr")));
+        assertFalse(Files.exists(dir.resolve("none.uocr")));
+        assertRoundTrip(controller.getSimulation(id), dir.resolve("again.uocr"));
+        assertEquals(Files.size(dir.resolve("again.uocr")), Files.size(path));
+    }
+
+    @Test
+    public void testColumnsAreViewsOfTheMapping() throws IOException {
+        Path path = dir.resolve("run.uocr");
+        ResultColumnFile.write(controller.simulate(START), path);
+        ResultColumnFile.Columns columns = ResultColumnFile.read(path);
+
+        DoubleBuffer generated = columns.getColumn(ResultColumnFile.GENERATED);
+        assertTrue(generated.isDirect());
+        assertFalse(generated.hasArray());
+        assertTrue(generated.isReadOnly());
+        assertTrue(columns.getTimeColumn().isDirect());
+
+        // A write to the file shows through the view already handed out
+        long offset = offsetOf(path, ResultColumnFile.GENERATED);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).putDouble(0, -42.0);
+            channel.write(value, offset + 10L * Double.BYTES);
+        }
+        assertEquals(-42.0, generated.get(10));
+        assertEquals(-42.0, columns.getColumn(ResultColumnFile.GENERATED).get(10));
+    }
+
+    @Test
+    public void testBadMagicIsRejected() throws IOException {
+        Path path = dir.resolve("run.uocr");
+        ResultColumnFile.write(controller.simulate(START), path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[0] = 'X';
+        Files.write(path, bytes);
+        IOException e = assertThrows(IOException.class, () -> ResultColumnFile.read(path));
+        assertTrue(e.getMessage().startsWith("Not a UOCtron result file"), e.getMessage());
+
+        Files.write(path, new byte[]{'U', 'O', 'C', 'R'});
+        assertThrows(IOException.class, () -> ResultColumnFile.read(path));
+    }
+
+    @Test
+    public void testOtherVersionIsRejected() throws IOException {
+        Path path = dir.resolve("run.uocr");
+        ResultColumnFile.write(controller.simulate(START), path);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, ResultColumnFile.VERSION + 1);
+        Files.write(path, bytes);
+        IOException e = assertThrows(IOException.class, () -> ResultColumnFile.read(path));
+        assertTrue(e.getMessage().startsWith("Unsupported result file version " + (ResultColumnFile.VERSION + 1)),
+                e.getMessage());
+    }
+
+    @Test
+    public void testTruncatedFileIsRejected() throws IOException {
+        Path path = dir.resolve("run.uocr");
+        ResultColumnFile.write(controller.simulate(START), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        IOException e = assertThrows(IOException.class, () -> ResultColumnFile.read(path));
+        assertTrue(e.getMessage().startsWith("Corrupt result file"), e.getMessage());
+    }
+
+    /**
+     * Read the data offset of a column from the directory of a file.
+     */
+    private static long offsetOf(Path path, String name) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        int columns = buffer.getInt(28);
+        buffer.position(32);
+        for (int c = 0; c < columns; c++) {
+            byte[] encoded = new byte[buffer.getShort()];
+            buffer.get(encoded);
+            buffer.get();
+            long offset = buffer.getLong();
+            if (new String(encoded, StandardCharsets.UTF_8).equals(name)) {
+                return offset;
+            }
+        }
+        throw new AssertionError("No column " + name);
+    }
+}
@@ -0,0 +1,210 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.DemandSeries;
+import edu.uoc.uoctron.model.DispatchEngine;
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.PowerPlant;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.SheddingMode;
+import edu.uoc.uoctron.model.Simulation;
+import edu.uoc.uoctron.model.SimulationOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+    private static final long DAY = LocalDate.of(2025, 5, 21).toEpochDay() * 1440;
+
+    private UOCtronController controller;
+    private SimulationCache cache;
+    private DispatchEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+        cache = controller.getSimulationCache();
+        List<PowerPlant> plants = new ArrayList<>();
+        for (Object plant : controller.getPowerPlants()) {
+            plants.add((PowerPlant) plant);
+        }
+        engine = new DispatchEngine(plants);
+    }
+
+    private static DemandSeries flat(double demand) {
+        double[] values = new double[1440];
+        Arrays.fill(values, demand);
+        return DemandSeries.of(DAY, values);
+    }
+
+    private static SimulationCache.Key key(DispatchEngine engine, DemandSeries demand, long position) {
+        return new SimulationCache.Key(engine, demand, position, 0, 10, 60);
+    }
+
+    private static void assertSameRows(ResultTable expected, ResultTable actual) {
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(expected.getGeneratedColumn(), actual.getGeneratedColumn());
+        assertArrayEquals(expected.getExpectedDemandColumn(), actual.getExpectedDemandColumn());
+        assertArrayEquals(expected.getStabilityColumn(), actual.getStabilityColumn());
+        for (PlantType type : PlantType.values()) {
+            assertArrayEquals(expected.getGeneratedByTypeColumn(type), actual.getGeneratedByTypeColumn(type));
+        }
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        Simulation first = controller.simulate(START);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        Simulation second = controller.simulate(START);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertNotEquals(first.getId(), second.getId());
+        assertSameRows(first.getTable(), second.getTable());
+
+        // Another minute, step or shedding mode is another run
+        controller.simulate(START.plusMinutes(1));
+        controller.simulate(START, SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(30)));
+        controller.simulate(START, SimulationOptions.DEFAULT.withSheddingMode(SheddingMode.STEPPED));
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testSecondsOnlyMatterForSubMinuteSteps() {
+        controller.simulate(START);
+        controller.simulate(START.plusSeconds(42));
+        assertEquals(1, cache.getHits());
+
+        SimulationOptions halfMinutes = SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(30));
+        controller.simulate(START, halfMinutes);
+        controller.simulate(START.plusSeconds(42), halfMinutes);
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testHitIsRebasedToTheNewStart() {
+        // The forecast is a single day, so the same minute of another day reads the same demand
+        Simulation first = controller.simulate(START);
+        LocalDateTime nextWeek = START.plusDays(7);
+        Simulation second = controller.simulate(nextWeek);
+
+        assertEquals(1, cache.getHits());
+        assertEquals(nextWeek, second.getStartTime());
+        assertEquals(nextWeek, second.getTable().getStartTime());
+        assertEquals(START, first.getTable().getStartTime());
+        assertSameRows(first.getTable(), second.getTable());
+        assertEquals(nextWeek.plusMinutes(5), second.getResults().get(5).getTime());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        SimulationCache small = new SimulationCache(2);
+        DemandSeries demand = flat(1000.0);
+        SimulationCache.Key a = key(engine, demand, 1);
+        SimulationCache.Key b = key(engine, demand, 2);
+        SimulationCache.Key c = key(engine, demand, 3);
+        ResultTable table = new ResultTable(START, 10);
+
+        assertNull(small.get(a));
+        small.put(a, table);
+        small.put(b, table);
+        // Using a makes b the eldest
+        assertSame(table, small.get(a));
+        small.put(c, table);
+
+        assertEquals(2, small.size());
+        assertSame(table, small.get(a));
+        assertNull(small.get(b));
+        assertSame(table, small.get(c));
+        assertEquals(2, small.getMaxEntries());
+    }
+
+    @Test
+    public void testDemandRevisionInvalidates() {
+        Simulation before = controller.simulate(START);
+        controller.reviseDemand(START.plusMinutes(100), new double[]{1.0, 2.0, 3.0});
+        Simulation after = controller.simulate(START);
+
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertEquals(1.0, after.getTable().getExpectedDemand(100));
+        assertEquals(3.0, after.getTable().getExpectedDemand(102));
+        assertNotEquals(before.getTable().getExpectedDemand(100), after.getTable().getExpectedDemand(100));
+        assertEquals(before.getTable().getGenerated(99), after.getTable().getGenerated(99));
+    }
+
+    @Test
+    public void testAnotherDemandClearsEveryEntry() {
+        DemandSeries demand = flat(1000.0);
+        DemandSeries other = flat(2000.0);
+        ResultTable table = new ResultTable(START, 10);
+        DispatchEngine regional = engine.withBlackoutRegion(new int[]{0});
+
+        cache.get(key(engine, demand, 1));
+        cache.put(key(engine, demand, 1), table);
+        cache.put(key(regional, demand, 1), table);
+        assertEquals(2, cache.size());
+
+        // Entries of every fleet go, and they do not come back with the old demand
+        assertNull(cache.get(key(engine, other, 1)));
+        assertEquals(0, cache.size());
+        assertNull(cache.get(key(engine, demand, 1)));
+        assertNull(cache.get(key(regional, demand, 1)));
+
+        // Runs of a demand other than the last lookup are not stored
+        cache.put(key(engine, other, 1), table);
+        assertEquals(0, cache.size());
+        cache.put(key(engine, demand, 2), table);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEqualContentsShareEntries() {
+        // Separately built but identical fleets and demand curves hit the same entry
+        List<PowerPlant> plants = new ArrayList<>();
+        for (Object plant : controller.getPowerPlants()) {
+            plants.add((PowerPlant) plant);
+        }
+        DispatchEngine rebuilt = new DispatchEngine(plants);
+        ResultTable table = new ResultTable(START, 10);
+
+        cache.get(key(engine, flat(1000.0), 1));
+        cache.put(key(engine, flat(1000.0), 1), table);
+        assertNotSame(engine, rebuilt);
+        assertTrue(engine.sameFleet(rebuilt));
+        assertSame(table, cache.get(key(rebuilt, flat(1000.0), 1)));
+        assertEquals(key(engine, flat(1000.0), 1), key(rebuilt, flat(1000.0), 1));
+    }
+
+    @Test
+    public void testFleetChangeInvalidates() {
+        controller.simulate(START);
+        controller.addPowerPlant("HYDRO", "Extra dam", 42.0, -1.0, "Huesca", 500.0, 1.0);
+        controller.simulate(START);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        // The keys compare the fleets themselves, not only their hashes
+        DispatchEngine regional = engine.withBlackoutRegion(new int[0]);
+        assertFalse(engine.sameFleet(regional));
+        assertFalse(engine.sameFleet(engine.withBlackoutRegion(new int[]{0})));
+        assertTrue(engine.sameFleet(engine.withSheddingMode(SheddingMode.STEPPED)));
+        assertNotEquals(key(engine, flat(1000.0), 1), key(regional, flat(1000.0), 1));
+        assertNotEquals(key(engine, flat(1000.0), 1), key(engine.withSheddingMode(SheddingMode.STEPPED), flat(1000.0), 1));
+    }
+}
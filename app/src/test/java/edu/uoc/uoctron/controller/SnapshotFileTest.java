@@ -0,0 +1,165 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.Model;
+import edu.uoc.uoctron.model.PlantType;
+import edu.uoc.uoctron.model.PowerPlant;
+import edu.uoc.uoctron.model.RenewablePlant;
+import edu.uoc.uoctron.model.RestartSchedule;
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.Simulation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotFileTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+
+    @TempDir
+    Path dir;
+
+    private UOCtronController controller;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+    }
+
+    private static void assertSameTable(ResultTable expected, ResultTable actual) {
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStepSeconds(), actual.getStepSeconds());
+        assertArrayEquals(expected.getGeneratedColumn(), actual.getGeneratedColumn());
+        assertArrayEquals(expected.getExpectedDemandColumn(), actual.getExpectedDemandColumn());
+        assertArrayEquals(expected.getStabilityColumn(), actual.getStabilityColumn());
+        for (PlantType type : PlantType.values()) {
+            assertArrayEquals(expected.getGeneratedByTypeColumn(type), actual.getGeneratedByTypeColumn(type), type.name());
+        }
+    }
+
+    @Test
+    public void testPlantsAndDemandRoundTrip() throws IOException {
+        Path path = dir.resolve("model.snap");
+        controller.writeSnapshot(path, false);
+        Model read = SnapshotFile.read(path);
+
+        Object[] expected = controller.getPowerPlants();
+        List<PowerPlant> plants = read.getPlants();
+        assertEquals(expected.length, plants.size());
+        for (int i = 0; i < expected.length; i++) {
+            PowerPlant before = (PowerPlant) expected[i];
+            PowerPlant after = plants.get(i);
+            assertEquals(before.getName(), after.getName());
+            assertEquals(before.getCity(), after.getCity());
+            assertEquals(before.getPlantType(), after.getPlantType());
+            assertEquals(before.getLatitude(), after.getLatitude());
+            assertEquals(before.getLongitude(), after.getLongitude());
+            assertEquals(before.getMaxCapacityMW(), after.getMaxCapacityMW());
+            if (before instanceof RenewablePlant renewable) {
+                assertEquals(renewable.getEfficiency(), ((RenewablePlant) after).getEfficiency());
+            }
+        }
+        assertTrue(read.getSimulations().isEmpty());
+        assertEquals(RestartSchedule.DEFAULT, read.getRestartSchedule());
+
+        // A controller over the snapshot simulates like the original one
+        long id = controller.runBlackoutSimulation(START);
+        Simulation restored = UOCtronController.fromSnapshot(path).simulate(START);
+        assertSameTable(controller.getSimulation(id).getTable(), restored.getTable());
+    }
+
+    @Test
+    public void testScheduleRoundTrip() throws IOException {
+        RestartSchedule schedule = new RestartSchedule.Builder()
+                .allow(0, PlantType.maskOf(PlantType.HYDROELECTRIC))
+                .allow(30, PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.COMBINED_CYCLE, PlantType.COAL))
+                .allow(900, PlantType.ALL_MASK)
+                .cap(PlantType.COMBINED_CYCLE, 30, 200, 1500.0)
+                .cap(PlantType.COMBINED_CYCLE, 100, 400, 2500.5)
+                .cap(PlantType.COAL, 60, 61, 0.0)
+                .nuclearTopUpFrom(900)
+                .build();
+        controller.setRestartSchedule(schedule);
+        Path path = dir.resolve("schedule.snap");
+        controller.writeSnapshot(path, false);
+
+        Model read = SnapshotFile.read(path);
+        assertEquals(schedule, read.getRestartSchedule());
+        assertEquals(schedule.getContentHash(), read.getRestartSchedule().getContentHash());
+        assertArrayEquals(schedule.getBoundaries(), read.getRestartSchedule().getBoundaries());
+
+        // The restored controller follows the restored plan
+        long id = controller.runBlackoutSimulation(START);
+        Simulation restored = UOCtronController.fromSnapshot(path).simulate(START);
+        assertSameTable(controller.getSimulation(id).getTable(), restored.getTable());
+    }
+
+    @Test
+    public void testScheduleWithoutTopUpRoundTrip() throws IOException {
+        RestartSchedule schedule = new RestartSchedule.Builder().allow(10, PlantType.ALL_MASK).build();
+        controller.setRestartSchedule(schedule);
+        Path path = dir.resolve("no-top-up.snap");
+        controller.writeSnapshot(path, false);
+
+        RestartSchedule read = SnapshotFile.read(path).getRestartSchedule();
+        assertEquals(schedule, read);
+        assertFalse(read.isNuclearTopUp(RestartSchedule.MAX_MINUTES));
+    }
+
+    @Test
+    public void testSimulationsRoundTripWithoutEngine() throws IOException {
+        long first = controller.runBlackoutSimulation(START);
+        long second = controller.runBlackoutSimulation(START.plusHours(7));
+        Path path = dir.resolve("simulations.snap");
+        controller.writeSnapshot(path, true);
+
+        UOCtronController restored = UOCtronController.fromSnapshot(path);
+        Model read = SnapshotFile.read(path);
+        assertEquals(2, read.getSimulations().size());
+        assertSameTable(controller.getSimulation(first).getTable(), read.getSimulations().get(0).getTable());
+        assertSameTable(controller.getSimulation(second).getTable(), read.getSimulations().get(1).getTable());
+
+        // The engine is not stored: no plant generation, and resimulating dispatches again
+        long loadedId = read.getSimulations().get(1).getId();
+        Simulation loaded = restored.getSimulation(loadedId);
+        assertNull(loaded.getEngine());
+        assertNull(loaded.getPlantGeneration());
+        assertNull(restored.getPlantGeneration(loaded.getId()));
+        assertTrue(restored.getPlantGenerationResults(loaded.getId(), 0).isEmpty());
+        Simulation resimulated = restored.resimulate(loaded.getId());
+        assertNotNull(resimulated.getEngine());
+        assertSameTable(controller.getSimulation(second).getTable(), resimulated.getTable());
+    }
+
+    @Test
+    public void testOtherVersionsAreRejected() throws IOException {
+        Path path = dir.resolve("old.snap");
+        controller.writeSnapshot(path, false);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+        Files.write(path, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(path));
+        assertTrue(e.getMessage().startsWith("Unsupported snapshot version 1"));
+    }
+
+    @Test
+    public void testTruncatedFileIsCorrupt() throws IOException {
+        Path path = dir.resolve("truncated.snap");
+        controller.writeSnapshot(path, false);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 6));
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(path));
+        assertTrue(e.getMessage().startsWith("Corrupt snapshot"));
+    }
+}
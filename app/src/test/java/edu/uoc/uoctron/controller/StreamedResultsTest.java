@@ -0,0 +1,100 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.ResultQuery;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The results written by the controller must parse to what {@link UOCtronController#getSimulationResults()} returns.
+ */
+public class StreamedResultsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    private UOCtronController controller;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+    }
+
+    private static void assertSameResults(JSONArray expected, String streamed) {
+        JSONArray actual = new JSONArray(streamed);
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); i++) {
+            JSONObject expectedRow = expected.getJSONObject(i);
+            JSONObject actualRow = actual.getJSONObject(i);
+            String at = "row " + i;
+            assertEquals(expectedRow.keySet(), actualRow.keySet(), at);
+            assertEquals(expectedRow.getString("time"), actualRow.getString("time"), at);
+            assertEquals(expectedRow.getDouble("generatedMW"), actualRow.getDouble("generatedMW"), at);
+            assertEquals(expectedRow.getDouble("expectedDemandMW"), actualRow.getDouble("expectedDemandMW"), at);
+            assertEquals(expectedRow.getDouble("averageStability"), actualRow.getDouble("averageStability"), at);
+            JSONObject expectedTypes = expectedRow.getJSONObject("generatedByTypeMW");
+            JSONObject actualTypes = actualRow.getJSONObject("generatedByTypeMW");
+            assertEquals(expectedTypes.keySet(), actualTypes.keySet(), at);
+            for (String type : expectedTypes.keySet()) {
+                assertEquals(expectedTypes.getDouble(type), actualTypes.getDouble(type), at + " " + type);
+            }
+        }
+    }
+
+    @Test
+    public void testLatestRun() throws IOException {
+        for (int minute : new int[]{0, 195, 777, 1439}) {
+            controller.runBlackoutSimulation(START.plusMinutes(minute));
+            StringWriter out = new StringWriter();
+            controller.writeSimulationResults(out);
+            assertSameResults(controller.getSimulationResults(), out.toString());
+        }
+    }
+
+    @Test
+    public void testStoredRunsAndQueries() throws IOException {
+        long first = controller.runBlackoutSimulation(START.plusMinutes(60));
+        long second = controller.runBlackoutSimulation(START.plusMinutes(480));
+
+        for (long id : new long[]{first, second}) {
+            StringWriter out = new StringWriter();
+            controller.writeSimulationResults(id, out);
+            assertSameResults(controller.getSimulationResults(id), out.toString());
+        }
+
+        ResultQuery[] queries = {
+                ResultQuery.ALL.withPage(100, 50),
+                ResultQuery.ALL.withTimeRange(START.plusHours(10), START.plusHours(12)),
+                ResultQuery.ALL.withPoints(200)
+        };
+        for (ResultQuery query : queries) {
+            StringWriter out = new StringWriter();
+            controller.writeSimulationResults(first, query, out);
+            assertSameResults(controller.getSimulationResults(first, query), out.toString());
+        }
+    }
+
+    @Test
+    public void testUtf8Stream() throws IOException {
+        controller.runBlackoutSimulation(START);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.writeSimulationResults(out);
+        assertSameResults(controller.getSimulationResults(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNoRun() throws IOException {
+        StringWriter out = new StringWriter();
+        controller.writeSimulationResults(out);
+        assertEquals("[]", out.toString());
+        assertTrue(controller.getSimulationResults().isEmpty());
+    }
+}
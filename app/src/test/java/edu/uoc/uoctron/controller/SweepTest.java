@@ -0,0 +1,119 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.ResultTable;
+import edu.uoc.uoctron.model.SheddingMode;
+import edu.uoc.uoctron.model.SimulationOptions;
+import edu.uoc.uoctron.model.SweepResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each aggregate of a sweep must match the run of the same start simulated on its own.
+ */
+public class SweepTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 21);
+    private static final int[] STARTS = {0, 1, 59, 480, 777, 1200, 1439};
+
+    private UOCtronController controller;
+
+    @BeforeEach
+    public void setUp() {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+    }
+
+    /**
+     * Reduce a full run to the aggregates of a sweep, in minutes of simulated time.
+     */
+    private static SweepResult aggregate(ResultTable table, LocalDateTime start) {
+        double minStability = 1.0;
+        int unmetSteps = 0;
+        double unservedMWh = 0.0;
+        int lastUnmet = -1;
+        for (int row = 0; row < table.size(); row++) {
+            if (table.getGenerated(row) > 0.0) {
+                minStability = Math.min(minStability, table.getAverageStability(row));
+            }
+            double unserved = table.getExpectedDemand(row) - table.getGenerated(row);
+            if (unserved > 1e-3) {
+                unmetSteps++;
+                unservedMWh += unserved * table.getStepSeconds() / 3600.0;
+                lastUnmet = row;
+            }
+        }
+        int stepSeconds = table.getStepSeconds();
+        int recovery = lastUnmet >= 0 && lastUnmet == table.size() - 1 ? -1 : (lastUnmet + 1) * stepSeconds / 60;
+        return new SweepResult(start, minStability, unmetSteps * stepSeconds / 60, unservedMWh, recovery);
+    }
+
+    private void assertMatchesRuns(SweepResult[] sweep, SimulationOptions options) {
+        assertEquals(1440, sweep.length);
+        for (int minute = 0; minute < sweep.length; minute++) {
+            assertEquals(DAY.atStartOfDay().plusMinutes(minute), sweep[minute].getBlackoutStart());
+        }
+        for (int start : STARTS) {
+            LocalDateTime time = DAY.atStartOfDay().plusMinutes(start);
+            SweepResult expected = aggregate(controller.simulate(time, options).getTable(), time);
+            SweepResult actual = sweep[start];
+            String at = "start " + start;
+            assertEquals(expected.getMinStability(), actual.getMinStability(), at);
+            assertEquals(expected.getUnmetMinutes(), actual.getUnmetMinutes(), at);
+            assertEquals(expected.getUnservedMWh(), actual.getUnservedMWh(), 1e-9 * Math.max(1.0, expected.getUnservedMWh()), at);
+            assertEquals(expected.getRecoveryMinutes(), actual.getRecoveryMinutes(), at);
+        }
+    }
+
+    @Test
+    public void testDefaultHorizon() {
+        SweepResult[] sweep = controller.sweepBlackoutStarts(DAY);
+        assertMatchesRuns(sweep, SimulationOptions.DEFAULT);
+        // The first minutes of a blackout never cover the demand
+        for (SweepResult result : sweep) {
+            assertTrue(result.getUnmetMinutes() >= 4);
+            assertTrue(result.getUnservedMWh() > 0.0);
+        }
+    }
+
+    @Test
+    public void testShorterHorizonAndLongerStep() {
+        SimulationOptions options = SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(12)).withStep(Duration.ofMinutes(5));
+        SweepResult[] sweep = controller.sweepBlackoutStarts(DAY, options);
+        assertMatchesRuns(sweep, options);
+        assertNotEquals(controller.sweepBlackoutStarts(DAY)[480].getUnservedMWh(), sweep[480].getUnservedMWh());
+    }
+
+    @Test
+    public void testSubMinuteStep() {
+        SimulationOptions options = SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(4)).withStep(Duration.ofSeconds(20));
+        SweepResult[] sweep = controller.sweepBlackoutStarts(DAY, options);
+        assertMatchesRuns(sweep, options);
+
+        // A 20-second step repeats the demand of its minute, so it gives the same unmet time as minutes
+        SweepResult[] minutes = controller.sweepBlackoutStarts(DAY, options.withStep(Duration.ofMinutes(1)));
+        for (int start : STARTS) {
+            assertEquals(minutes[start].getUnmetMinutes(), sweep[start].getUnmetMinutes(), "start " + start);
+            assertEquals(minutes[start].getUnservedMWh(), sweep[start].getUnservedMWh(), 1e-6, "start " + start);
+        }
+    }
+
+    @Test
+    public void testSheddingModeOfTheOptions() {
+        SimulationOptions options = SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(10))
+                .withSheddingMode(SheddingMode.STEPPED);
+        assertMatchesRuns(controller.sweepBlackoutStarts(DAY, options), options);
+    }
+
+    @Test
+    public void testHistoryIsNotModified() {
+        long id = controller.runBlackoutSimulation(DAY.atTime(3, 0));
+        controller.sweepBlackoutStarts(DAY, SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(2)));
+        assertEquals(id, controller.getSimulation(id).getId());
+        assertEquals(2160, controller.getSimulationResults().length());
+    }
+}
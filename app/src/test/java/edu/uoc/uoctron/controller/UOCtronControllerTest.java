@@ -349,4 +349,20 @@ public class UOCtronControllerTest {
         assertEquals(45.0, genByType2000.getDouble("Geothermal"), 0.1);
     }
 
+    @Test
+    @Order(11)
+    @Tag("basic")
+    public void testGetPowerPlantsReturnsACopy() {
+        Object[] plants = controller.getPowerPlants();
+        Object first = plants[0];
+        plants[0] = plants[1];
+        plants[1] = null;
+
+        Object[] again = controller.getPowerPlants();
+        assertNotSame(plants, again);
+        assertSame(first, again[0]);
+        assertNotNull(again[1]);
+        assertEquals(39, again.length);
+    }
+
 }
@@ -0,0 +1,162 @@
+package edu.uoc.uoctron.controller;
+
+import edu.uoc.uoctron.model.Simulation;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Endpoint tests against a server on an ephemeral port.
+ */
+public class UOCtronServerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+
+    private UOCtronController controller;
+    private UOCtronServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        controller = new UOCtronController("plants.txt", "demand_forecast.txt");
+        server = new UOCtronServer(controller, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> request(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return request("GET", path);
+    }
+
+    private static String error(HttpResponse<String> response) {
+        return new JSONObject(response.body()).getString("error");
+    }
+
+    @Test
+    public void testPlants() throws Exception {
+        HttpResponse<String> response = get("/plants");
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals(controller.getPowerPlants().length, new JSONArray(response.body()).length());
+
+        HttpResponse<String> post = request("POST", "/plants");
+        assertEquals(405, post.statusCode());
+        assertEquals("GET", post.headers().firstValue("Allow").orElse(null));
+    }
+
+    @Test
+    public void testRunSimulation() throws Exception {
+        HttpResponse<String> response = request("POST", "/simulations?start=" + START);
+        assertEquals(201, response.statusCode());
+        JSONObject body = new JSONObject(response.body());
+        Simulation simulation = controller.getSimulation(body.getLong("id"));
+        assertNotNull(simulation);
+        assertEquals(START.toString(), body.getString("startTime"));
+        assertEquals(simulation.getTable().size(), body.getInt("minutes"));
+
+        assertEquals(400, request("POST", "/simulations").statusCode());
+        assertEquals("Missing parameter: start", error(request("POST", "/simulations")));
+        assertEquals(400, request("POST", "/simulations?start=yesterday").statusCode());
+        assertEquals(405, get("/simulations").statusCode());
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        long id = controller.runBlackoutSimulation(START);
+        HttpResponse<String> response = get("/simulations/" + id + "/results");
+        assertEquals(200, response.statusCode());
+        JSONArray rows = new JSONArray(response.body());
+        assertEquals(controller.getSimulationResults(id).length(), rows.length());
+        assertTrue(controller.getSimulationResults(id).similar(rows));
+
+        // An hour from 08:00, downsampled to 6 points of 10 minutes
+        JSONArray hour = new JSONArray(get("/simulations/" + id + "/results?from=2025-05-21T08:00&to=2025-05-21T09:00&points=6").body());
+        assertEquals(6, hour.length());
+        assertEquals("2025-05-21T08:00", hour.getJSONObject(0).getString("time"));
+        assertEquals("2025-05-21T08:50", hour.getJSONObject(5).getString("time"));
+
+        JSONArray page = new JSONArray(get("/simulations/" + id + "/results?offset=10&limit=5").body());
+        assertEquals(5, page.length());
+        assertTrue(rows.getJSONObject(10).similar(page.getJSONObject(0)));
+        assertEquals(0, new JSONArray(get("/simulations/" + id + "/results?offset=100000").body()).length());
+
+        assertEquals(400, get("/simulations/" + id + "/results?from=noon").statusCode());
+        assertEquals(400, get("/simulations/" + id + "/results?limit=-1").statusCode());
+        assertEquals(400, get("/simulations/" + id + "/results?points=x").statusCode());
+        assertEquals(404, get("/simulations/12345/results").statusCode());
+        assertEquals(404, get("/simulations/abc/results").statusCode());
+        assertEquals(405, request("DELETE", "/simulations/" + id + "/results").statusCode());
+    }
+
+    @Test
+    public void testPlantGeneration() throws Exception {
+        long id = controller.runBlackoutSimulation(START);
+        int plants = controller.getPowerPlants().length;
+        for (int plant : new int[]{0, plants / 2, plants - 1}) {
+            HttpResponse<String> response = get("/simulations/" + id + "/plants/" + plant);
+            assertEquals(200, response.statusCode());
+            JSONArray runs = new JSONArray(response.body());
+            assertTrue(controller.getPlantGenerationResults(id, plant).similar(runs), "plant " + plant);
+            assertTrue(runs.length() > 0);
+            assertEquals(START.toString(), runs.getJSONObject(0).getString("from"));
+        }
+
+        assertEquals(404, get("/simulations/" + id + "/plants/" + plants).statusCode());
+        assertEquals(404, get("/simulations/" + id + "/plants/-1").statusCode());
+        assertEquals(404, get("/simulations/" + id + "/plants/first").statusCode());
+        assertEquals(404, get("/simulations/12345/plants/0").statusCode());
+        assertEquals("Unknown simulation or plant: 12345/0", error(get("/simulations/12345/plants/0")));
+        assertEquals(405, request("POST", "/simulations/" + id + "/plants/0").statusCode());
+    }
+
+    @Test
+    public void testUnknownPaths() throws Exception {
+        assertEquals(404, get("/simulations/1/other").statusCode());
+        assertEquals(404, get("/simulations/1/plants/0/more").statusCode());
+        assertEquals(404, get("/nothing").statusCode());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        get("/plants");
+        get("/simulations/12345/results");
+        // Requests are counted once their exchange is closed, which may be after the client read the response
+        ServerMetrics simulations = server.getMetrics("/simulations");
+        for (int wait = 0; wait < 100 && (server.getMetrics("/plants").getRequests() < 1 || simulations.getErrors() < 1); wait++) {
+            Thread.sleep(10);
+        }
+
+        HttpResponse<String> response = get("/metrics");
+        assertEquals(200, response.statusCode());
+        JSONObject body = new JSONObject(response.body());
+        assertEquals(1, body.getJSONObject("/plants").getLong("requests"));
+        assertEquals(0, body.getJSONObject("/plants").getLong("errors"));
+        assertEquals(1, body.getJSONObject("/simulations").getLong("requests"));
+        assertEquals(1, body.getJSONObject("/simulations").getLong("errors"));
+        assertTrue(body.has("pipeline"));
+        assertNull(server.getMetrics("/nothing"));
+    }
+}
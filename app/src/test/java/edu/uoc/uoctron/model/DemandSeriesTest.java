@@ -0,0 +1,142 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DemandSeriesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 21);
+
+    /**
+     * A series where the demand of day d (from 0) at minute m of the day is d * 10000 + m.
+     */
+    private static DemandSeries days(int count) {
+        double[] values = new double[count * 1440];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i / 1440) * 10000 + i % 1440;
+        }
+        return DemandSeries.of(DAY.toEpochDay() * 1440, values);
+    }
+
+    private static long minute(LocalDate day, int hour, int minute) {
+        return DemandSeries.toEpochMinute(day.atTime(hour, minute));
+    }
+
+    @Test
+    public void testOneDayServesAnyDate() {
+        DemandSeries series = days(1);
+        for (LocalDate day : new LocalDate[]{DAY, DAY.minusDays(400), DAY.plusDays(1), DAY.plusYears(3)}) {
+            assertEquals(0.0, series.getDemand(minute(day, 0, 0)), day.toString());
+            assertEquals(500.0, series.getDemand(minute(day, 8, 20)), day.toString());
+            assertEquals(1439.0, series.getDemand(minute(day, 23, 59)), day.toString());
+            assertEquals(500, series.indexOf(minute(day, 8, 20)));
+        }
+    }
+
+    @Test
+    public void testMultiDaySeriesIsFollowedAcrossDays() {
+        DemandSeries series = days(3);
+        assertEquals(500.0, series.getDemand(minute(DAY, 8, 20)));
+        assertEquals(10500.0, series.getDemand(minute(DAY.plusDays(1), 8, 20)));
+        assertEquals(21439.0, series.getDemand(minute(DAY.plusDays(2), 23, 59)));
+        assertEquals(1440 * 2 + 1439, series.indexOf(minute(DAY.plusDays(2), 23, 59)));
+    }
+
+    @Test
+    public void testLastDayRepeatsAfterTheSeries() {
+        DemandSeries series = days(3);
+        // Day 4 of a 3-day forecast is day 3, not day 1
+        assertEquals(20000.0, series.getDemand(minute(DAY.plusDays(3), 0, 0)));
+        assertEquals(20500.0, series.getDemand(minute(DAY.plusDays(3), 8, 20)));
+        assertEquals(20500.0, series.getDemand(minute(DAY.plusDays(40), 8, 20)));
+        assertEquals(21439.0, series.getDemand(minute(DAY.plusDays(3), 23, 59)));
+        assertEquals(1440 * 2 + 500, series.indexOf(minute(DAY.plusDays(3), 8, 20)));
+    }
+
+    @Test
+    public void testFirstDayRepeatsBeforeTheSeries() {
+        DemandSeries series = days(3);
+        assertEquals(1439.0, series.getDemand(minute(DAY.minusDays(1), 23, 59)));
+        assertEquals(500.0, series.getDemand(minute(DAY.minusDays(5), 8, 20)));
+        assertEquals(500, series.indexOf(minute(DAY.minusDays(5), 8, 20)));
+    }
+
+    @Test
+    public void testRunOutlastingTheSeries() {
+        // A 36-hour run from noon of the last day keeps following the last day after midnight
+        DemandSeries series = days(2);
+        LocalDateTime start = DAY.plusDays(1).atTime(12, 0);
+        long first = DemandSeries.toEpochMinute(start);
+        for (int i = 0; i < 2160; i++) {
+            int minuteOfDay = (720 + i) % 1440;
+            assertEquals(10000.0 + minuteOfDay, series.getDemand(first + i), "minute " + i);
+        }
+    }
+
+    @Test
+    public void testPositionsShareOnlyIdenticalCurves() {
+        DemandSeries oneDay = days(1);
+        assertEquals(oneDay.positionOf(minute(DAY, 8, 20)), oneDay.positionOf(minute(DAY.minusDays(9), 8, 20)));
+        assertEquals(oneDay.positionOf(minute(DAY, 8, 20)), oneDay.positionOf(minute(DAY.plusDays(9), 8, 20)));
+
+        DemandSeries threeDays = days(3);
+        long lastDay = threeDays.positionOf(minute(DAY.plusDays(2), 8, 20));
+        assertEquals(lastDay, threeDays.positionOf(minute(DAY.plusDays(7), 8, 20)));
+        // Before the series, runs reach day 2 at different minutes, so they never share a position
+        long firstDay = threeDays.positionOf(minute(DAY, 8, 20));
+        long dayBefore = threeDays.positionOf(minute(DAY.minusDays(1), 8, 20));
+        long twoDaysBefore = threeDays.positionOf(minute(DAY.minusDays(2), 8, 20));
+        assertNotEquals(firstDay, dayBefore);
+        assertNotEquals(dayBefore, twoDaysBefore);
+        assertNotEquals(firstDay, twoDaysBefore);
+    }
+
+    @Test
+    public void testRevisionOutsideTheSeriesRevisesTheMinuteItMapsTo() {
+        DemandSeries series = days(3);
+        DemandSeries revised = series.withRevision(minute(DAY.plusDays(5), 8, 20), new double[]{-1.0, -2.0});
+
+        assertEquals(-1.0, revised.getDemand(minute(DAY.plusDays(2), 8, 20)));
+        assertEquals(-2.0, revised.getDemand(minute(DAY.plusDays(2), 8, 21)));
+        assertEquals(500.0, revised.getDemand(minute(DAY, 8, 20)));
+        assertEquals(20500.0, series.getDemand(minute(DAY.plusDays(2), 8, 20)));
+        assertNotEquals(series.getContentHash(), revised.getContentHash());
+    }
+
+    @Test
+    public void testEmptySeriesIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DemandSeries.of(DAY.toEpochDay() * 1440, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> DemandSeries.of(DAY.toEpochDay() * 1440, new double[1000]));
+        assertThrows(IllegalArgumentException.class, () -> DemandSeries.of(DAY.toEpochDay() * 1440 + 1, new double[1440]));
+
+        DemandSeries empty = new DemandSeries.Builder().build();
+        assertTrue(empty.isEmpty());
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> empty.getDemand(minute(DAY, 8, 20)));
+        assertEquals("No demand loaded", e.getMessage());
+        assertThrows(IllegalStateException.class, () -> empty.indexOf(0));
+        assertThrows(IllegalStateException.class, () -> empty.positionOf(0));
+    }
+
+    @Test
+    public void testBuilderSpansDaysOfUndatedRows() {
+        DemandSeries.Builder builder = new DemandSeries.Builder();
+        builder.add(0, 0, 0, 100.0);
+        builder.add(23, 59, 0, 200.0);
+        builder.add(0, 0, 0, 300.0);
+        builder.add(0, 0, 30, 500.0);
+        DemandSeries series = builder.build();
+
+        assertEquals(2 * 1440, series.size());
+        assertEquals(DemandSeries.DEFAULT_DAY.toEpochDay() * 1440, series.getStartEpochMinute());
+        assertEquals(100.0, series.getDemand(minute(DemandSeries.DEFAULT_DAY, 0, 0)));
+        assertEquals(100.0, series.getDemand(minute(DemandSeries.DEFAULT_DAY, 23, 58)));
+        assertEquals(200.0, series.getDemand(minute(DemandSeries.DEFAULT_DAY, 23, 59)));
+        // Samples in the same minute are averaged, and the last value fills the rest of the day
+        assertEquals(400.0, series.getDemand(minute(DemandSeries.DEFAULT_DAY.plusDays(1), 0, 0)));
+        assertEquals(400.0, series.getDemand(minute(DemandSeries.DEFAULT_DAY.plusDays(1), 23, 59)));
+    }
+}
@@ -0,0 +1,127 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The prefix sums of a phase and the binary search for the marginal plant must agree with a
+ * plant-by-plant walk over the eligible capacities.
+ */
+public class DispatchEngineTest {
+
+    /**
+     * Find the marginal plant the way a walk in merit order does: skip every plant the demand
+     * left still exceeds.
+     */
+    private static int linearMarginal(double[] capacities, double demand) {
+        double cumulative = 0.0;
+        int k = 0;
+        while (k < capacities.length && cumulative + capacities[k] < demand) {
+            cumulative += capacities[k];
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Every phase of an engine, one per phase start.
+     */
+    private static List<DispatchEngine.Phase> phases(DispatchEngine engine) {
+        List<DispatchEngine.Phase> phases = new ArrayList<>();
+        for (int minute = 0; minute != Integer.MAX_VALUE; minute = engine.nextPhaseStart(minute)) {
+            phases.add(engine.phaseAt(minute));
+        }
+        return phases;
+    }
+
+    private static void assertPrefixSums(DispatchEngine engine) {
+        for (DispatchEngine.Phase phase : phases(engine)) {
+            int count = phase.plants.length;
+            double sum = 0.0;
+            double[] typeSums = new double[PlantType.COUNT];
+            assertEquals(0.0, phase.prefix[0]);
+            for (int k = 0; k < count; k++) {
+                int type = engine.typeAt(phase.plants[k]);
+                if (k > 0) {
+                    // Merit order, so the plants of a type are one block
+                    int previous = engine.typeAt(phase.plants[k - 1]);
+                    assertTrue(PlantType.of(previous).getMeritOrder() <= PlantType.of(type).getMeritOrder());
+                }
+                assertTrue(phase.typeFrom[type] <= k && k < phase.typeTo[type]);
+                assertEquals(typeSums[type], phase.typePrefix[k], "plant " + k);
+                typeSums[type] += phase.capacities[k];
+                sum += phase.capacities[k];
+                assertEquals(sum, phase.prefix[k + 1], "plant " + k);
+            }
+            assertArrayEquals(typeSums, phase.typeCapacity);
+        }
+    }
+
+    private static void assertMarginal(DispatchEngine engine) {
+        int checked = 0;
+        for (DispatchEngine.Phase phase : phases(engine)) {
+            List<Double> demands = new ArrayList<>(List.of(0.0, -1.0, Double.MIN_VALUE, Double.NaN,
+                    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+            for (double boundary : phase.prefix) {
+                // Exactly at a boundary, and one ulp on either side of it
+                demands.add(boundary);
+                demands.add(Math.nextDown(boundary));
+                demands.add(Math.nextUp(boundary));
+                demands.add(boundary + 0.5);
+            }
+            for (double demand : demands) {
+                assertEquals(linearMarginal(phase.capacities, demand), phase.marginal(demand), "demand " + demand);
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    public void testSyntheticFleets() {
+        for (long seed = 1; seed <= 20; seed++) {
+            DispatchEngine engine = new DispatchEngine(TestFleet.random(10 * (int) seed, seed));
+            assertPrefixSums(engine);
+            assertMarginal(engine);
+        }
+    }
+
+    @Test
+    public void testEqualAndZeroCapacities() {
+        // Equal capacities repeat the step of the prefix sums, a cap of 0 leaves plants with no capacity
+        List<PowerPlant> plants = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            plants.add(TestFleet.plant("Combined cycle", 250, 0));
+            plants.add(TestFleet.plant("Hydroelectric", 100, 0));
+            plants.add(TestFleet.plant("Coal", 0.5, 0));
+        }
+        plants.add(TestFleet.plant("Nuclear", 0.1, 0));
+        RestartSchedule schedule = new RestartSchedule.Builder()
+                .allow(0, PlantType.ALL_MASK)
+                .cap(PlantType.COMBINED_CYCLE, 0, 10, 600)
+                .cap(PlantType.COAL, 5, 10, 0)
+                .build();
+        DispatchEngine engine = new DispatchEngine(plants, SheddingMode.CLOSED_FORM, schedule);
+
+        DispatchEngine.Phase capped = engine.phaseAt(5);
+        assertEquals(800.0, capped.typeCapacity[PlantType.HYDROELECTRIC.ordinal()]);
+        assertEquals(600.0, capped.typeCapacity[PlantType.COMBINED_CYCLE.ordinal()]);
+        assertEquals(0.0, capped.typeCapacity[PlantType.COAL.ordinal()]);
+        assertPrefixSums(engine);
+        assertMarginal(engine);
+    }
+
+    @Test
+    public void testEmptyPhase() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(20, 3L));
+        DispatchEngine.Phase first = engine.phaseAt(0);
+        // Nothing restarts before the first step of the default schedule
+        assertEquals(0, first.plants.length);
+        assertEquals(0, first.marginal(100.0));
+        assertEquals(0, first.marginal(0.0));
+    }
+}
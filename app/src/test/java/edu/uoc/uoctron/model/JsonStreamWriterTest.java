@@ -0,0 +1,103 @@
+package edu.uoc.uoctron.model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The streamed JSON must parse to what {@link SimulationResult#toJSONObject()} builds for the same rows.
+ */
+public class JsonStreamWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    /**
+     * Compare two result rows field by field.
+     */
+    private static void assertSameRow(JSONObject expected, JSONObject actual, String at) {
+        assertEquals(expected.keySet(), actual.keySet(), at);
+        assertEquals(expected.getString("time"), actual.getString("time"), at);
+        for (String key : new String[]{"generatedMW", "expectedDemandMW", "averageStability"}) {
+            assertEquals(expected.getDouble(key), actual.getDouble(key), at + " " + key);
+        }
+        JSONObject expectedTypes = expected.getJSONObject("generatedByTypeMW");
+        JSONObject actualTypes = actual.getJSONObject("generatedByTypeMW");
+        assertEquals(expectedTypes.keySet(), actualTypes.keySet(), at);
+        for (String type : expectedTypes.keySet()) {
+            assertEquals(expectedTypes.getDouble(type), actualTypes.getDouble(type), at + " " + type);
+        }
+    }
+
+    private static JSONArray stream(ResultTable table, int from, int to) throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonStreamWriter(out).writeResults(table, from, to);
+        return new JSONArray(out.toString());
+    }
+
+    private static void assertSameRows(ResultTable table, int from, int to) throws IOException {
+        JSONArray streamed = stream(table, from, to);
+        assertEquals(to - from, streamed.length());
+        for (int row = from; row < to; row++) {
+            JSONObject expected = new SimulationResult(table, row).toJSONObject();
+            assertSameRow(expected, streamed.getJSONObject(row - from), "row " + row);
+        }
+    }
+
+    @Test
+    public void testSimulatedRun() throws IOException {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(50, 4L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 30000, 4L);
+        ResultTable table = new SimulationRun(engine, demand, START.plusMinutes(333), SimulationOptions.DEFAULT).toTable();
+        assertSameRows(table, 0, table.size());
+        assertSameRows(table, 100, 250);
+        assertSameRows(table, 7, 7);
+    }
+
+    @Test
+    public void testAwkwardNumbers() throws IOException {
+        double[] values = {0.0, 1e-7, 1e-6, 1.0000001e-6, 0.1 + 0.2, 1.0 / 3, 100.0, 1234567.5, 1e20, 1e21, 1.5e300,
+                Double.MIN_VALUE, 2160.000000001};
+        int rows = values.length;
+        double[] generated = new double[rows];
+        double[] demand = new double[rows];
+        double[] stability = new double[rows];
+        double[][] byType = new double[PlantType.COUNT][];
+        byType[PlantType.SOLAR.ordinal()] = new double[rows];
+        byType[PlantType.NUCLEAR.ordinal()] = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            generated[row] = values[row];
+            demand[row] = values[rows - 1 - row];
+            stability[row] = values[row] / (1 + values[row]);
+            byType[PlantType.SOLAR.ordinal()][row] = values[row];
+            byType[PlantType.NUCLEAR.ordinal()][row] = -values[row];
+        }
+        ResultTable table = new ResultTable(START.plusSeconds(30), 20, generated, demand, stability, byType);
+        assertSameRows(table, 0, rows);
+
+        // Numbers are also written as the same text
+        for (double value : values) {
+            assertEquals(JSONObject.numberToString(value), JsonStreamWriter.numberToString(value));
+            assertEquals(JSONObject.numberToString(-value), JsonStreamWriter.numberToString(-value));
+        }
+    }
+
+    @Test
+    public void testNonFiniteNumbersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JsonStreamWriter.numberToString(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> JsonStreamWriter.numberToString(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testStringEscapes() throws IOException {
+        String text = "a\"b\\c\b\f\n\r\t\u0001é€";
+        StringWriter out = new StringWriter();
+        new JsonStreamWriter(out).writeString(text);
+        assertEquals(text, new JSONArray("[" + out + "]").getString(0));
+    }
+}
@@ -0,0 +1,77 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonteCarloSimulatorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 6, 30);
+
+    private static final MonteCarloOptions OPTIONS = MonteCarloOptions.DEFAULT
+            .withTrials(1000)
+            .withHorizonMinutes(600)
+            .withSeed(1234L)
+            .withOutageProbability(0.1);
+
+    private static MonteCarloSimulator simulator(MonteCarloOptions options) {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(80, 15L));
+        return new MonteCarloSimulator(engine, TestFleet.demand(START.toLocalDate(), 2, 25000, 15L), START, options);
+    }
+
+    /**
+     * Run an analysis with its parallel stream on a pool of a given size.
+     */
+    private static MonteCarloResult runOn(int parallelism, MonteCarloOptions options) throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> simulator(options).run()).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameResult(MonteCarloResult expected, MonteCarloResult actual) {
+        assertEquals(expected.getTrials(), actual.getTrials());
+        for (double q : new double[]{0.0, 0.1, 0.5, 0.9, 0.95, 0.99, 1.0}) {
+            assertArrayEquals(expected.getStabilityCurve(q), actual.getStabilityCurve(q), "stability q " + q);
+            assertArrayEquals(expected.getUnmetDemandCurve(q), actual.getUnmetDemandCurve(q), "unmet demand q " + q);
+            assertEquals(expected.getUnservedEnergy().quantile(q), actual.getUnservedEnergy().quantile(q), "unserved q " + q);
+            assertEquals(expected.getMinStability().quantile(q), actual.getMinStability().quantile(q), "min stability q " + q);
+        }
+        assertEquals(expected.getUnservedEnergy().getCount(), actual.getUnservedEnergy().getCount());
+        assertEquals(expected.getUnservedEnergy().getMin(), actual.getUnservedEnergy().getMin());
+        assertEquals(expected.getUnservedEnergy().getMax(), actual.getUnservedEnergy().getMax());
+        assertEquals(expected.toJSONObject().toString(), actual.toJSONObject().toString());
+    }
+
+    @Test
+    public void testSameSeedSameResultWhateverTheParallelism() throws Exception {
+        MonteCarloResult common = simulator(OPTIONS).run();
+        assertEquals(1000, common.getTrials());
+        for (int parallelism : new int[]{1, 2, 3, 8}) {
+            assertSameResult(common, runOn(parallelism, OPTIONS));
+        }
+        assertSameResult(common, simulator(OPTIONS).run());
+    }
+
+    @Test
+    public void testPartialLastChunk() throws Exception {
+        // 3 chunks, the last one with 1 trial
+        MonteCarloOptions options = OPTIONS.withTrials(513);
+        MonteCarloResult sequential = runOn(1, options);
+        assertEquals(513, sequential.getTrials());
+        assertEquals(513, sequential.getUnservedEnergy().getCount());
+        assertSameResult(sequential, runOn(5, options));
+    }
+
+    @Test
+    public void testOtherSeedOtherResult() {
+        MonteCarloResult first = simulator(OPTIONS).run();
+        MonteCarloResult second = simulator(OPTIONS.withSeed(4321L)).run();
+        assertNotEquals(first.toJSONObject().toString(), second.toJSONObject().toString());
+    }
+}
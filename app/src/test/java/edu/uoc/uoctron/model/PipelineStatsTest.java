@@ -0,0 +1,84 @@
+package edu.uoc.uoctron.model;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineStatsTest {
+
+    @Test
+    public void testCountsWithRecordingOff() {
+        assertFalse(PipelineStats.isRecording());
+        long count = PipelineStats.getCount(PipelineStage.SERIALIZATION);
+        long rows = PipelineStats.getRows(PipelineStage.SERIALIZATION);
+        long bytes = PipelineStats.getAllocatedBytes(PipelineStage.SERIALIZATION);
+
+        PipelineStats.start(PipelineStage.SERIALIZATION).end(42);
+        assertEquals(count + 1, PipelineStats.getCount(PipelineStage.SERIALIZATION));
+        assertEquals(rows + 42, PipelineStats.getRows(PipelineStage.SERIALIZATION));
+        // Time and allocations are only measured while recording
+        assertEquals(bytes, PipelineStats.getAllocatedBytes(PipelineStage.SERIALIZATION));
+    }
+
+    @Test
+    public void testProbesAreSharedWithRecordingOff() {
+        assertFalse(PipelineStats.isRecording());
+        long nanos = PipelineStats.getNanos(PipelineStage.DISPATCH);
+        long count = PipelineStats.getCount(PipelineStage.DISPATCH);
+
+        PipelineStats.Probe probe = PipelineStats.start(PipelineStage.DISPATCH);
+        assertSame(probe, PipelineStats.start(PipelineStage.DISPATCH));
+        assertSame(probe, PipelineStats.startPhase(60));
+        assertNotSame(probe, PipelineStats.start(PipelineStage.SERIALIZATION));
+
+        // Ending the shared probe twice, as two overlapping runs would, counts both
+        probe.end(10);
+        probe.end(20);
+        assertEquals(count + 2, PipelineStats.getCount(PipelineStage.DISPATCH));
+        assertEquals(nanos, PipelineStats.getNanos(PipelineStage.DISPATCH));
+    }
+
+    @Test
+    public void testEventsWhileRecording() throws Exception {
+        Path file = Files.createTempFile("pipeline", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.uoc.uoctron.Pipeline").withThreshold(Duration.ZERO);
+            recording.start();
+            assertTrue(PipelineStats.isRecording());
+            assertNotSame(PipelineStats.start(PipelineStage.DISPATCH), PipelineStats.start(PipelineStage.DISPATCH));
+            long nanos = PipelineStats.getNanos(PipelineStage.DISPATCH);
+            PipelineStats.Probe phase = PipelineStats.startPhase(60);
+            PipelineStats.add(PipelineStage.SHEDDING, 1000, 7, phase);
+            Thread.sleep(2);
+            phase.end(30);
+            assertTrue(PipelineStats.getNanos(PipelineStage.DISPATCH) >= nanos + 2_000_000);
+            recording.stop();
+            recording.dump(file);
+
+            Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("edu.uoc.uoctron.Pipeline"))
+                    .collect(Collectors.toMap(e -> e.getString("stage"), Function.identity()));
+            assertEquals(2, events.size());
+            RecordedEvent shedding = events.get("Stability shedding");
+            assertEquals(7, shedding.getLong("rows"));
+            assertEquals(60, shedding.getInt("phaseStartMinute"));
+            assertEquals(1000, shedding.getLong("busyTime"));
+            RecordedEvent dispatch = events.get("Dispatch");
+            assertEquals(30, dispatch.getLong("rows"));
+            assertEquals(60, dispatch.getInt("phaseStartMinute"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertFalse(PipelineStats.isRecording());
+    }
+}
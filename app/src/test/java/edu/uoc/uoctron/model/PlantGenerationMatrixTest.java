@@ -0,0 +1,56 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlantGenerationMatrixTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    @Test
+    public void testPlantsAddUpToTheGeneration() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(60, 3L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 25000, 3L);
+        ResultTable table = new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).toTable();
+        PlantGenerationMatrix matrix = PlantGenerationMatrix.of(engine, table);
+
+        assertEquals(table.size(), matrix.size());
+        for (int row = 0; row < table.size(); row += 7) {
+            double total = 0.0;
+            for (double output : matrix.getRow(row)) {
+                total += output;
+            }
+            assertEquals(table.getGenerated(row), total, 1e-6 * Math.max(1.0, total), "row " + row);
+        }
+    }
+
+    @Test
+    public void testLastRowOfTheLargestMatrix() {
+        // The change at the last row is the largest code, and must not overflow
+        PlantGenerationMatrix.Builder builder = new PlantGenerationMatrix.Builder(new double[]{100.0, 50.0},
+                PlantGenerationMatrix.MAX_ROWS);
+        builder.set(0, 1, 100.0);
+        builder.set(1, 2, 20.0);
+        builder.set(0, PlantGenerationMatrix.MAX_ROWS - 1, 0.0);
+        builder.set(1, PlantGenerationMatrix.MAX_ROWS - 1, 50.0);
+        PlantGenerationMatrix matrix = builder.build();
+
+        int last = PlantGenerationMatrix.MAX_ROWS - 1;
+        assertEquals(100.0, matrix.getOutput(0, last - 1));
+        assertEquals(0.0, matrix.getOutput(0, last));
+        assertEquals(20.0, matrix.getOutput(1, last - 1));
+        assertEquals(50.0, matrix.getOutput(1, last));
+        assertEquals(100.0 * (last - 1) * 60 / 3600.0, matrix.getEnergyMWh(0, 0, last + 1, 60), 1e-6);
+    }
+
+    @Test
+    public void testTooManyRowsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlantGenerationMatrix.Builder(new double[1], PlantGenerationMatrix.MAX_ROWS + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlantGenerationMatrix.Builder(new double[1], Integer.MAX_VALUE));
+    }
+}
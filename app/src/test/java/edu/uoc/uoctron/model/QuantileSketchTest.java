@@ -0,0 +1,123 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+    /**
+     * The quantile the sketch estimates: the value at rank floor(q * (n - 1)) of the sorted values.
+     */
+    private static double exactQuantile(double[] sorted, double q) {
+        return sorted[(int) Math.floor(q * (sorted.length - 1))];
+    }
+
+    private static void assertWithinAccuracy(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double accuracy = sketch.getRelativeAccuracy();
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(sorted[0], sketch.getMin());
+        assertEquals(sorted[sorted.length - 1], sketch.getMax());
+        for (double q : QUANTILES) {
+            double exact = exactQuantile(sorted, q);
+            double estimate = sketch.quantile(q);
+            if (exact <= QuantileSketch.ZERO_THRESHOLD) {
+                assertEquals(Math.max(sorted[0], 0.0), estimate, "q " + q);
+            } else {
+                // A hair of slack for the rounding of the logarithms
+                assertEquals(exact, estimate, exact * accuracy * (1 + 1e-9), "q " + q + " accuracy " + accuracy);
+            }
+        }
+    }
+
+    private static QuantileSketch sketch(double accuracy, double[] values) {
+        QuantileSketch sketch = new QuantileSketch(accuracy);
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    @Test
+    public void testRelativeErrorBound() {
+        SplittableRandom random = new SplittableRandom(15L);
+        for (double accuracy : new double[]{0.001, 0.01, 0.05, 0.2}) {
+            double[] uniform = new double[10_000];
+            double[] logUniform = new double[10_000];
+            double[] withZeros = new double[10_000];
+            for (int i = 0; i < uniform.length; i++) {
+                uniform[i] = random.nextDouble(0.5, 40_000);
+                logUniform[i] = Math.pow(10, random.nextDouble(-6, 9));
+                withZeros[i] = random.nextInt(10) < 3 ? 0.0 : random.nextDouble(0, 1);
+            }
+            assertWithinAccuracy(uniform, sketch(accuracy, uniform));
+            assertWithinAccuracy(logUniform, sketch(accuracy, logUniform));
+            assertWithinAccuracy(withZeros, sketch(accuracy, withZeros));
+        }
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        // Powers of gamma sit exactly on bucket boundaries, and their neighbours on either side
+        for (double accuracy : new double[]{0.01, 0.05}) {
+            double gamma = (1 + accuracy) / (1 - accuracy);
+            double[] values = new double[600];
+            for (int i = 0; i < 200; i++) {
+                double boundary = Math.pow(gamma, i - 100);
+                values[3 * i] = boundary;
+                values[3 * i + 1] = Math.nextDown(boundary);
+                values[3 * i + 2] = Math.nextUp(boundary);
+            }
+            assertWithinAccuracy(values, sketch(accuracy, values));
+        }
+    }
+
+    @Test
+    public void testRepeatedAndSingleValues() {
+        double[] same = new double[1000];
+        Arrays.fill(same, 0.7);
+        assertWithinAccuracy(same, sketch(0.01, same));
+        // Clamped to the counted range, so a single value comes back exactly
+        assertEquals(0.7, sketch(0.01, same).quantile(0.5));
+        assertEquals(123.456, sketch(0.01, new double[]{123.456}).quantile(0.99));
+        assertTrue(Double.isNaN(new QuantileSketch(0.01).quantile(0.5)));
+        assertEquals(0.0, sketch(0.01, new double[]{-5.0, 0.0}).quantile(0.5));
+    }
+
+    @Test
+    public void testMergeEqualsOneSketch() {
+        SplittableRandom random = new SplittableRandom(16L);
+        double[] values = new double[20_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(20) == 0 ? 0.0 : Math.exp(random.nextDouble(-10, 15));
+        }
+        QuantileSketch whole = sketch(0.01, values);
+        // Parts with disjoint ranges make the merged counts grow on both sides
+        Arrays.sort(values);
+        QuantileSketch merged = new QuantileSketch(0.01);
+        for (int part = 0; part < 4; part++) {
+            merged.merge(sketch(0.01, Arrays.copyOfRange(values, part * 5000, (part + 1) * 5000)));
+        }
+        merged.merge(new QuantileSketch(0.01));
+
+        assertWithinAccuracy(values, merged);
+        for (double q : QUANTILES) {
+            assertEquals(whole.quantile(q), merged.quantile(q), "q " + q);
+        }
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(new QuantileSketch(0.05)));
+    }
+
+    @Test
+    public void testInvalidAccuracy() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0.0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1.0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(Double.NaN));
+    }
+}
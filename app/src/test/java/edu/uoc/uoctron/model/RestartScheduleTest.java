@@ -0,0 +1,102 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestartScheduleTest {
+
+    private static final int CC = PlantType.COMBINED_CYCLE.ordinal();
+
+    @Test
+    public void testDefaultPlan() {
+        RestartSchedule schedule = RestartSchedule.DEFAULT;
+        assertEquals(0, schedule.allowedMask(3));
+        assertEquals(PlantType.maskOf(PlantType.HYDROELECTRIC), schedule.allowedMask(4));
+        assertEquals(PlantType.maskOf(PlantType.HYDROELECTRIC, PlantType.WIND), schedule.allowedMask(60));
+        assertEquals(PlantType.ALL_MASK, schedule.allowedMask(1500));
+        assertEquals(PlantType.ALL_MASK, schedule.allowedMask(RestartSchedule.MAX_MINUTES + 1));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 999));
+        assertEquals(6119.5, schedule.capAt(CC, 1000));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 1001));
+        assertFalse(schedule.isNuclearTopUp(1499));
+        assertTrue(schedule.isNuclearTopUp(1500));
+        assertArrayEquals(new int[]{0, 4, 7, 61, 121, 1000, 1001, 1500}, schedule.getBoundaries());
+    }
+
+    @Test
+    public void testOverlappingCapsKeepTheLowest() {
+        RestartSchedule schedule = new RestartSchedule.Builder()
+                .allow(0, PlantType.ALL_MASK)
+                .cap(PlantType.COMBINED_CYCLE, 1000, 1100, 500.0)
+                .cap(PlantType.COMBINED_CYCLE, 1050, 1200, 800.0)
+                .build();
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 999));
+        assertEquals(500.0, schedule.capAt(CC, 1000));
+        assertEquals(500.0, schedule.capAt(CC, 1099));
+        // The first window ends, the second one still holds
+        assertEquals(800.0, schedule.capAt(CC, 1100));
+        assertEquals(800.0, schedule.capAt(CC, 1199));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 1200));
+
+        RestartSchedule nested = new RestartSchedule.Builder()
+                .cap(PlantType.COMBINED_CYCLE, 10, 100, 300.0)
+                .cap(PlantType.COMBINED_CYCLE, 40, 50, 100.0)
+                .cap(PlantType.COMBINED_CYCLE, 20, 30, 900.0)
+                .build();
+        assertEquals(300.0, nested.capAt(CC, 25));
+        assertEquals(100.0, nested.capAt(CC, 40));
+        assertEquals(300.0, nested.capAt(CC, 50));
+        assertEquals(Double.POSITIVE_INFINITY, nested.capAt(CC, 100));
+    }
+
+    @Test
+    public void testCapsOfOtherTypesAreIndependent() {
+        RestartSchedule schedule = new RestartSchedule.Builder()
+                .cap(PlantType.COMBINED_CYCLE, 0, 10, 100.0)
+                .cap(PlantType.COAL, 5, 20, 50.0)
+                .build();
+        assertEquals(100.0, schedule.capAt(CC, 5));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(CC, 10));
+        assertEquals(50.0, schedule.capAt(PlantType.COAL.ordinal(), 10));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.capAt(PlantType.WIND.ordinal(), 5));
+    }
+
+    @Test
+    public void testOrderOfCallsDoesNotMatter() {
+        RestartSchedule forward = new RestartSchedule.Builder()
+                .cap(PlantType.COMBINED_CYCLE, 1000, 1100, 500.0)
+                .cap(PlantType.COMBINED_CYCLE, 1050, 1200, 800.0)
+                .build();
+        RestartSchedule backward = new RestartSchedule.Builder()
+                .cap(PlantType.COMBINED_CYCLE, 1050, 1200, 800.0)
+                .cap(PlantType.COMBINED_CYCLE, 1000, 1100, 500.0)
+                .build();
+        assertEquals(forward, backward);
+        assertEquals(forward.getContentHash(), backward.getContentHash());
+    }
+
+    @Test
+    public void testMinutesAreBounded() {
+        RestartSchedule.Builder builder = new RestartSchedule.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.allow(-1, PlantType.ALL_MASK));
+        assertThrows(IllegalArgumentException.class, () -> builder.allow(RestartSchedule.MAX_MINUTES + 1, PlantType.ALL_MASK));
+        assertThrows(IllegalArgumentException.class, () -> builder.allow(Integer.MAX_VALUE, PlantType.ALL_MASK));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.cap(PlantType.COAL, 0, RestartSchedule.MAX_MINUTES + 1, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.cap(PlantType.COAL, 10, 10, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.cap(PlantType.COAL, 0, 10, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.cap(PlantType.COAL, 0, 10, Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> builder.nuclearTopUpFrom(RestartSchedule.MAX_MINUTES + 1));
+
+        RestartSchedule last = builder
+                .allow(RestartSchedule.MAX_MINUTES, PlantType.ALL_MASK)
+                .cap(PlantType.COAL, 0, RestartSchedule.MAX_MINUTES, 10.0)
+                .nuclearTopUpFrom(RestartSchedule.MAX_MINUTES)
+                .build();
+        assertEquals(0, last.allowedMask(RestartSchedule.MAX_MINUTES - 1));
+        assertEquals(PlantType.ALL_MASK, last.allowedMask(RestartSchedule.MAX_MINUTES));
+        assertEquals(10.0, last.capAt(PlantType.COAL.ordinal(), RestartSchedule.MAX_MINUTES - 1));
+        assertEquals(Double.POSITIVE_INFINITY, last.capAt(PlantType.COAL.ordinal(), RestartSchedule.MAX_MINUTES));
+    }
+}
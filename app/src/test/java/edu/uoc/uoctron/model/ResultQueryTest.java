@@ -0,0 +1,243 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultQueryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 13, 37);
+    private static final int ROWS = 2160;
+
+    /**
+     * A table with random values in every column, and no wind column.
+     */
+    private static ResultTable table(int rows, int stepSeconds) {
+        SplittableRandom random = new SplittableRandom(rows);
+        double[] generated = new double[rows];
+        double[] demand = new double[rows];
+        double[] stability = new double[rows];
+        double[][] byType = new double[PlantType.COUNT][];
+        for (int t = 0; t < PlantType.COUNT; t++) {
+            if (t != PlantType.WIND.ordinal()) {
+                byType[t] = new double[rows];
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            generated[row] = random.nextDouble(0, 40000);
+            demand[row] = random.nextDouble(0, 40000);
+            stability[row] = random.nextDouble();
+            for (double[] column : byType) {
+                if (column != null) {
+                    column[row] = random.nextDouble(0, 5000);
+                }
+            }
+        }
+        return new ResultTable(START, stepSeconds, generated, demand, stability, byType);
+    }
+
+    private static int[] rows(ResultQuery query, ResultTable table) {
+        ResultQuery.Selection selection = query.select(table);
+        assertSame(table, selection.getTable());
+        return new int[]{selection.getFromRow(), selection.getToRow()};
+    }
+
+    @Test
+    public void testRowAt() {
+        ResultTable table = table(ROWS, 60);
+        assertEquals(0, table.rowAt(START.minusDays(3)));
+        assertEquals(0, table.rowAt(START));
+        assertEquals(1, table.rowAt(START.plusMinutes(1)));
+        assertEquals(1, table.rowAt(START.plusSeconds(1)));
+        assertEquals(1, table.rowAt(START.plusNanos(1)));
+        assertEquals(2, table.rowAt(START.plusMinutes(1).plusNanos(1)));
+        assertEquals(ROWS - 1, table.rowAt(START.plusMinutes(ROWS - 1)));
+        assertEquals(ROWS, table.rowAt(START.plusMinutes(ROWS - 1).plusSeconds(1)));
+        assertEquals(ROWS, table.rowAt(START.plusYears(100)));
+
+        ResultTable halfMinutes = table(100, 30);
+        assertEquals(3, halfMinutes.rowAt(START.plusSeconds(90)));
+        assertEquals(4, halfMinutes.rowAt(START.plusSeconds(91)));
+        for (int row = 0; row < halfMinutes.size(); row++) {
+            assertEquals(row, halfMinutes.rowAt(halfMinutes.getTime(row)));
+        }
+    }
+
+    @Test
+    public void testAllRows() {
+        ResultTable table = table(ROWS, 60);
+        assertArrayEquals(new int[]{0, ROWS}, rows(ResultQuery.ALL, table));
+        assertArrayEquals(new int[]{0, ROWS}, rows(ResultQuery.ALL.withPoints(ROWS), table));
+        assertArrayEquals(new int[]{0, 0}, rows(ResultQuery.ALL, table(0, 60)));
+    }
+
+    @Test
+    public void testTimeRanges() {
+        ResultTable table = table(ROWS, 60);
+        assertArrayEquals(new int[]{60, 120}, rows(ResultQuery.ALL.withTimeRange(START.plusHours(1), START.plusHours(2)), table));
+        assertArrayEquals(new int[]{0, 120}, rows(ResultQuery.ALL.withTimeRange(null, START.plusHours(2)), table));
+        assertArrayEquals(new int[]{60, ROWS}, rows(ResultQuery.ALL.withTimeRange(START.plusHours(1), null), table));
+        assertArrayEquals(new int[]{0, ROWS},
+                rows(ResultQuery.ALL.withTimeRange(START.minusDays(1), START.plusDays(10)), table));
+
+        // Ends between rows: the first row at or after each end
+        assertArrayEquals(new int[]{61, 121},
+                rows(ResultQuery.ALL.withTimeRange(START.plusHours(1).plusSeconds(1), START.plusHours(2).plusSeconds(59)), table));
+        assertArrayEquals(new int[]{61, 61},
+                rows(ResultQuery.ALL.withTimeRange(START.plusMinutes(60).plusSeconds(10), START.plusMinutes(60).plusSeconds(50)), table));
+    }
+
+    @Test
+    public void testEmptyAndOutOfRangeWindows() {
+        ResultTable table = table(ROWS, 60);
+        LocalDateTime hour = START.plusHours(1);
+        assertEquals(0, ResultQuery.ALL.withTimeRange(hour, hour).select(table).size());
+        assertEquals(0, ResultQuery.ALL.withTimeRange(hour.plusMinutes(5), hour).select(table).size());
+        assertEquals(0, ResultQuery.ALL.withTimeRange(START.minusDays(2), START.minusDays(1)).select(table).size());
+        assertEquals(0, ResultQuery.ALL.withTimeRange(START.plusDays(10), START.plusDays(11)).select(table).size());
+        assertEquals(0, ResultQuery.ALL.withTimeRange(START.plusDays(10), null).select(table).size());
+        assertEquals(0, ResultQuery.ALL.withTimeRange(null, START).select(table).size());
+        // An empty window is never downsampled
+        assertSame(table, ResultQuery.ALL.withTimeRange(hour, hour).withPoints(10).select(table).getTable());
+    }
+
+    @Test
+    public void testPages() {
+        ResultTable table = table(ROWS, 60);
+        assertArrayEquals(new int[]{0, 100}, rows(ResultQuery.ALL.withPage(0, 100), table));
+        assertArrayEquals(new int[]{100, 200}, rows(ResultQuery.ALL.withPage(100, 100), table));
+        assertArrayEquals(new int[]{2100, ROWS}, rows(ResultQuery.ALL.withPage(2100, 100), table));
+        assertArrayEquals(new int[]{ROWS, ROWS}, rows(ResultQuery.ALL.withPage(ROWS, 100), table));
+        assertArrayEquals(new int[]{ROWS, ROWS}, rows(ResultQuery.ALL.withPage(ROWS + 1, 100), table));
+        assertArrayEquals(new int[]{ROWS, ROWS}, rows(ResultQuery.ALL.withPage(Integer.MAX_VALUE, Integer.MAX_VALUE), table));
+        assertArrayEquals(new int[]{5, 5}, rows(ResultQuery.ALL.withPage(5, 0), table));
+        assertArrayEquals(new int[]{5, ROWS}, rows(ResultQuery.ALL.withPage(5, Integer.MAX_VALUE), table));
+
+        // Consecutive pages cover the table once
+        int covered = 0;
+        for (int offset = 0; offset < ROWS; offset += 333) {
+            int[] page = rows(ResultQuery.ALL.withPage(offset, 333), table);
+            assertEquals(covered, page[0]);
+            covered = page[1];
+        }
+        assertEquals(ROWS, covered);
+
+        assertThrows(IllegalArgumentException.class, () -> ResultQuery.ALL.withPage(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> ResultQuery.ALL.withPage(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> ResultQuery.ALL.withPoints(-1));
+    }
+
+    @Test
+    public void testPagesCountFromTheTimeRange() {
+        ResultTable table = table(ROWS, 60);
+        ResultQuery hour = ResultQuery.ALL.withTimeRange(START.plusHours(1), START.plusHours(2));
+        assertArrayEquals(new int[]{70, 80}, rows(hour.withPage(10, 10), table));
+        assertArrayEquals(new int[]{110, 120}, rows(hour.withPage(50, 20), table));
+        assertArrayEquals(new int[]{120, 120}, rows(hour.withPage(60, 20), table));
+        assertArrayEquals(new int[]{120, 120}, rows(hour.withPage(1000, 20), table));
+    }
+
+    @Test
+    public void testDownsampleMeansMatchManualAverage() {
+        ResultTable table = table(ROWS, 60);
+        int from = 13;
+        int to = 1013;
+        int points = 7;
+        ResultTable downsampled = table.downsample(from, to, points);
+
+        // 1000 rows in 7 points: buckets of 143 rows, the last one of 142
+        assertEquals(7, downsampled.size());
+        assertEquals(143 * 60, downsampled.getStepSeconds());
+        for (int r = 0; r < downsampled.size(); r++) {
+            int start = from + r * 143;
+            int end = Math.min(to, start + 143);
+            assertEquals(table.getTime(start), downsampled.getTime(r));
+            assertEquals(mean(table.getGeneratedColumn(), start, end), downsampled.getGenerated(r), 1e-9);
+            assertEquals(mean(table.getExpectedDemandColumn(), start, end), downsampled.getExpectedDemand(r), 1e-9);
+            assertEquals(mean(table.getStabilityColumn(), start, end), downsampled.getAverageStability(r), 1e-12);
+            for (PlantType type : PlantType.values()) {
+                double expected = type == PlantType.WIND ? 0.0 : mean(table.getGeneratedByTypeColumn(type), start, end);
+                assertEquals(expected, downsampled.getGeneratedByType(r, type), 1e-9, type.name());
+            }
+        }
+    }
+
+    private static double mean(double[] column, int from, int to) {
+        double sum = 0.0;
+        for (int row = from; row < to; row++) {
+            sum += column[row];
+        }
+        return sum / (to - from);
+    }
+
+    @Test
+    public void testDownsampleSizes() {
+        ResultTable table = table(ROWS, 60);
+        for (int points : new int[]{1, 2, 3, 7, 100, 719, 720, 721, 1079, 1080, 2159, 2160, 5000}) {
+            ResultTable downsampled = table.downsample(0, ROWS, points);
+            assertTrue(downsampled.size() <= points, "points " + points);
+            int bucket = downsampled.getStepSeconds() / 60;
+            assertEquals((ROWS + bucket - 1) / bucket, downsampled.size(), "points " + points);
+            // Bucket means weighed by their lengths give back the total
+            double total = 0.0;
+            for (int r = 0; r < downsampled.size(); r++) {
+                total += downsampled.getGenerated(r) * (Math.min(ROWS, (r + 1) * bucket) - r * bucket);
+            }
+            assertEquals(mean(table.getGeneratedColumn(), 0, ROWS), total / ROWS, 1e-6, "points " + points);
+        }
+        assertEquals(1, table.downsample(5, 6, 10).size());
+        assertEquals(table.getGenerated(5), table.downsample(5, 6, 10).getGenerated(0));
+        assertEquals(0, table.downsample(5, 5, 10).size());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.downsample(-1, 10, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.downsample(0, ROWS + 1, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.downsample(10, 5, 5));
+        assertThrows(IllegalArgumentException.class, () -> table.downsample(0, 10, 0));
+    }
+
+    @Test
+    public void testQueryDownsamplesAfterRangeAndPage() {
+        ResultTable table = table(ROWS, 60);
+        // The range gives rows 60 to 180, the page rows 70 to 170, averaged into 10 buckets of 10 rows
+        ResultQuery query = ResultQuery.ALL.withTimeRange(START.plusHours(1), START.plusHours(3))
+                .withPage(10, 100).withPoints(10);
+        ResultQuery.Selection selection = query.select(table);
+        ResultTable downsampled = selection.getTable();
+
+        assertNotSame(table, downsampled);
+        assertEquals(0, selection.getFromRow());
+        assertEquals(10, selection.size());
+        assertEquals(600, downsampled.getStepSeconds());
+        assertEquals(START.plusMinutes(70), downsampled.getStartTime());
+        for (int r = 0; r < 10; r++) {
+            assertEquals(START.plusMinutes(70 + 10 * r), downsampled.getTime(r));
+            assertEquals(mean(table.getGeneratedColumn(), 70 + 10 * r, 80 + 10 * r), downsampled.getGenerated(r), 1e-9);
+        }
+
+        // As many points as rows or more: the rows are returned as they are
+        ResultQuery.Selection plain = query.withPoints(100).select(table);
+        assertSame(table, plain.getTable());
+        assertEquals(70, plain.getFromRow());
+        assertEquals(170, plain.getToRow());
+    }
+
+    @Test
+    public void testUnalignedRangeWithOtherStep() {
+        // 90-second rows: a range that starts and ends between rows
+        ResultTable table = table(400, 90);
+        ResultQuery query = ResultQuery.ALL.withTimeRange(START.plusSeconds(100), START.plusSeconds(100 + 90 * 50));
+        int[] selected = rows(query, table);
+        assertArrayEquals(new int[]{2, 52}, selected);
+        assertFalse(table.getTime(selected[0]).isBefore(START.plusSeconds(100)));
+        assertTrue(table.getTime(selected[0] - 1).isBefore(START.plusSeconds(100)));
+
+        ResultTable downsampled = query.withPoints(4).select(table).getTable();
+        assertEquals(4, downsampled.size());
+        assertEquals(13 * 90, downsampled.getStepSeconds());
+        assertEquals(table.getTime(2), downsampled.getStartTime());
+        assertEquals(mean(table.getExpectedDemandColumn(), 41, 52), downsampled.getExpectedDemand(3), 1e-9);
+    }
+}
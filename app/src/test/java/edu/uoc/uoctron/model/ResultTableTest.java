@@ -0,0 +1,130 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A compact table must read exactly like the table it was made from, in less memory.
+ */
+public class ResultTableTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 4, 12);
+
+    private static void assertSameRows(ResultTable expected, ResultTable actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStepSeconds(), actual.getStepSeconds());
+        for (int row = 0; row < expected.size(); row++) {
+            String at = "row " + row;
+            assertEquals(expected.getGenerated(row), actual.getGenerated(row), at);
+            assertEquals(expected.getExpectedDemand(row), actual.getExpectedDemand(row), at);
+            assertEquals(expected.getAverageStability(row), actual.getAverageStability(row), at);
+            for (PlantType type : PlantType.values()) {
+                assertEquals(expected.getGeneratedByType(row, type), actual.getGeneratedByType(row, type), at + " " + type);
+            }
+        }
+        assertArrayEquals(expected.getGeneratedColumn(), actual.getGeneratedColumn());
+        assertArrayEquals(expected.getExpectedDemandColumn(), actual.getExpectedDemandColumn());
+        assertArrayEquals(expected.getStabilityColumn(), actual.getStabilityColumn());
+        for (PlantType type : PlantType.values()) {
+            assertArrayEquals(expected.getGeneratedByTypeColumn(type), actual.getGeneratedByTypeColumn(type), type.name());
+        }
+    }
+
+    private static void assertCompactMatches(ResultTable table) {
+        ResultTable compact = table.compact();
+        assertSameRows(table, compact);
+        assertSame(compact, compact.compact());
+        assertSameRows(table.withStartTime(START.plusDays(1)), compact.withStartTime(START.plusDays(1)));
+
+        // Means are added up row by row either way, so they are the same to the bit
+        for (int points : new int[]{1, 7, 100, table.size()}) {
+            assertSameRows(table.downsample(0, table.size(), points), compact.downsample(0, table.size(), points));
+        }
+        int from = table.size() / 7;
+        int to = table.size() - table.size() / 5;
+        assertSameRows(table.downsample(from, to, 50), compact.downsample(from, to, 50));
+        assertSameRows(table.downsample(to, to, 10), compact.downsample(to, to, 10));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> compact.getGenerated(table.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> compact.getGenerated(-1));
+    }
+
+    @Test
+    public void testCompactRun() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(60, 31L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 3, 24000, 31L);
+        ResultTable table = new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).toTable();
+        assertCompactMatches(table);
+        assertTrue(table.compact().estimatedBytes() < table.estimatedBytes() / 2);
+    }
+
+    @Test
+    public void testCompactRunWithSubMinuteSteps() {
+        // The demand repeats for every step of a minute, so its column is stored as runs
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(40, 32L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 20000, 32L);
+        SimulationOptions options = SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(6)).withStep(Duration.ofSeconds(10));
+        ResultTable table = new SimulationRun(engine, demand, START, options).toTable();
+        assertCompactMatches(table);
+        assertTrue(table.compact().estimatedBytes() < table.estimatedBytes() / 10);
+    }
+
+    @Test
+    public void testCompactKeepsChangingColumnsDense() {
+        int rows = 300;
+        double[] generated = new double[rows];
+        double[] demand = new double[rows];
+        double[] stability = new double[rows];
+        double[][] byType = new double[PlantType.COUNT][];
+        byType[PlantType.SOLAR.ordinal()] = new double[rows];
+        byType[PlantType.WIND.ordinal()] = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            generated[row] = row * 1.5;
+            demand[row] = row < 100 ? 900.0 : 1100.0;
+            stability[row] = row < 150 ? 0.0 : -0.0;
+            byType[PlantType.SOLAR.ordinal()][row] = row / 99 * 10.0;
+        }
+        ResultTable table = new ResultTable(START, 60, generated, demand, stability, byType);
+        ResultTable compact = table.compact();
+        assertSameRows(table, compact);
+
+        // Every row differs, so the column is shared as it was
+        assertSame(generated, compact.getGeneratedColumn());
+        assertNotSame(demand, compact.getExpectedDemandColumn());
+        // Values are compared bit for bit, so -0.0 is not folded into 0.0
+        for (int row = 0; row < rows; row++) {
+            assertEquals(stability[row], compact.getAverageStability(row), "row " + row);
+        }
+        // A type that never generates is dropped, and reads as zero
+        assertEquals(0.0, compact.getGeneratedByType(5, PlantType.WIND));
+        assertArrayEquals(new double[rows], compact.getGeneratedByTypeColumn(PlantType.WIND));
+        // Demand, stability and solar are stored as runs, and the wind column is dropped
+        assertTrue(compact.estimatedBytes() < table.estimatedBytes() - 3 * 8L * rows);
+    }
+
+    @Test
+    public void testCompactEmptyAndTinyTables() {
+        assertCompactMatches(new ResultTable(START, 3));
+        ResultTable empty = new ResultTable(START, 0);
+        assertSameRows(empty, empty.compact());
+        assertEquals(0, empty.compact().downsample(0, 0, 5).size());
+    }
+
+    @Test
+    public void testUpdateFromCompactTable() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(50, 33L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 22000, 33L);
+        ResultTable previous = new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).toTable().compact();
+        double[] revised = new double[90];
+        Arrays.fill(revised, 27000.0);
+        DemandSeries revisedDemand = demand.withRevision(DemandSeries.toEpochMinute(START) + 400, revised);
+        ResultTable fresh = new SimulationRun(engine, revisedDemand, START, SimulationOptions.DEFAULT).toTable();
+        assertSameRows(fresh, new SimulationRun(engine, revisedDemand, START, SimulationOptions.DEFAULT).update(previous, engine));
+    }
+}
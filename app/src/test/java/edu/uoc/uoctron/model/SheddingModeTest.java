@@ -0,0 +1,88 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The closed-form shedding must give exactly the timeline of the stepped loop it replaces.
+ */
+public class SheddingModeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    private static void assertSameTimeline(List<PowerPlant> plants, DemandSeries demand, LocalDateTime start) {
+        DispatchEngine closedForm = new DispatchEngine(plants, SheddingMode.CLOSED_FORM);
+        DispatchEngine stepped = closedForm.withSheddingMode(SheddingMode.STEPPED);
+        ResultTable expected = new SimulationRun(stepped, demand, start, SimulationOptions.DEFAULT).toTable();
+        ResultTable actual = new SimulationRun(closedForm, demand, start, SimulationOptions.DEFAULT).toTable();
+
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            String at = start + " minute " + row;
+            assertEquals(expected.getGenerated(row), actual.getGenerated(row), at);
+            assertEquals(expected.getAverageStability(row), actual.getAverageStability(row), at);
+            for (PlantType type : PlantType.values()) {
+                assertEquals(expected.getGeneratedByType(row, type), actual.getGeneratedByType(row, type), at + " " + type);
+            }
+        }
+    }
+
+    @Test
+    public void testRenewableHeavyFleet() {
+        // Mostly solar and wind, so most minutes need shedding, over demand that crosses every plant boundary
+        List<PowerPlant> plants = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(5L);
+        for (int i = 0; i < 60; i++) {
+            plants.add(TestFleet.plant(i % 3 == 0 ? "Wind" : "Solar", 0.5 * random.nextInt(1, 2000), 0));
+        }
+        plants.add(TestFleet.plant("Hydroelectric", 1200, 0));
+        plants.add(TestFleet.plant("Combined cycle", 900, 0));
+        plants.add(TestFleet.plant("Coal", 400, 0));
+        plants.add(TestFleet.plant("Biomass", 75, 0));
+        plants.add(TestFleet.plant("Geothermal", 33.3, 0));
+        plants.add(TestFleet.plant("Nuclear", 1000, 0));
+
+        assertSameTimeline(plants, TestFleet.demand(START.toLocalDate(), 2, 30000, 5L), START);
+        assertSameTimeline(plants, TestFleet.demand(START.toLocalDate(), 2, 4000, 6L), START.plusMinutes(777));
+    }
+
+    @Test
+    public void testSyntheticFleets() {
+        for (long seed = 1; seed <= 8; seed++) {
+            List<PowerPlant> plants = TestFleet.random(25 * (int) seed, seed);
+            double base = 400.0 * plants.size();
+            assertSameTimeline(plants, TestFleet.demand(START.toLocalDate(), 3, base, seed), START.plusMinutes(97 * seed));
+        }
+    }
+
+    @Test
+    public void testEveryDemandLevel() {
+        // Sweep the demand in sub-step increments at the minutes of each restart phase
+        List<PowerPlant> plants = TestFleet.random(30, 11L);
+        DispatchEngine closedForm = new DispatchEngine(plants, SheddingMode.CLOSED_FORM);
+        DispatchEngine stepped = closedForm.withSheddingMode(SheddingMode.STEPPED);
+        DispatchState expected = new DispatchState();
+        DispatchState actual = new DispatchState();
+        for (int minute : new int[]{4, 7, 61, 121, 1000, 1500, 2000}) {
+            for (double demand = 0.0; demand < 40000.0; demand += 3.7) {
+                stepped.dispatch(minute, demand, expected);
+                closedForm.dispatch(minute, demand, actual);
+                String at = "minute " + minute + " demand " + demand;
+                assertEquals(expected.getGenerated(), actual.getGenerated(), at);
+                assertEquals(expected.getStability(), actual.getStability(), at);
+                for (PlantType type : PlantType.values()) {
+                    assertEquals(expected.getGeneratedByType(type), actual.getGeneratedByType(type), at + " " + type);
+                }
+            }
+        }
+        // The sweep went through both the shedding and the nuclear top-up
+        assertTrue(actual.sheddingIterations > 0);
+        assertTrue(actual.nuclearTopUps > 0);
+    }
+}
@@ -0,0 +1,194 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    private DispatchEngine engine;
+    private Simulation run;
+    private long tableBytes;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new DispatchEngine(TestFleet.random(40, 7L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 20000, 7L);
+        ResultTable table = new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).toTable();
+        run = new Simulation(0, START, table, engine, null);
+        tableBytes = table.compact().estimatedBytes();
+    }
+
+    private static Simulation bare(int minutes) {
+        return new Simulation(START, new ResultTable(START, minutes));
+    }
+
+    @Test
+    public void testEvictsOldestByCount() {
+        SimulationHistory history = new SimulationHistory(3, Long.MAX_VALUE);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(history.add(bare(10)).getId());
+        }
+
+        assertEquals(3, history.size());
+        assertNull(history.get(ids.get(0)));
+        assertNull(history.get(ids.get(1)));
+        for (int i = 2; i < 5; i++) {
+            assertEquals(ids.get(i), history.get(ids.get(i)).getId());
+        }
+        assertEquals(ids.get(4), history.latest().getId());
+        assertEquals(List.of(ids.get(2), ids.get(3), ids.get(4)), history.list().stream().map(Simulation::getId).toList());
+    }
+
+    @Test
+    public void testEvictsOldestByBytes() {
+        long bytes = bare(1000).getTable().compact().estimatedBytes();
+        SimulationHistory history = new SimulationHistory(100, bytes * 5 / 2);
+        long first = history.add(bare(1000)).getId();
+        long second = history.add(bare(1000)).getId();
+        assertEquals(2, history.size());
+        assertEquals(2 * bytes, history.getRetainedBytes());
+
+        long third = history.add(bare(1000)).getId();
+        assertEquals(2, history.size());
+        assertNull(history.get(first));
+        assertNotNull(history.get(second));
+        assertNotNull(history.get(third));
+        assertEquals(2 * bytes, history.getRetainedBytes());
+        assertTrue(history.getRetainedBytes() <= history.getMaxBytes());
+    }
+
+    @Test
+    public void testNewestIsAlwaysKept() {
+        SimulationHistory history = new SimulationHistory(10, 1);
+        history.add(bare(100));
+        Simulation newest = history.add(bare(100));
+
+        assertEquals(1, history.size());
+        assertSame(newest, history.latest());
+        assertSame(newest, history.get(newest.getId()));
+        assertTrue(history.getRetainedBytes() > history.getMaxBytes());
+    }
+
+    @Test
+    public void testSharedEngineIsCountedOnce() {
+        SimulationHistory history = new SimulationHistory(10, Long.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            history.add(run);
+        }
+        assertEquals(3 * tableBytes + engine.estimatedBytes(), history.getRetainedBytes());
+    }
+
+    @Test
+    public void testRegionalEnginesAreCountedAndReleased() {
+        SimulationHistory history = new SimulationHistory(2, Long.MAX_VALUE);
+        DispatchEngine first = engine.withBlackoutRegion(new int[]{0, 1});
+        DispatchEngine second = engine.withBlackoutRegion(new int[]{0, 1});
+        history.add(new Simulation(0, START, run.getTable(), first, null));
+        history.add(new Simulation(0, START, run.getTable(), second, null));
+        assertEquals(2 * tableBytes + first.estimatedBytes() + second.estimatedBytes(), history.getRetainedBytes());
+
+        // Evicting the only run of an engine releases it
+        history.add(bare(100));
+        assertEquals(tableBytes + second.estimatedBytes() + bare(100).getTable().compact().estimatedBytes(),
+                history.getRetainedBytes());
+    }
+
+    @Test
+    public void testPlantGenerationIsCounted() {
+        SimulationHistory history = new SimulationHistory(10, Long.MAX_VALUE);
+        Simulation stored = history.add(run);
+        long before = history.getRetainedBytes();
+
+        PlantGenerationMatrix matrix = stored.getPlantGeneration();
+        assertNotNull(matrix);
+        assertEquals(before + matrix.estimatedBytes(), history.getRetainedBytes());
+
+        // Built once, counted once
+        assertSame(matrix, stored.getPlantGeneration());
+        assertEquals(before + matrix.estimatedBytes(), history.getRetainedBytes());
+    }
+
+    @Test
+    public void testPlantGenerationEvictsOlderRuns() {
+        long matrixBytes = PlantGenerationMatrix.of(engine, run.getTable()).estimatedBytes();
+        SimulationHistory history = new SimulationHistory(10, 2 * tableBytes + engine.estimatedBytes() + matrixBytes / 2);
+        Simulation older = history.add(run);
+        Simulation newer = history.add(run);
+        assertEquals(2, history.size());
+
+        newer.getPlantGeneration();
+        assertEquals(1, history.size());
+        assertNull(history.get(older.getId()));
+        assertEquals(tableBytes + engine.estimatedBytes() + matrixBytes, history.getRetainedBytes());
+
+        // The matrix of an evicted run is no longer counted, nor built into the history
+        SimulationHistory small = new SimulationHistory(1, Long.MAX_VALUE);
+        Simulation evicted = small.add(run);
+        small.add(bare(10));
+        assertNotNull(evicted.getPlantGeneration());
+        assertEquals(bare(10).getTable().compact().estimatedBytes(), small.getRetainedBytes());
+    }
+
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        int threads = 8;
+        int perThread = 250;
+        SimulationHistory history = new SimulationHistory(64, Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(history.add(run).getId());
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            List<Long> added = future.get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < added.size(); i++) {
+                assertTrue(added.get(i) > added.get(i - 1));
+            }
+            ids.addAll(added);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(64, history.size());
+        List<Simulation> kept = history.list();
+        for (int i = 0; i < kept.size(); i++) {
+            assertEquals(threads * perThread - 63 + i, kept.get(i).getId());
+        }
+        assertEquals(64 * tableBytes + engine.estimatedBytes(), history.getRetainedBytes());
+    }
+
+    @Test
+    public void testNewHistoryIsEmpty() {
+        SimulationHistory history = new SimulationHistory(4, 1024);
+        assertTrue(history.isEmpty());
+        assertNull(history.latest());
+        assertEquals(0, history.getRetainedBytes());
+    }
+}
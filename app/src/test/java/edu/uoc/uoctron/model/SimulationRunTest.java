@@ -0,0 +1,191 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Updating a run after its inputs changed must give exactly the table of a fresh run, and
+ * streaming a run must give the rows of its table.
+ */
+public class SimulationRunTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 5, 21, 13, 37);
+
+    private static void assertSameTable(ResultTable expected, ResultTable actual) {
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStepSeconds(), actual.getStepSeconds());
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            String at = "row " + row;
+            assertEquals(expected.getExpectedDemand(row), actual.getExpectedDemand(row), at);
+            assertEquals(expected.getGenerated(row), actual.getGenerated(row), at);
+            assertEquals(expected.getAverageStability(row), actual.getAverageStability(row), at);
+            for (PlantType type : PlantType.values()) {
+                assertEquals(expected.getGeneratedByType(row, type), actual.getGeneratedByType(row, type), at + " " + type);
+            }
+        }
+    }
+
+    /**
+     * Revise some minutes, then check that updating the run over the old demand matches a fresh run.
+     */
+    private static void assertRevisionMatches(DispatchEngine engine, DemandSeries demand, LocalDateTime start,
+                                              SimulationOptions options, long fromMinute, int minutes) {
+        ResultTable previous = new SimulationRun(engine, demand, start, options).toTable();
+        double[] revised = new double[minutes];
+        for (int i = 0; i < minutes; i++) {
+            revised[i] = 500.0 + 97.0 * i;
+        }
+        DemandSeries revisedDemand = demand.withRevision(fromMinute, revised);
+
+        ResultTable fresh = new SimulationRun(engine, revisedDemand, start, options).toTable();
+        ResultTable updated = new SimulationRun(engine, revisedDemand, start, options).update(previous, engine);
+        assertSameTable(fresh, updated);
+    }
+
+    /**
+     * Stream a run step by step and check each step against the table of the same run.
+     */
+    private static void assertStreamMatchesTable(DispatchEngine engine, DemandSeries demand, LocalDateTime start,
+                                                 SimulationOptions options) {
+        ResultTable table = new SimulationRun(engine, demand, start, options).toTable();
+        SimulationRun run = new SimulationRun(engine, demand, start, options);
+        int[] steps = {0};
+        run.forEachRemaining(current -> {
+            int row = steps[0]++;
+            String at = "step " + row;
+            assertEquals(row, current.getStep(), at);
+            assertEquals((long) row * options.getStepSeconds(), current.getElapsedSeconds(), at);
+            assertEquals(table.getTime(row), current.getTime(), at);
+            assertEquals(table.getExpectedDemand(row), current.getExpectedDemand(), at);
+            // Every step within a minute reads the demand of that minute
+            assertEquals(demand.getDemand(current.getTime()), current.getExpectedDemand(), at);
+            DispatchState state = current.getState();
+            assertEquals(table.getGenerated(row), state.getGenerated(), at);
+            assertEquals(table.getAverageStability(row), state.getStability(), at);
+            for (PlantType type : PlantType.values()) {
+                assertEquals(table.getGeneratedByType(row, type), state.getGeneratedByType(type), at + " " + type);
+            }
+        });
+        assertEquals(options.getSteps(), steps[0]);
+        assertEquals(table.size(), steps[0]);
+        assertFalse(run.next());
+    }
+
+    @Test
+    public void testRevisedRanges() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(60, 20L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 3, 25000, 20L);
+        long start = DemandSeries.toEpochMinute(START);
+        SimulationOptions options = SimulationOptions.DEFAULT;
+
+        // Inside the run, at its first minute, across midnight, past its end, and over all of it
+        assertRevisionMatches(engine, demand, START, options, start + 300, 60);
+        assertRevisionMatches(engine, demand, START, options, start, 1);
+        assertRevisionMatches(engine, demand, START, options, start - 10, 20);
+        assertRevisionMatches(engine, demand, START, options, DemandSeries.toEpochMinute(START.toLocalDate().plusDays(1).atStartOfDay()) - 30, 90);
+        assertRevisionMatches(engine, demand, START, options, start + 2150, 40);
+        assertRevisionMatches(engine, demand, START, options, start + 3000, 40);
+        assertRevisionMatches(engine, demand, START, options, start, 2160);
+        // Around the restart steps of the default schedule
+        for (int minute : new int[]{4, 7, 61, 121, 1000, 1500}) {
+            assertRevisionMatches(engine, demand, START, options, start + minute - 1, 3);
+        }
+    }
+
+    @Test
+    public void testRevisedRangesWithOtherSteps() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(40, 21L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 18000, 21L);
+        LocalDateTime start = START.withSecond(45);
+        long first = DemandSeries.toEpochMinute(start);
+        for (int stepSeconds : new int[]{15, 30, 90, 300}) {
+            SimulationOptions options = SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(stepSeconds))
+                    .withHorizon(Duration.ofHours(12));
+            assertRevisionMatches(engine, demand, start, options, first + 5, 7);
+            assertRevisionMatches(engine, demand, start, options, first + 119, 2);
+        }
+    }
+
+    @Test
+    public void testRevisionTogetherWithFleetChange() {
+        List<PowerPlant> plants = new ArrayList<>(TestFleet.random(50, 22L));
+        DispatchEngine before = new DispatchEngine(plants);
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 22000, 22L);
+        ResultTable previous = new SimulationRun(before, demand, START, SimulationOptions.DEFAULT).toTable();
+
+        plants.add(TestFleet.plant("Solar", 1500, 400));
+        DispatchEngine after = new DispatchEngine(plants);
+        double[] revised = new double[120];
+        Arrays.fill(revised, 31000.0);
+        DemandSeries revisedDemand = demand.withRevision(DemandSeries.toEpochMinute(START) + 700, revised);
+
+        ResultTable fresh = new SimulationRun(after, revisedDemand, START, SimulationOptions.DEFAULT).toTable();
+        ResultTable updated = new SimulationRun(after, revisedDemand, START, SimulationOptions.DEFAULT).update(previous, before);
+        assertSameTable(fresh, updated);
+    }
+
+    @Test
+    public void testRevisionInOneDaySeries() {
+        // A one-day forecast repeats, so a revision reaches the run on every day it covers
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(30, 23L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 1, 15000, 23L);
+        assertRevisionMatches(engine, demand, START, SimulationOptions.DEFAULT,
+                DemandSeries.toEpochMinute(START.toLocalDate().atTime(14, 0)), 30);
+        assertRevisionMatches(engine, demand, START.plusDays(9), SimulationOptions.DEFAULT,
+                DemandSeries.toEpochMinute(START.toLocalDate().atTime(23, 50)), 20);
+    }
+
+    @Test
+    public void testUnrelatedPreviousRunIsRecomputed() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(30, 24L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 15000, 24L);
+        ResultTable fresh = new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).toTable();
+
+        ResultTable otherStart = new SimulationRun(engine, demand, START.plusMinutes(1), SimulationOptions.DEFAULT).toTable();
+        ResultTable otherStep = new SimulationRun(engine, demand, START,
+                SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(30))).toTable();
+        assertSameTable(fresh, new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).update(otherStart, engine));
+        assertSameTable(fresh, new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).update(otherStep, engine));
+        assertSameTable(fresh, new SimulationRun(engine, demand, START, SimulationOptions.DEFAULT).update(fresh, null));
+    }
+
+    @Test
+    public void testStreamMatchesTable() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(50, 25L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 3, 21000, 25L);
+        assertStreamMatchesTable(engine, demand, START, SimulationOptions.DEFAULT);
+        assertStreamMatchesTable(engine, demand, START, SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(50)));
+        assertStreamMatchesTable(engine, demand, START, SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(9))
+                .withStep(Duration.ofMinutes(7)));
+        assertStreamMatchesTable(engine.withSheddingMode(SheddingMode.STEPPED), demand, START,
+                SimulationOptions.DEFAULT.withHorizon(Duration.ofHours(6)).withStep(Duration.ofMinutes(2)));
+    }
+
+    @Test
+    public void testStreamMatchesTableWithSubMinuteSteps() {
+        DispatchEngine engine = new DispatchEngine(TestFleet.random(40, 26L));
+        DemandSeries demand = TestFleet.demand(START.toLocalDate(), 2, 19000, 26L);
+        for (int stepSeconds : new int[]{1, 15, 20, 45}) {
+            SimulationOptions options = SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(stepSeconds))
+                    .withHorizon(Duration.ofHours(2));
+            assertStreamMatchesTable(engine, demand, START, options);
+            assertStreamMatchesTable(engine, demand, START.withSecond(40), options);
+        }
+
+        // A 20-second step repeats the demand of each minute three times
+        SimulationOptions options = SimulationOptions.DEFAULT.withStep(Duration.ofSeconds(20)).withHorizon(Duration.ofMinutes(30));
+        ResultTable minutes = new SimulationRun(engine, demand, START,
+                SimulationOptions.DEFAULT.withHorizon(Duration.ofMinutes(30))).toTable();
+        SimulationRun run = new SimulationRun(engine, demand, START, options);
+        run.forEachRemaining(current -> assertEquals(minutes.getExpectedDemand(current.getStep() / 3),
+                current.getExpectedDemand(), "step " + current.getStep()));
+    }
+}
@@ -0,0 +1,149 @@
+package edu.uoc.uoctron.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Region selection through the grid must return exactly what a scan over every plant returns.
+ */
+public class SpatialIndexTest {
+
+    private static List<PowerPlant> fleet(int count, long seed, double minLat, double maxLat, double minLon, double maxLon) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PowerPlant> plants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double latitude = random.nextDouble(minLat, maxLat);
+            double longitude = random.nextDouble(minLon, maxLon);
+            if (random.nextInt(50) == 0) {
+                latitude = Double.NaN;
+            }
+            plants.add(TestFleet.plant("Wind", 10, 0, latitude, longitude));
+        }
+        return plants;
+    }
+
+    private static int[] bruteCircle(List<PowerPlant> plants, double latitude, double longitude, double radiusKm) {
+        return IntStream.range(0, plants.size())
+                .filter(i -> Double.isFinite(plants.get(i).getLatitude()) && Double.isFinite(plants.get(i).getLongitude()))
+                .filter(i -> SpatialIndex.distanceKm(latitude, longitude, plants.get(i).getLatitude(),
+                        plants.get(i).getLongitude()) <= radiusKm)
+                .toArray();
+    }
+
+    private static int[] brutePolygon(List<PowerPlant> plants, double[] lats, double[] lons) {
+        return IntStream.range(0, plants.size()).filter(i -> {
+            double latitude = plants.get(i).getLatitude();
+            double longitude = plants.get(i).getLongitude();
+            boolean inside = false;
+            for (int v = 0, w = lats.length - 1; v < lats.length; w = v++) {
+                if ((lats[v] > latitude) != (lats[w] > latitude)
+                        && longitude < (lons[w] - lons[v]) * (latitude - lats[v]) / (lats[w] - lats[v]) + lons[v]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }).toArray();
+    }
+
+    @Test
+    public void testCirclesMatchBruteForce() {
+        SplittableRandom random = new SplittableRandom(16L);
+        List<PowerPlant> iberia = fleet(2000, 1L, 36.0, 43.8, -9.5, 3.3);
+        List<PowerPlant> world = fleet(3000, 2L, -89.9, 89.9, -180.0, 180.0);
+        for (List<PowerPlant> plants : List.of(iberia, world)) {
+            SpatialIndex index = new SpatialIndex(plants);
+            for (int q = 0; q < 300; q++) {
+                double latitude = random.nextDouble(-90.0, 90.0);
+                double longitude = random.nextDouble(-180.0, 180.0);
+                if (plants == iberia) {
+                    latitude = random.nextDouble(35.0, 45.0);
+                    longitude = random.nextDouble(-11.0, 5.0);
+                }
+                double radiusKm = Math.pow(10, random.nextDouble(0, 4.3));
+                String at = latitude + ", " + longitude + " r " + radiusKm;
+                assertArrayEquals(bruteCircle(plants, latitude, longitude, radiusKm),
+                        index.withinRadius(latitude, longitude, radiusKm), at);
+            }
+        }
+    }
+
+    @Test
+    public void testCirclesAcrossTheAntimeridian() {
+        // Plants on both sides of the antimeridian, e.g., Fiji
+        List<PowerPlant> plants = fleet(1000, 3L, -20.0, -15.0, 176.0, 180.0);
+        plants.addAll(fleet(1000, 4L, -20.0, -15.0, -180.0, -177.0));
+        plants.addAll(fleet(200, 5L, -20.0, -15.0, 0.0, 10.0));
+        SpatialIndex index = new SpatialIndex(plants);
+        for (double longitude : new double[]{179.9, 179.0, 178.5, -179.9, -179.0, 180.0, -180.0}) {
+            for (double radiusKm : new double[]{5, 50, 150, 400, 1000}) {
+                int[] expected = bruteCircle(plants, -17.5, longitude, radiusKm);
+                assertArrayEquals(expected, index.withinRadius(-17.5, longitude, radiusKm), longitude + " r " + radiusKm);
+            }
+        }
+        // A circle centered east of the line finds plants west of it
+        int[] found = index.withinRadius(-17.5, 179.9, 150);
+        assertTrue(IntStream.of(found).anyMatch(i -> plants.get(i).getLongitude() < 0));
+        assertTrue(IntStream.of(found).anyMatch(i -> plants.get(i).getLongitude() > 0));
+    }
+
+    @Test
+    public void testPolygonsMatchBruteForce() {
+        SplittableRandom random = new SplittableRandom(17L);
+        List<PowerPlant> plants = fleet(3000, 6L, 36.0, 43.8, -9.5, 3.3);
+        SpatialIndex index = new SpatialIndex(plants);
+        for (int q = 0; q < 300; q++) {
+            // Random star-shaped polygons, some of them reaching out of the grid
+            int vertices = random.nextInt(3, 12);
+            double centerLat = random.nextDouble(34.0, 46.0);
+            double centerLon = random.nextDouble(-12.0, 6.0);
+            double[] lats = new double[vertices];
+            double[] lons = new double[vertices];
+            for (int v = 0; v < vertices; v++) {
+                double angle = 2 * Math.PI * v / vertices;
+                double radius = random.nextDouble(0.05, 6.0);
+                lats[v] = centerLat + radius * Math.sin(angle);
+                lons[v] = centerLon + radius * Math.cos(angle);
+            }
+            assertArrayEquals(brutePolygon(plants, lats, lons), index.withinPolygon(lats, lons), "polygon " + q);
+        }
+    }
+
+    @Test
+    public void testPolygonsAcrossTheAntimeridianAreRejected() {
+        SpatialIndex index = new SpatialIndex(fleet(100, 7L, -20.0, -15.0, 176.0, 180.0));
+        double[] lats = {-20.0, -20.0, -15.0, -15.0};
+        double[] across = {179.0, -179.0, -179.0, 179.0};
+        assertThrows(IllegalArgumentException.class, () -> index.withinPolygon(lats, across));
+        assertThrows(IllegalArgumentException.class, () -> BlackoutRegion.polygon(lats, across));
+
+        // Split at the line, each half is a valid polygon
+        double[] east = {179.0, 180.0, 180.0, 179.0};
+        double[] west = {-180.0, -179.0, -179.0, -180.0};
+        assertDoesNotThrow(() -> BlackoutRegion.polygon(lats, east).select(index));
+        assertDoesNotThrow(() -> BlackoutRegion.polygon(lats, west).select(index));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BlackoutRegion.polygon(new double[]{0, 1, Double.NaN}, new double[]{0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> BlackoutRegion.polygon(new double[]{0, 1}, new double[]{0, 1}));
+    }
+
+    @Test
+    public void testEmptyAndUnlocatedFleets() {
+        SpatialIndex empty = new SpatialIndex(List.of());
+        assertEquals(0, empty.withinRadius(40, -3, 1000).length);
+        List<PowerPlant> unlocated = List.of(TestFleet.plant("Wind", 10, 0, Double.NaN, Double.NaN));
+        assertEquals(0, new SpatialIndex(unlocated).withinRadius(0, 0, 20000).length);
+
+        // Every plant of one location, and a radius covering the whole Earth
+        List<PowerPlant> stacked = fleet(50, 8L, 40.0, 40.0 + 1e-12, -3.0, -3.0 + 1e-12);
+        SpatialIndex index = new SpatialIndex(stacked);
+        assertArrayEquals(bruteCircle(stacked, 40.0, -3.0, 1), index.withinRadius(40.0, -3.0, 1));
+        assertArrayEquals(bruteCircle(stacked, -40.0, 177.0, 21000), index.withinRadius(-40.0, 177.0, 21000));
+    }
+}
@@ -0,0 +1,84 @@
+package edu.uoc.uoctron.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Small fleets and demand curves built in memory for the model tests.
+ */
+final class TestFleet {
+
+    private static final String[] RENEWABLE = {"Hydroelectric", "Wind", "Solar", "Geothermal"};
+    private static final FuelType[] THERMAL = FuelType.values();
+
+    private TestFleet() {
+    }
+
+    /**
+     * Create a plant of a type, by its label (e.g., "Combined cycle").
+     */
+    static PowerPlant plant(String type, double capacity, int restartMinutes) {
+        return plant(type, capacity, restartMinutes, 40.0, -3.7);
+    }
+
+    static PowerPlant plant(String type, double capacity, int restartMinutes, double latitude, double longitude) {
+        String name = type + " " + capacity;
+        return switch (type) {
+            case "Nuclear" -> new NuclearPlant(name, name, "City", capacity, "", restartMinutes, 1.0, "", latitude, longitude);
+            case "Biomass" -> thermal(name, capacity, restartMinutes, latitude, longitude, FuelType.BIOMASS);
+            case "Coal" -> thermal(name, capacity, restartMinutes, latitude, longitude, FuelType.COAL);
+            case "Combined cycle" -> thermal(name, capacity, restartMinutes, latitude, longitude, FuelType.COMBINED_CYCLE);
+            case "Fuel gas" -> thermal(name, capacity, restartMinutes, latitude, longitude, FuelType.FUEL_GAS);
+            default -> new RenewablePlant(name, name, "City", capacity, "", restartMinutes, 0.5, "", latitude, longitude, type);
+        };
+    }
+
+    private static PowerPlant thermal(String name, double capacity, int restartMinutes, double latitude, double longitude,
+                                      FuelType fuel) {
+        return new ThermalPlant(name, name, "City", capacity, "", restartMinutes, 0.8, "", latitude, longitude, fuel);
+    }
+
+    /**
+     * Create a random fleet of every type, with capacities on a 0.5 MW grid, some restart delays
+     * and, for solar, efficiencies below 1.
+     */
+    static List<PowerPlant> random(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<PowerPlant> plants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(RENEWABLE.length + THERMAL.length + 1);
+            double capacity = 0.5 * random.nextInt(1, 4000);
+            int restartMinutes = random.nextInt(4) == 0 ? random.nextInt(0, 1800) : 0;
+            double latitude = random.nextDouble(36.0, 43.5);
+            double longitude = random.nextDouble(-9.5, 3.3);
+            PowerPlant plant;
+            if (kind < RENEWABLE.length) {
+                plant = plant(RENEWABLE[kind], capacity, restartMinutes, latitude, longitude);
+                if (plant instanceof RenewablePlant renewable && kind == 2) {
+                    renewable.setEfficiency(0.25 * random.nextInt(1, 5));
+                }
+            } else if (kind < RENEWABLE.length + THERMAL.length) {
+                plant = thermal("Thermal " + i, capacity, restartMinutes, latitude, longitude, THERMAL[kind - RENEWABLE.length]);
+            } else {
+                plant = plant("Nuclear", capacity, restartMinutes, latitude, longitude);
+            }
+            plants.add(plant);
+        }
+        return plants;
+    }
+
+    /**
+     * Create a demand curve over whole days from midnight, around a base load.
+     */
+    static DemandSeries demand(LocalDate firstDay, int days, double base, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[days * 1440];
+        for (int i = 0; i < values.length; i++) {
+            double daily = Math.sin(2 * Math.PI * (i % 1440) / 1440.0);
+            values[i] = Math.round(base * (1.0 + 0.25 * daily) + random.nextDouble(-0.05, 0.05) * base);
+        }
+        return DemandSeries.of(firstDay.toEpochDay() * 1440, values);
+    }
+}
@@ -0,0 +1,89 @@
+package edu.uoc.uoctron.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic plant and demand files in the same text formats as
+ * {@code plants.txt} and {@code demand_forecast.txt}.
+ * The type mix and capacities follow the reference fleet (39 plants, about 45 GW),
+ * and the demand curve scales with the installed capacity, so every restart phase
+ * is exercised whatever the size of the fleet.
+ */
+public class SyntheticFleet {
+
+    /** File type keys with their share of plants and mean capacity in the reference fleet. */
+    private static final String[] TYPES = {"NUCLEAR", "HYDRO", "COMBINED_CYCLE", "COAL", "WIND", "SOLAR", "BIOMASS", "GEOTHERMAL", "FUEL_GAS"};
+    private static final int[] SHARES = {7, 7, 5, 4, 4, 5, 2, 2, 3};
+    private static final double[] MEAN_CAPACITY_MW = {1314.3, 1316.1, 1422.5, 740.6, 490.6, 732.5, 45.0, 22.5, 841.7};
+
+    private static final double REFERENCE_PLANTS = 39;
+    private static final double REFERENCE_PEAK_DEMAND_MW = 31000.0;
+
+    private SyntheticFleet() {
+    }
+
+    /**
+     * Write a plants file with the given number of plants.
+     * @param file The file to write.
+     * @param plants The number of plants.
+     * @param seed The seed of the generator, so fleets are reproducible.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writePlants(Path file, int plants, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int totalShares = 0;
+        for (int share : SHARES) {
+            totalShares += share;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# type,name,latitude,longitude,city,maxCapacityMW");
+            writer.newLine();
+            for (int i = 0; i < plants; i++) {
+                int pick = random.nextInt(totalShares);
+                int type = 0;
+                while (pick >= SHARES[type]) {
+                    pick -= SHARES[type];
+                    type++;
+                }
+                double capacity = Math.round(MEAN_CAPACITY_MW[type] * (0.5 + random.nextDouble()) * 10.0) / 10.0;
+                double latitude = 36.0 + random.nextDouble() * 7.8;
+                double longitude = -9.3 + random.nextDouble() * 12.6;
+
+                writer.write(String.format(Locale.ROOT, "%s, Synthetic plant %d, %.5f, %.5f, City %d, %.1f",
+                        TYPES[type], i, latitude, longitude, i % 500, capacity));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Write a one-day minute demand file scaled to a fleet of the given size.
+     * @param file The file to write.
+     * @param plants The number of plants of the fleet the demand is meant for.
+     * @param seed The seed of the generator.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeDemand(Path file, int plants, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double peak = REFERENCE_PEAK_DEMAND_MW * plants / REFERENCE_PLANTS;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# time,demand");
+            writer.newLine();
+            for (int minute = 0; minute < 1440; minute++) {
+                // Daily curve: valley around 04:00, peak around 20:00, plus a little noise
+                double shape = 0.775 + 0.225 * Math.sin((minute - 720) * Math.PI / 720.0 - Math.PI / 3);
+                double demand = peak * shape * (0.99 + random.nextDouble() * 0.02);
+                writer.write(String.format(Locale.ROOT, "%02d:%02d,%.1f", minute / 60, minute % 60, demand));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package edu.uoc.uoctron.benchmark;
+
+import edu.uoc.uoctron.controller.DataCatalog;
+import edu.uoc.uoctron.controller.UOCtronController;
+import edu.uoc.uoctron.model.PowerPlant;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmarks of the controller pipeline over synthetic fleets of growing size.
+ * Run {@link #main(String[])}, e.g., with {@code java -jar benchmarks/target/benchmarks.jar} after
+ * {@code mvn package}, to get the results with allocation profiling
+ * ({@code gc.alloc.rate.norm} is the number of bytes allocated per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UOCtronBenchmark {
+
+    private static final LocalDateTime BLACKOUT_START = LocalDateTime.of(2025, 5, 21, 0, 0);
+
+    @Param({"39", "1000", "10000", "100000"})
+    public int plants;
+
+    private Path directory;
+    private String plantsFile;
+    private String demandFile;
+    private UOCtronController controller;
+    private PowerPlant plant;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("uoctron-bench");
+        plantsFile = directory.resolve("plants.txt").toString();
+        demandFile = directory.resolve("demand_forecast.txt").toString();
+        SyntheticFleet.writePlants(Path.of(plantsFile), plants, 42L);
+        SyntheticFleet.writeDemand(Path.of(demandFile), plants, 42L);
+
+        controller = new UOCtronController(plantsFile, demandFile);
+        controller.runBlackoutSimulation(BLACKOUT_START);
+        plant = (PowerPlant) controller.getPowerPlants()[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Empties the shared data catalog before every call, so the load benchmark parses the files
+     * instead of getting the fleet and demand cached by {@link #setUp()}.
+     */
+    @State(Scope.Thread)
+    public static class EmptyDataCatalog {
+        @Setup(Level.Invocation)
+        public void clear() {
+            DataCatalog.shared().clear();
+        }
+    }
+
+    @Benchmark
+    public UOCtronController loadPlantsAndDemand(EmptyDataCatalog emptyCatalog) {
+        return new UOCtronController(plantsFile, demandFile);
+    }
+
+    /**
+     * Empties the simulation cache of the controller before every call, so the blackout
+     * benchmark dispatches the run instead of finding the one simulated in {@link #setUp()}.
+     */
+    @State(Scope.Thread)
+    public static class EmptySimulationCache {
+        @Setup(Level.Invocation)
+        public void clear(UOCtronBenchmark benchmark) {
+            benchmark.controller.getSimulationCache().clear();
+        }
+    }
+
+    @Benchmark
+    public void runBlackoutSimulation(EmptySimulationCache emptyCache) {
+        controller.runBlackoutSimulation(BLACKOUT_START);
+    }
+
+    @Benchmark
+    public JSONArray getSimulationResults() {
+        return controller.getSimulationResults();
+    }
+
+    @Benchmark
+    public void writeSimulationResults(Blackhole blackhole) throws IOException {
+        controller.writeSimulationResults(new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        });
+    }
+
+    @Benchmark
+    public JSONObject plantToJSON() {
+        return plant.toJSON();
+    }
+
+    @Benchmark
+    public String plantToString() {
+        return plant.toString();
+    }
+
+    @Benchmark
+    public ByteBuffer getPowerPlantsJSON() {
+        return controller.getPowerPlantsJSON();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UOCtronBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}